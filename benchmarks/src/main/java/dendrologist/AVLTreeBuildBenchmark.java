@@ -0,0 +1,135 @@
+package dendrologist;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building an AVL tree from scratch and tearing it down again, with
+ * java.util.TreeMap under the same comparator as the baseline. mapPut builds
+ * an AVLTreeMap, which locates and inserts each key in a single descent. Each invocation
+ * inserts or removes all the keys of the distribution, so the score divided by
+ * the size gives the cost of a single insert or remove. With prefix
+ * comparison, both trees use the prefix comparator of the order code.
+ * 
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class AVLTreeBuildBenchmark {
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int size;
+
+    @Param({ "SORTED", "REVERSE", "RANDOM", "LENGTH_SKEWED" })
+    public KeyDistribution distribution;
+
+    @Param({ "1", "-1", "2", "-2", "3", "-3", "0" })
+    public int orderCode;
+
+    @Param({ "false", "true" })
+    public boolean prefix;
+
+    private Comparator<String> cmp;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        cmp = prefix ? Dendrologist.prefixComparator(orderCode) : Dendrologist.comparator(orderCode);
+        keys = distribution.keys(size, cmp, 42L);
+    }
+
+    /**
+     * A full AVL tree for remove to empty, refilled before each invocation.
+     * Only remove uses this state, so no other benchmark pays for the refill.
+     */
+    @State(Scope.Benchmark)
+    public static class FullTree {
+        AVLTree<String> tree;
+
+        @Setup(Level.Invocation)
+        public void fill(AVLTreeBuildBenchmark bench) {
+            tree = new AVLTree<>(bench.cmp);
+            for (String key : bench.keys) {
+                tree.insert(key);
+            }
+        }
+    }
+
+    /**
+     * A full TreeMap for treeMapRemove to empty, refilled before each
+     * invocation
+     */
+    @State(Scope.Benchmark)
+    public static class FullTreeMap {
+        TreeMap<String, String> map;
+
+        @Setup(Level.Invocation)
+        public void fill(AVLTreeBuildBenchmark bench) {
+            map = new TreeMap<>(bench.cmp);
+            for (String key : bench.keys) {
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    public AVLTree<String> insert() {
+        AVLTree<String> fresh = new AVLTree<>(cmp);
+        for (String key : keys) {
+            fresh.insert(key);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public AVLTree<String> remove(FullTree full) {
+        for (String key : keys) {
+            full.tree.remove(key);
+        }
+        return full.tree;
+    }
+
+    @Benchmark
+    public TreeMap<String, String> treeMapPut() {
+        TreeMap<String, String> fresh = new TreeMap<>(cmp);
+        for (String key : keys) {
+            fresh.put(key, key);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public AVLTreeMap<String, String> mapPut() {
+        AVLTreeMap<String, String> fresh = new AVLTreeMap<>(cmp);
+        for (String key : keys) {
+            fresh.put(key, key);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public TreeMap<String, String> treeMapRemove(FullTreeMap full) {
+        for (String key : keys) {
+            full.map.remove(key);
+        }
+        return full.map;
+    }
+}
@@ -0,0 +1,219 @@
+package dendrologist;
+
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the lookups, the augmented queries and the traversals of an AVL
+ * tree built once per trial, with java.util.TreeMap under the same comparator
+ * as the baseline for the lookups. The frozen benchmarks query the same tree
+ * compiled by freeze into its array-packed, van Emde Boas ordered form.
+ * Lookups cycle through a fixed sample of keys so that the probe order does
+ * not depend on the distribution.
+ * 
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Thread)
+public class AVLTreeQueryBenchmark {
+    /**
+     * The number of sampled keys; a power of two so that the next probe is
+     * picked with a mask
+     */
+    private static final int PROBES = 4096;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int size;
+
+    @Param({ "SORTED", "REVERSE", "RANDOM", "LENGTH_SKEWED" })
+    public KeyDistribution distribution;
+
+    @Param({ "1", "-1", "2", "-2", "3", "-3", "0" })
+    public int orderCode;
+
+    private AVLTree<String> tree;
+    private FrozenAVLTree<String> frozen;
+    private TreeMap<String, String> map;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Comparator<String> cmp = Dendrologist.comparator(orderCode);
+        String[] keys = distribution.keys(size, cmp, 42L);
+        tree = new AVLTree<>(cmp);
+        map = new TreeMap<>(cmp);
+        for (String key : keys) {
+            tree.insert(key);
+            map.put(key, key);
+        }
+        frozen = tree.freeze();
+        hits = KeyDistribution.sample(keys, PROBES, 7L);
+        misses = KeyDistribution.missingKeys(PROBES, 11L);
+    }
+
+    /**
+     * Gives the next key of the sample of keys in the tree
+     * 
+     * @return a key in the tree
+     */
+    private String hit() {
+        return hits[next++ & (PROBES - 1)];
+    }
+
+    /**
+     * Gives the next key of the sample of keys not in the tree
+     * 
+     * @return a key not in the tree
+     */
+    private String miss() {
+        return misses[next++ & (PROBES - 1)];
+    }
+
+    @Benchmark
+    public boolean inTree() {
+        return tree.inTree(hit());
+    }
+
+    @Benchmark
+    public boolean inTreeMiss() {
+        return tree.inTree(miss());
+    }
+
+    @Benchmark
+    public String retrieve() throws AVLTreeException {
+        return tree.retrieve(hit());
+    }
+
+    @Benchmark
+    public String getParent() throws AVLTreeException {
+        return tree.getParent(hit());
+    }
+
+    @Benchmark
+    public int ancestors() throws AVLTreeException {
+        return tree.ancestors(hit());
+    }
+
+    @Benchmark
+    public int descendants() throws AVLTreeException {
+        return tree.descendants(hit());
+    }
+
+    @Benchmark
+    public int height() {
+        return tree.height();
+    }
+
+    @Benchmark
+    public int diameter() {
+        return tree.diameter();
+    }
+
+    @Benchmark
+    public boolean isFibonacci() {
+        return tree.isFibonacci();
+    }
+
+    @Benchmark
+    public boolean isComplete() {
+        return tree.isComplete();
+    }
+
+    @Benchmark
+    public void inorderTraverse(Blackhole bh) {
+        tree.traverse(consumer(bh));
+    }
+
+    @Benchmark
+    public void preorderTraverse(Blackhole bh) {
+        tree.preorderTraverse(consumer(bh));
+    }
+
+    @Benchmark
+    public void postorderTraverse(Blackhole bh) {
+        tree.postorderTraverse(consumer(bh));
+    }
+
+    @Benchmark
+    public boolean frozenInTree() {
+        return frozen.inTree(hit());
+    }
+
+    @Benchmark
+    public boolean frozenInTreeMiss() {
+        return frozen.inTree(miss());
+    }
+
+    @Benchmark
+    public String frozenGetParent() throws AVLTreeException {
+        return frozen.getParent(hit());
+    }
+
+    @Benchmark
+    public int frozenAncestors() throws AVLTreeException {
+        return frozen.ancestors(hit());
+    }
+
+    @Benchmark
+    public int frozenDescendants() throws AVLTreeException {
+        return frozen.descendants(hit());
+    }
+
+    @Benchmark
+    public boolean treeMapContainsKey() {
+        return map.containsKey(hit());
+    }
+
+    @Benchmark
+    public boolean treeMapContainsKeyMiss() {
+        return map.containsKey(miss());
+    }
+
+    @Benchmark
+    public String treeMapGet() {
+        return map.get(hit());
+    }
+
+    @Benchmark
+    public void treeMapIterate(Blackhole bh) {
+        for (String key : map.keySet()) {
+            bh.consume(key);
+        }
+    }
+
+    /**
+     * Wraps a blackhole in a function that can be passed to a traversal
+     * 
+     * @param bh the blackhole
+     * @return a function that consumes each entry it is applied to
+     */
+    private static Function<Object, Object> consumer(Blackhole bh) {
+        return x -> {
+            bh.consume(x);
+            return null;
+        };
+    }
+}
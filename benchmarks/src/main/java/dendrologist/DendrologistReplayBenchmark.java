@@ -0,0 +1,108 @@
+package dendrologist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the replay of a command file by Dendrologist, including parsing
+ * and tracing. The command file is generated once per trial: every key is
+ * inserted, a quarter of the keys are looked up with gen, half of the keys are
+ * deleted, and the properties are reported every 1024 commands and the tree
+ * is traversed once at the end. The trace is discarded. With compact keys,
+ * the keys are stored in a string arena. The binary variant replays the same
+ * commands compiled into a memory-mapped binary trace.
+ * 
+ * @author Matthew Benfield
+ * @see Dendrologist
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class DendrologistReplayBenchmark {
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int size;
+
+    @Param({ "SORTED", "REVERSE", "RANDOM", "LENGTH_SKEWED" })
+    public KeyDistribution distribution;
+
+    @Param({ "1", "-1", "2", "-2", "3", "-3", "0" })
+    public int orderCode;
+
+    @Param({ "false", "true" })
+    public boolean compact;
+
+    @Param({ "false", "true" })
+    public boolean binary;
+
+    private String commands;
+    private File compiled;
+    private PrintStream trace;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        String[] keys = distribution.keys(size, Dendrologist.comparator(orderCode), 42L);
+        StringBuilder script = new StringBuilder();
+        int line = 0;
+        for (int i = 0; i < keys.length; i++) {
+            script.append("insert ").append(keys[i]).append('\n');
+            if (++line % 1024 == 0) {
+                script.append("props\n");
+            }
+        }
+        for (String key : KeyDistribution.sample(keys, size / 4, 7L)) {
+            script.append("gen ").append(key).append('\n');
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            script.append("delete ").append(keys[i]).append('\n');
+            if (++line % 1024 == 0) {
+                script.append("props\n");
+            }
+        }
+        script.append("traverse");
+        commands = script.toString();
+        trace = new PrintStream(OutputStream.nullOutputStream());
+        if (binary) {
+            compiled = File.createTempFile("dendrologist", ".trace");
+            compiled.deleteOnExit();
+            TraceWriter.compile(new CommandReader(new Scanner(commands), "benchmark"), compiled, true);
+        }
+    }
+
+    @Benchmark
+    public AVLTree<?> replay() throws AVLTreeException, IOException {
+        CommandReader reader = binary ? new BinaryCommandReader(compiled)
+                : new CommandReader(new Scanner(commands), "benchmark");
+        AVLTree<?> replayed;
+        if (compact) {
+            AVLTree<CompactKey> tree = new AVLTree<>(Dendrologist.<CompactKey>comparator(orderCode));
+            Dendrologist.replay(reader, tree, new StringArena(), trace, null);
+            replayed = tree;
+        } else {
+            AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(orderCode));
+            Dendrologist.replay(reader, tree, trace, null);
+            replayed = tree;
+        }
+        reader.close();
+        return replayed;
+    }
+}
@@ -0,0 +1,143 @@
+package dendrologist;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Key distributions used by the benchmarks. Every distribution produces the
+ * same keys for the same size and seed so that runs are comparable.
+ * 
+ * @author Matthew Benfield
+ * @see AVLTreeBuildBenchmark, AVLTreeQueryBenchmark, DendrologistReplayBenchmark
+ */
+public enum KeyDistribution {
+    /**
+     * random keys of 6 to 12 letters, inserted in ascending order
+     */
+    SORTED,
+    /**
+     * random keys of 6 to 12 letters, inserted in descending order
+     */
+    REVERSE,
+    /**
+     * random keys of 6 to 12 letters, inserted in random order
+     */
+    RANDOM,
+    /**
+     * random keys whose lengths follow a geometric distribution: most keys are
+     * a few letters long and a few are hundreds of letters long
+     */
+    LENGTH_SKEWED,
+    /**
+     * random URL paths of 3 to 6 segments drawn from a small vocabulary per
+     * level, so that keys share long prefixes, inserted in random order
+     */
+    PATHS;
+
+    /**
+     * The longest key generated by LENGTH_SKEWED
+     */
+    private static final int MAX_SKEWED_LENGTH = 256;
+
+    /**
+     * Generates the keys of this distribution in insertion order
+     * 
+     * @param n     the number of keys
+     * @param order the order the keys are sorted by for SORTED and REVERSE
+     * @param seed  the seed of the random generator
+     * @return an array of n keys
+     */
+    public String[] keys(int n, Comparator<String> order, long seed) {
+        Random rnd = new Random(seed);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            int length;
+            if (this == PATHS) {
+                keys[i] = path(rnd);
+                continue;
+            } else if (this == LENGTH_SKEWED) {
+                length = 1;
+                while (length < MAX_SKEWED_LENGTH && rnd.nextInt(4) != 0) {
+                    length += 1 + length / 2;
+                }
+                length = Math.min(length, MAX_SKEWED_LENGTH);
+            } else {
+                length = 6 + rnd.nextInt(7);
+            }
+            keys[i] = word(rnd, length);
+        }
+        switch (this) {
+            case SORTED -> Arrays.sort(keys, order);
+            case REVERSE -> Arrays.sort(keys, order.reversed());
+            default -> {
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Generates keys that are not produced by any distribution
+     * 
+     * @param n    the number of keys
+     * @param seed the seed of the random generator
+     * @return an array of n keys that contain a digit
+     */
+    public static String[] missingKeys(int n, long seed) {
+        Random rnd = new Random(seed);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = word(rnd, 3 + rnd.nextInt(8)) + rnd.nextInt(10);
+        }
+        return keys;
+    }
+
+    /**
+     * Picks a sample of the specified keys in random order
+     * 
+     * @param keys the keys to sample
+     * @param n    the size of the sample
+     * @param seed the seed of the random generator
+     * @return an array of n keys taken from the specified keys
+     */
+    public static String[] sample(String[] keys, int n, long seed) {
+        Random rnd = new Random(seed);
+        String[] sample = new String[n];
+        for (int i = 0; i < n; i++) {
+            sample[i] = keys[rnd.nextInt(keys.length)];
+        }
+        return sample;
+    }
+
+    /**
+     * Generates a random URL path whose segments are drawn from a vocabulary
+     * of 8 words per level
+     * 
+     * @param rnd the random generator
+     * @return a path of 3 to 6 segments
+     */
+    private static String path(Random rnd) {
+        StringBuilder path = new StringBuilder("https://example.org/catalog");
+        int segments = 3 + rnd.nextInt(4);
+        for (int level = 0; level < segments; level++) {
+            Random vocabulary = new Random(level * 31L + rnd.nextInt(8));
+            path.append('/').append(word(vocabulary, 4 + vocabulary.nextInt(9)));
+        }
+        return path.append('/').append(rnd.nextInt(1000)).toString();
+    }
+
+    /**
+     * Generates a random lowercase word
+     * 
+     * @param rnd    the random generator
+     * @param length the length of the word
+     * @return a word of the specified length
+     */
+    private static String word(Random rnd, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + rnd.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
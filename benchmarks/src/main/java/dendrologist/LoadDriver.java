@@ -0,0 +1,350 @@
+package dendrologist;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Runs a synthetic workload against several tree engines and reports the
+ * throughput and the latency distribution of each, so that engines and
+ * builds can be compared on the same commands. The commands are generated
+ * before the clock starts and executed through the API of each engine, the
+ * way a service embedding the tree would call it, rather than through the
+ * traces of Dendrologist.
+ *
+ * The gens of a workload are not run, and are reported as excluded: the
+ * genealogy of AVLTree counts the descendants of the root, which walks the
+ * whole tree and would swamp every other cost, and a TreeMap has no
+ * genealogy to compare it with. Replay a generated command file with
+ * Dendrologist --profile to measure the full commands.
+ *
+ * @author Matthew Benfield
+ * @see Workload, WorkloadGenerator, ReplayProfiler
+ */
+public class LoadDriver {
+    /**
+     * The engines a workload can be run against, by name
+     */
+    private static final Map<String, Function<Integer, Engine>> ENGINES = new LinkedHashMap<>();
+    /**
+     * The number of entries measured to estimate the footprint of an engine
+     */
+    private static final int FOOTPRINT_SAMPLES = 10000;
+
+    static {
+        ENGINES.put("avl", code -> new TreeEngine<>(new AVLTree<>(Dendrologist.<String>comparator(code)),
+                Function.identity(), Function.identity()));
+        ENGINES.put("finger", code -> {
+            AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(code));
+            tree.setFingerSearch(true);
+            return new TreeEngine<>(tree, Function.identity(), Function.identity());
+        });
+        ENGINES.put("cache", code -> {
+            AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(code));
+            tree.enableLookupCache(1 << 16, Dendrologist.keyHash(code));
+            return new TreeEngine<>(tree, Function.identity(), Function.identity());
+        });
+        ENGINES.put("prefix", code -> new TreeEngine<>(new AVLTree<>(Dendrologist.<String>prefixComparator(code)),
+                Function.identity(), Function.identity()));
+        ENGINES.put("compact", code -> {
+            StringArena arena = new StringArena();
+            return new TreeEngine<>(new AVLTree<>(Dendrologist.<CompactKey>comparator(code)), arena::intern,
+                    arena::probe);
+        });
+        ENGINES.put("multiset", code -> {
+            AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(code));
+            tree.setMultiset(true);
+            return new TreeEngine<>(tree, Function.identity(), Function.identity());
+        });
+        ENGINES.put("treemap", code -> new MapEngine(new TreeMap<>(Dendrologist.<String>comparator(code))));
+    }
+
+    public static void main(String[] args) {
+        String usage = "LoadDriver [options]\n";
+        usage += "  [options]:\n";
+        usage += Workload.OPTIONS;
+        usage += "  --engines=<engine>,... the engines to run the workload against (default avl,treemap), among\n";
+        usage += "    " + String.join(", ", ENGINES.keySet()) + "\n";
+        usage += "  --warmup=<n> the number of unmeasured runs of the workload against each engine (default 1)\n";
+        ArrayList<String> rest = new ArrayList<>();
+        Workload workload = Workload.parse(args, rest);
+        String[] engines = { "avl", "treemap" };
+        int warmup = 1;
+        for (String arg : rest) {
+            if (arg.startsWith("--engines=")) {
+                engines = arg.substring("--engines=".length()).split(",");
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            } else {
+                System.out.println(usage);
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        for (String engine : engines) {
+            if (!ENGINES.containsKey(engine)) {
+                System.out.println(usage);
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+            }
+        }
+
+        System.out.println("Workload: " + workload);
+        Command[] commands = workload.commands();
+        ArrayList<Result> results = new ArrayList<>();
+        for (String engine : engines) {
+            for (int i = 0; i < warmup; i++) {
+                run(engine, workload, commands);
+            }
+            Result result = run(engine, workload, commands);
+            result.report();
+            results.add(result);
+        }
+        System.out.printf("%n%-10s %14s %14s %10s %10s %10s %10s %14s%n", "engine", "load ops/s", "run ops/s",
+                "p50(ns)", "p99(ns)", "p99.9(ns)", "max(ns)", "bytes");
+        for (Result r : results) {
+            System.out.printf("%-10s %14.0f %14.0f %10d %10d %10d %10d %14s%n", r.engine, r.loadThroughput(),
+                    r.runThroughput(), r.run.percentile(50), r.run.percentile(99), r.run.percentile(99.9),
+                    r.run.max(), r.footprint == null ? "-" : r.footprint.total());
+        }
+        if (!results.isEmpty() && results.get(0).excluded > 0) {
+            System.out.printf("excluded: %d gen commands, not run%n", results.get(0).excluded);
+        }
+    }
+
+    /**
+     * Runs a workload against a new engine, timing each command but the gens,
+     * which are counted as excluded
+     *
+     * @param name     the name of the engine
+     * @param workload the workload
+     * @param commands the commands of the workload
+     * @return the latencies and elapsed times of the load and of the run
+     */
+    private static Result run(String name, Workload workload, Command[] commands) {
+        Engine engine = ENGINES.get(name).apply(workload.orderCode());
+        Result result = new Result(name);
+        int loaded = workload.size();
+        long start = System.nanoTime();
+        for (int i = 0; i < loaded; i++) {
+            long t0 = System.nanoTime();
+            engine.execute(commands[i]);
+            result.load.record(System.nanoTime() - t0);
+        }
+        long middle = System.nanoTime();
+        for (int i = loaded; i < commands.length; i++) {
+            if (commands[i].type() == CommandType.GEN) {
+                result.excluded++;
+                continue;
+            }
+            long t0 = System.nanoTime();
+            engine.execute(commands[i]);
+            result.byType.get(commands[i].type()).record(System.nanoTime() - t0);
+        }
+        long end = System.nanoTime();
+        result.loadNanos = middle - start;
+        result.runNanos = end - middle;
+        result.size = engine.size();
+        result.checksum = engine.checksum();
+        result.footprint = engine.footprint();
+        for (LatencyHistogram h : result.byType.values()) {
+            result.run.add(h);
+        }
+        return result;
+    }
+
+    /**
+     * The latencies and elapsed times of a workload run against an engine
+     */
+    private static final class Result {
+        final String engine;
+        final LatencyHistogram load = new LatencyHistogram();
+        final EnumMap<CommandType, LatencyHistogram> byType = new EnumMap<>(CommandType.class);
+        final LatencyHistogram run = new LatencyHistogram();
+        /**
+         * The number of commands of the run that were not run
+         */
+        long excluded;
+        long loadNanos;
+        long runNanos;
+        int size;
+        long checksum;
+        Footprint footprint;
+
+        Result(String engine) {
+            this.engine = engine;
+            for (CommandType type : CommandType.values()) {
+                byType.put(type, new LatencyHistogram());
+            }
+        }
+
+        double loadThroughput() {
+            return load.count() * 1e9 / Math.max(1, loadNanos);
+        }
+
+        double runThroughput() {
+            return run.count() * 1e9 / Math.max(1, runNanos);
+        }
+
+        void report() {
+            System.out.printf("%nEngine %s: final size = %d, checksum = %d%n", engine, size, checksum);
+            if (footprint != null) {
+                System.out.println("  " + footprint);
+            }
+            System.out.printf("  load: %d inserts in %.3fs, %.0f inserts/s%n", load.count(), loadNanos / 1e9,
+                    loadThroughput());
+            System.out.printf("  run: %d commands in %.3fs, %.0f commands/s%n", run.count(), runNanos / 1e9,
+                    runThroughput());
+            System.out.printf("    %-8s %s%n", "load", load);
+            for (CommandType type : CommandType.values()) {
+                LatencyHistogram h = byType.get(type);
+                if (h.count() > 0) {
+                    System.out.printf("    %-8s %s%n", type.word(), h);
+                }
+            }
+            if (excluded > 0) {
+                System.out.printf("    %-8s excluded: %d commands, not run%n", CommandType.GEN.word(), excluded);
+            }
+            System.out.printf("    %-8s %s%n", "all", run);
+        }
+    }
+
+    /**
+     * A tree engine: executes the commands of a workload
+     */
+    private interface Engine {
+        /**
+         * Executes a command
+         *
+         * @param command the command
+         */
+        void execute(Command command);
+
+        /**
+         * Gives the number of keys in the engine
+         *
+         * @return the size of the engine
+         */
+        int size();
+
+        /**
+         * Gives a value that depends on the results of the commands executed,
+         * so that none of them can be optimized away
+         *
+         * @return the checksum of the results
+         */
+        long checksum();
+
+        /**
+         * Estimates the heap used by the engine
+         *
+         * @return the footprint of the engine, or null when it cannot be
+         *         estimated
+         */
+        Footprint footprint();
+    }
+
+    /**
+     * An engine over an AVLTree
+     *
+     * @param <K> the type of the keys of the tree
+     */
+    private static final class TreeEngine<K extends Comparable<K>> implements Engine {
+        private final AVLTree<K> tree;
+        private final Function<String, K> store;
+        private final Function<String, K> find;
+        private final Function<K, Object> visit;
+        private long checksum;
+
+        /**
+         * Constructs an engine over a tree
+         *
+         * @param tree  the tree
+         * @param store gives the key to insert for a key of a command
+         * @param find  gives the key to look up for a key of a command
+         */
+        TreeEngine(AVLTree<K> tree, Function<String, K> store, Function<String, K> find) {
+            this.tree = tree;
+            this.store = store;
+            this.find = find;
+            this.visit = key -> {
+                checksum++;
+                return null;
+            };
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void execute(Command command) {
+            switch (command.type()) {
+                case INSERT -> tree.insert(store.apply(command.key()));
+                case DELETE -> {
+                    if (tree.isMultiset()) {
+                        tree.removeOne(find.apply(command.key()));
+                    } else {
+                        tree.remove(find.apply(command.key()));
+                    }
+                }
+                case PROPS -> checksum += tree.size() + tree.height();
+                case TRAVERSE -> tree.traverse(visit);
+            }
+        }
+
+        @Override
+        public int size() {
+            return tree.size();
+        }
+
+        @Override
+        public long checksum() {
+            return checksum;
+        }
+
+        @Override
+        public Footprint footprint() {
+            return tree.footprint(FOOTPRINT_SAMPLES);
+        }
+    }
+
+    /**
+     * An engine over a java.util.TreeMap, as a baseline
+     */
+    private static final class MapEngine implements Engine {
+        private final TreeMap<String, String> map;
+        private long checksum;
+
+        MapEngine(TreeMap<String, String> map) {
+            this.map = map;
+        }
+
+        @Override
+        public void execute(Command command) {
+            switch (command.type()) {
+                case INSERT -> map.put(command.key(), command.key());
+                case DELETE -> map.remove(command.key());
+                case PROPS -> checksum += map.size();
+                case TRAVERSE -> {
+                    for (String key : map.keySet()) {
+                        checksum++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public long checksum() {
+            return checksum;
+        }
+
+        @Override
+        public Footprint footprint() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package dendrologist;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * A synthetic workload of Dendrologist commands. A workload first loads a
+ * universe of distinct keys into the tree in a chosen insertion order, then
+ * runs a number of operations drawn from a mix of command types; the key of
+ * each insert, delete and gen of the run is drawn from the universe with a
+ * Zipfian skew, so a few hot keys receive most of the traffic. The same
+ * workload always generates the same commands, so runs against different
+ * trees or builds are comparable.
+ *
+ * The lengths of the keys are matched to the order code, since it decides
+ * what tells two keys apart: letters for lexicographical orders, lengths for
+ * the orders by length only, and both for the orders by length then letters.
+ *
+ * @author Matthew Benfield
+ * @see WorkloadGenerator, LoadDriver, KeyDistribution
+ */
+public final class Workload {
+    /**
+     * The order in which the universe is loaded into the tree
+     */
+    public enum InsertOrder {
+        /**
+         * in random order
+         */
+        RANDOM,
+        /**
+         * in ascending order, so every insert goes to the rightmost leaf
+         */
+        SORTED,
+        /**
+         * in descending order, so every insert goes to the leftmost leaf
+         */
+        REVERSE,
+        /**
+         * alternately the smallest and the largest key left, so inserts
+         * rebalance both ends of the tree
+         */
+        ZIGZAG,
+        /**
+         * in ascending runs of 256 keys, the runs in random order, like keys
+         * that arrive nearly sorted
+         */
+        RUNS
+    }
+
+    /**
+     * The number of distinct lengths, and therefore of distinct keys, of a
+     * universe ordered by length only
+     */
+    static final int MAX_LENGTHS = 4096;
+    /**
+     * The number of keys in each run of RUNS
+     */
+    private static final int RUN = 256;
+
+    /**
+     * The usage of the workload options
+     */
+    static final String OPTIONS = ""
+            + "  --size=<n> the number of distinct keys loaded before the run (default 100000; at most "
+            + MAX_LENGTHS + " for order codes 2 and -2)\n"
+            + "  --operations=<n> the number of commands run after loading (default 1000000)\n"
+            + "  --mix=<type>:<weight>,... the weight of each command type in the run\n"
+            + "    (default insert:20,delete:10,gen:70,props:0,traverse:0)\n"
+            + "  --order-code=<code> the order code the keys are generated for (default 1)\n"
+            + "  --skew=<s> the Zipfian exponent of key popularity, 0 for uniform, below 1 (default 0.99)\n"
+            + "  --insert-order=random|sorted|reverse|zigzag|runs the order the keys are loaded in (default random)\n"
+            + "  --seed=<n> the seed of the random generator (default 42)\n";
+
+    private final int size;
+    private final long operations;
+    private final int[] mix;
+    private final int orderCode;
+    private final double skew;
+    private final InsertOrder order;
+    private final long seed;
+
+    /**
+     * Constructs a workload
+     *
+     * @param size       the number of keys in the universe
+     * @param operations the number of operations run after loading
+     * @param mix        the weight of each command type in the run, indexed
+     *                   by ordinal
+     * @param orderCode  the order code of the tree
+     * @param skew       the Zipfian exponent of the key popularity, from 0
+     *                   for uniform up to but excluding 1
+     * @param order      the order in which the universe is loaded
+     * @param seed       the seed of the random generator
+     */
+    public Workload(int size, long operations, int[] mix, int orderCode, double skew, InsertOrder order,
+            long seed) {
+        if (size < 1 || operations < 0) {
+            throw new IllegalArgumentException("A workload needs a positive size and a nonnegative number of operations.");
+        }
+        if (mix.length != CommandType.values().length || Arrays.stream(mix).anyMatch(w -> w < 0)
+                || operations > 0 && Arrays.stream(mix).sum() == 0) {
+            throw new IllegalArgumentException("The weights of the mix must be nonnegative, and not all zero.");
+        }
+        if (skew < 0 || skew >= 1) {
+            throw new IllegalArgumentException("The skew must be at least 0 and less than 1.");
+        }
+        if (orderCode < -3 || orderCode > 3) {
+            throw new IllegalArgumentException("Invalid order code");
+        }
+        this.size = Math.abs(orderCode) == 2 ? Math.min(size, MAX_LENGTHS) : size;
+        this.operations = operations;
+        this.mix = mix.clone();
+        this.orderCode = orderCode;
+        this.skew = skew;
+        this.order = order;
+        this.seed = seed;
+    }
+
+    /**
+     * Parses the options of a workload, leaving the other arguments
+     *
+     * @param args     the command line arguments
+     * @param operands receives the arguments that are not workload options
+     * @return the workload
+     */
+    public static Workload parse(String[] args, List<String> operands) {
+        int size = 100_000;
+        long operations = 1_000_000;
+        int[] mix = { 20, 10, 70, 0, 0 };
+        int orderCode = 1;
+        double skew = 0.99;
+        InsertOrder order = InsertOrder.RANDOM;
+        long seed = 42;
+        for (String arg : args) {
+            if (arg.startsWith("--size=")) {
+                size = Integer.parseInt(arg.substring("--size=".length()));
+            } else if (arg.startsWith("--operations=")) {
+                operations = Long.parseLong(arg.substring("--operations=".length()));
+            } else if (arg.startsWith("--mix=")) {
+                mix = parseMix(arg.substring("--mix=".length()));
+            } else if (arg.startsWith("--order-code=")) {
+                orderCode = Integer.parseInt(arg.substring("--order-code=".length()));
+            } else if (arg.startsWith("--skew=")) {
+                skew = Double.parseDouble(arg.substring("--skew=".length()));
+            } else if (arg.startsWith("--insert-order=")) {
+                order = InsertOrder.valueOf(arg.substring("--insert-order=".length()).toUpperCase());
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else {
+                operands.add(arg);
+            }
+        }
+        return new Workload(size, operations, mix, orderCode, skew, order, seed);
+    }
+
+    /**
+     * Parses a mix such as insert:20,delete:10,gen:70; command types left out
+     * weigh 0
+     *
+     * @param spec the mix
+     * @return the weight of each command type, indexed by ordinal
+     */
+    static int[] parseMix(String spec) {
+        int[] mix = new int[CommandType.values().length];
+        for (String part : spec.split(",")) {
+            int colon = part.indexOf(':');
+            CommandType type = colon < 0 ? null : CommandType.of(part.substring(0, colon));
+            if (type == null) {
+                throw new IllegalArgumentException("Invalid mix: " + spec);
+            }
+            mix[type.ordinal()] = Integer.parseInt(part.substring(colon + 1));
+        }
+        return mix;
+    }
+
+    /**
+     * Gives the number of keys in the universe
+     *
+     * @return the number of keys loaded before the run
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the number of operations of the run
+     *
+     * @return the number of commands that follow the load
+     */
+    public long operations() {
+        return operations;
+    }
+
+    /**
+     * Gives the order code the keys are generated for
+     *
+     * @return the order code
+     */
+    public int orderCode() {
+        return orderCode;
+    }
+
+    /**
+     * Generates the universe of keys in insertion order
+     *
+     * @return the keys, distinct under the order code
+     */
+    public String[] keys() {
+        Random rnd = new Random(seed);
+        String[] keys = new String[size];
+        HashSet<String> seen = new HashSet<>();
+        int code = Math.abs(orderCode);
+        for (int i = 0; i < size; i++) {
+            if (code == 2) {
+                keys[i] = word(rnd, i + 1);
+                continue;
+            }
+            do {
+                keys[i] = code == 1 ? word(rnd, 6 + rnd.nextInt(7)) : word(rnd, 4 + geometric(rnd, 6, 60));
+            } while (!seen.add(keys[i]));
+        }
+        Comparator<String> cmp = Dendrologist.comparator(orderCode);
+        switch (order) {
+            case RANDOM -> shuffle(keys, rnd);
+            case SORTED -> Arrays.sort(keys, cmp);
+            case REVERSE -> Arrays.sort(keys, cmp.reversed());
+            case ZIGZAG -> {
+                Arrays.sort(keys, cmp);
+                String[] sorted = keys.clone();
+                for (int i = 0, low = 0, high = size - 1; i < size; i++) {
+                    keys[i] = i % 2 == 0 ? sorted[low++] : sorted[high--];
+                }
+            }
+            case RUNS -> {
+                Arrays.sort(keys, cmp);
+                String[] sorted = keys.clone();
+                int[] runs = new int[(size + RUN - 1) / RUN];
+                for (int r = 0; r < runs.length; r++) {
+                    runs[r] = r;
+                }
+                for (int r = runs.length - 1; r > 0; r--) {
+                    int j = rnd.nextInt(r + 1);
+                    int t = runs[r];
+                    runs[r] = runs[j];
+                    runs[j] = t;
+                }
+                int i = 0;
+                for (int run : runs) {
+                    for (int k = run * RUN; k < Math.min(size, (run + 1) * RUN); k++) {
+                        keys[i++] = sorted[k];
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Generates the commands of this workload: an insert of each key of the
+     * universe, then the operations of the run
+     *
+     * @param sink receives the commands in order
+     */
+    public void generate(Consumer<Command> sink) {
+        String[] keys = keys();
+        for (String key : keys) {
+            sink.accept(new Command(CommandType.INSERT, key));
+        }
+        Random rnd = new Random(seed ^ 0x5DEECE66DL);
+        int[] hot = popularity(keys.length, rnd);
+        Zipf zipf = skew > 0 ? new Zipf(keys.length, skew) : null;
+        CommandType[] types = CommandType.values();
+        int total = Arrays.stream(mix).sum();
+        for (long op = 0; op < operations; op++) {
+            int pick = rnd.nextInt(total);
+            int t = 0;
+            while (pick >= mix[t]) {
+                pick -= mix[t++];
+            }
+            CommandType type = types[t];
+            if (!type.hasKey()) {
+                sink.accept(type == CommandType.PROPS ? Command.PROPS : Command.TRAVERSE);
+                continue;
+            }
+            int rank = zipf == null ? rnd.nextInt(keys.length) : zipf.next(rnd);
+            sink.accept(new Command(type, keys[hot[rank]]));
+        }
+    }
+
+    /**
+     * Generates the commands of this workload into an array
+     *
+     * @return the commands in order
+     */
+    public Command[] commands() {
+        long count = size + operations;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The workload is too large to hold in memory.");
+        }
+        Command[] commands = new Command[(int) count];
+        int[] next = { 0 };
+        generate(command -> commands[next[0]++] = command);
+        return commands;
+    }
+
+    /**
+     * Writes the commands of this workload as a command file
+     *
+     * @param file the command file
+     * @return the number of commands written
+     * @throws IOException when the file cannot be written
+     */
+    public long writeText(File file) throws IOException {
+        long[] count = { 0 };
+        try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            generate(command -> {
+                try {
+                    out.write(command.type().word());
+                    if (command.key() != null) {
+                        out.write(' ');
+                        out.write(command.key());
+                    }
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    /**
+     * Writes the commands of this workload as a binary trace
+     *
+     * @param file       the binary trace
+     * @param dictionary whether keys are given inline only once
+     * @return the number of commands written
+     * @throws IOException when the trace cannot be written
+     */
+    public long writeBinary(File file, boolean dictionary) throws IOException {
+        long[] count = { 0 };
+        try (TraceWriter out = new TraceWriter(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16), dictionary)) {
+            generate(command -> {
+                try {
+                    out.write(command);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("size = ").append(size).append(", operations = ").append(operations).append(", mix = ");
+        for (CommandType type : CommandType.values()) {
+            s.append(type.ordinal() == 0 ? "" : ",").append(type.word()).append(':').append(mix[type.ordinal()]);
+        }
+        return s.append(", order code = ").append(orderCode).append(", skew = ").append(skew)
+                .append(", insert order = ").append(order.name().toLowerCase()).append(", seed = ").append(seed)
+                .toString();
+    }
+
+    /**
+     * Assigns the popularity ranks to the keys at random, so that the hot keys
+     * are spread over the tree rather than loaded first
+     *
+     * @param n   the number of keys
+     * @param rnd the random generator
+     * @return the index of the key of each rank
+     */
+    private static int[] popularity(int n, Random rnd) {
+        int[] hot = new int[n];
+        for (int i = 0; i < n; i++) {
+            hot[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = hot[i];
+            hot[i] = hot[j];
+            hot[j] = t;
+        }
+        return hot;
+    }
+
+    /**
+     * Shuffles keys in place
+     *
+     * @param keys the keys
+     * @param rnd  the random generator
+     */
+    private static void shuffle(String[] keys, Random rnd) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            String t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+    }
+
+    /**
+     * Draws from a geometric distribution
+     *
+     * @param rnd  the random generator
+     * @param mean the mean of the distribution
+     * @param max  the largest value drawn
+     * @return a value from 0 to max
+     */
+    private static int geometric(Random rnd, double mean, int max) {
+        int value = (int) (Math.log(1 - rnd.nextDouble()) / Math.log(mean / (mean + 1)));
+        return Math.min(value, max);
+    }
+
+    /**
+     * Generates a random lowercase word
+     *
+     * @param rnd    the random generator
+     * @param length the length of the word
+     * @return a word of the specified length
+     */
+    private static String word(Random rnd, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + rnd.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Draws ranks from a Zipfian distribution with an exponent below 1 in
+     * constant time, after computing the normalization constant once, as in
+     * "Quickly Generating Billion-Record Synthetic Databases" by Gray et al.
+     */
+    private static final class Zipf {
+        private final int n;
+        private final double theta;
+        private final double zetan;
+        private final double alpha;
+        private final double eta;
+
+        Zipf(int n, double theta) {
+            this.n = n;
+            this.theta = theta;
+            double zeta = 0;
+            for (int i = 1; i <= n; i++) {
+                zeta += 1 / Math.pow(i, theta);
+            }
+            zetan = zeta;
+            alpha = 1 / (1 - theta);
+            double zeta2 = 1 + Math.pow(0.5, theta);
+            eta = (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta2 / zetan);
+        }
+
+        /**
+         * Draws a rank, 0 being the most popular
+         *
+         * @param rnd the random generator
+         * @return a rank from 0 to n - 1
+         */
+        int next(Random rnd) {
+            double u = rnd.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1 || n == 1) {
+                return 0;
+            }
+            if (uz < 1 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return Math.min(n - 1, (int) (n * Math.pow(eta * u - eta + 1, alpha)));
+        }
+    }
+}
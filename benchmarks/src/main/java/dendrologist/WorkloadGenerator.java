@@ -0,0 +1,43 @@
+package dendrologist;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes a synthetic workload as a command file, or as a binary trace, that
+ * Dendrologist replays like any other
+ *
+ * @author Matthew Benfield
+ * @see Workload, LoadDriver
+ */
+public class WorkloadGenerator {
+    public static void main(String[] args) throws IOException {
+        String usage = "WorkloadGenerator [options] <command-file>\n";
+        usage += "  [options]:\n";
+        usage += Workload.OPTIONS;
+        usage += "  --binary writes a binary trace instead of a command file\n";
+        usage += "  --no-dictionary gives every key of a binary trace inline instead of once\n";
+        ArrayList<String> rest = new ArrayList<>();
+        Workload workload = Workload.parse(args, rest);
+        ArrayList<String> operands = new ArrayList<>();
+        boolean binary = false;
+        boolean dictionary = true;
+        for (String arg : rest) {
+            if (arg.equals("--binary")) {
+                binary = true;
+            } else if (arg.equals("--no-dictionary")) {
+                dictionary = false;
+            } else {
+                operands.add(arg);
+            }
+        }
+        if (operands.size() != 1) {
+            System.out.println(usage);
+            throw new IllegalArgumentException("There should be 1 command line argument.");
+        }
+        File file = new File(operands.get(0));
+        long commands = binary ? workload.writeBinary(file, dictionary) : workload.writeText(file);
+        System.err.println("generated " + commands + " commands into " + file + " (" + workload + ")");
+    }
+}
@@ -0,0 +1,241 @@
+package dendrologist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Reads the commands of a binary trace written by TraceWriter. The trace is
+ * memory-mapped a window of at most 1 GiB at a time, so replaying it costs
+ * no read calls and no copies into a buffer, and a key given once in the
+ * dictionary of the trace is decoded once however many commands refer to it.
+ *
+ * @author Matthew Benfield
+ * @see TraceWriter, CommandReader
+ */
+public class BinaryCommandReader extends CommandReader {
+    /**
+     * The largest part of the trace mapped at once
+     */
+    private static final long WINDOW = 1L << 30;
+    /**
+     * The command types by ordinal
+     */
+    private static final CommandType[] TYPES = CommandType.values();
+
+    /**
+     * The trace
+     */
+    private final RandomAccessFile trace;
+    /**
+     * The channel of the trace
+     */
+    private final FileChannel channel;
+    /**
+     * The size of the trace in bytes
+     */
+    private final long size;
+    /**
+     * The keys given inline so far, or null without a dictionary
+     */
+    private final ArrayList<String> dictionary;
+    /**
+     * The mapped window of the trace
+     */
+    private MappedByteBuffer window;
+    /**
+     * The offset in the trace of the start of the window
+     */
+    private long base;
+    /**
+     * The bytes of the key being decoded
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Constructs a reader over a binary trace
+     *
+     * @param file the binary trace
+     * @throws IOException              when the trace cannot be mapped
+     * @throws IllegalArgumentException when the file is not a binary trace of
+     *                                  a known version
+     */
+    public BinaryCommandReader(File file) throws IOException {
+        super(file.getPath());
+        trace = new RandomAccessFile(file, "r");
+        channel = trace.getChannel();
+        try {
+            size = channel.size();
+            map(0);
+            byte[] magic = new byte[TraceWriter.MAGIC.length];
+            for (int i = 0; i < magic.length; i++) {
+                magic[i] = (byte) readByte();
+            }
+            if (!Arrays.equals(magic, TraceWriter.MAGIC) || readByte() != TraceWriter.VERSION) {
+                throw new IllegalArgumentException(source() + " <- Parsing Error");
+            }
+            dictionary = (readByte() & TraceWriter.DICTIONARY) != 0 ? new ArrayList<>() : null;
+        } catch (IOException | RuntimeException e) {
+            trace.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Determines whether a file is a binary trace
+     *
+     * @param file a file
+     * @return true if the file starts with the magic bytes of a binary trace;
+     *         otherwise, false
+     * @throws IOException when the file cannot be read
+     */
+    public static boolean isBinary(File file) throws IOException {
+        if (!file.isFile() || file.length() < TraceWriter.MAGIC.length) {
+            return false;
+        }
+        byte[] magic = new byte[TraceWriter.MAGIC.length];
+        try (RandomAccessFile trace = new RandomAccessFile(file, "r")) {
+            trace.readFully(magic);
+        }
+        return Arrays.equals(magic, TraceWriter.MAGIC);
+    }
+
+    /**
+     * Reads the next command
+     *
+     * @return the next command, or null at the end of the trace
+     * @throws IllegalArgumentException when the next opcode is not a command or
+     *                                  the trace ends within a command
+     */
+    @Override
+    public Command next() {
+        if (base + window.position() == size) {
+            return null;
+        }
+        int opcode = readByte();
+        int ordinal = opcode & ~TraceWriter.INLINE;
+        if (ordinal >= TYPES.length) {
+            throw new IllegalArgumentException(source() + " <- Parsing Error");
+        }
+        CommandType type = TYPES[ordinal];
+        switch (type) {
+            case PROPS:
+                return Command.PROPS;
+            case TRAVERSE:
+                return Command.TRAVERSE;
+            default:
+                return new Command(type, (opcode & TraceWriter.INLINE) != 0 ? readKey() : lookupKey());
+        }
+    }
+
+    /**
+     * Closes the trace; the mapped windows are released once they are
+     * garbage collected
+     */
+    @Override
+    public void close() {
+        try {
+            trace.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a key given inline, adding it to the dictionary when there is one
+     *
+     * @return the key
+     */
+    private String readKey() {
+        int length = readVarint();
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        }
+        for (int i = 0; i < length;) {
+            if (!window.hasRemaining()) {
+                remap();
+            }
+            int n = Math.min(length - i, window.remaining());
+            window.get(scratch, i, n);
+            i += n;
+        }
+        String key = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        if (dictionary != null) {
+            dictionary.add(key);
+        }
+        return key;
+    }
+
+    /**
+     * Reads the index of a key of the dictionary
+     *
+     * @return the key
+     */
+    private String lookupKey() {
+        int index = readVarint();
+        if (dictionary == null || index >= dictionary.size()) {
+            throw new IllegalArgumentException(source() + " <- Parsing Error");
+        }
+        return dictionary.get(index);
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint
+     *
+     * @return the value of the varint
+     */
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(source() + " <- Parsing Error");
+    }
+
+    /**
+     * Reads a byte of the trace
+     *
+     * @return the byte, from 0 to 255
+     */
+    private int readByte() {
+        if (!window.hasRemaining()) {
+            remap();
+        }
+        return window.get() & 0xFF;
+    }
+
+    /**
+     * Maps the window that follows the current one
+     */
+    private void remap() {
+        long position = base + window.position();
+        if (position >= size) {
+            throw new IllegalArgumentException(source() + " <- Parsing Error");
+        }
+        map(position);
+    }
+
+    /**
+     * Maps a window of the trace
+     *
+     * @param position the offset in the trace of the start of the window
+     */
+    private void map(long position) {
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+            base = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
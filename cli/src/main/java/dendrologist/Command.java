@@ -0,0 +1,56 @@
+package dendrologist;
+
+/**
+ * A command of a command file: its type and, for insert, delete and gen, the
+ * key it applies to
+ * 
+ * @author Matthew Benfield
+ * @see CommandType, CommandReader
+ */
+public final class Command {
+    /**
+     * The props command
+     */
+    public static final Command PROPS = new Command(CommandType.PROPS, null);
+    /**
+     * The traverse command
+     */
+    public static final Command TRAVERSE = new Command(CommandType.TRAVERSE, null);
+
+    private final CommandType type;
+    private final String key;
+
+    /**
+     * Constructs a command
+     * 
+     * @param type the type of the command
+     * @param key  the key of the command, or null if the command takes no key
+     */
+    public Command(CommandType type, String key) {
+        this.type = type;
+        this.key = key;
+    }
+
+    /**
+     * Gives the type of this command
+     * 
+     * @return the type of this command
+     */
+    public CommandType type() {
+        return type;
+    }
+
+    /**
+     * Gives the key of this command
+     * 
+     * @return the key, or null if this command takes no key
+     */
+    public String key() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return type.hasKey() ? type.word() + " " + key : type.word();
+    }
+}
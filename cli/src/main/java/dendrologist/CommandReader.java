@@ -0,0 +1,87 @@
+package dendrologist;
+
+import java.util.Scanner;
+
+/**
+ * Reads the commands of a command file one at a time
+ * 
+ * @author Matthew Benfield
+ * @see Command, Dendrologist
+ */
+public class CommandReader {
+    /**
+     * The scanner over the command file, or null when a subclass reads it
+     */
+    private final Scanner input;
+    /**
+     * The name of the command file, used in error messages
+     */
+    private final String source;
+
+    /**
+     * Constructs a reader over a command file
+     * 
+     * @param input  the scanner over the command file
+     * @param source the name of the command file, used in error messages
+     */
+    public CommandReader(Scanner input, String source) {
+        this.input = input;
+        this.source = source;
+    }
+
+    /**
+     * Constructs a reader over a command file that a subclass reads itself
+     * 
+     * @param source the name of the command file, used in error messages
+     */
+    protected CommandReader(String source) {
+        this(null, source);
+    }
+
+    /**
+     * Gives the name of the command file
+     * 
+     * @return the name of the command file, used in error messages
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Closes the command file
+     */
+    public void close() {
+        if (input != null) {
+            input.close();
+        }
+    }
+
+    /**
+     * Reads the next command
+     * 
+     * @return the next command, or null when only white space is left in the
+     *         command file
+     * @throws IllegalArgumentException when the next word is not a command or a
+     *                                  key is missing
+     */
+    public Command next() {
+        if (!input.hasNext()) {
+            return null;
+        }
+        CommandType type = CommandType.of(input.next());
+        if (type == null) {
+            throw new IllegalArgumentException(source + " <- Parsing Error");
+        }
+        switch (type) {
+            case PROPS:
+                return Command.PROPS;
+            case TRAVERSE:
+                return Command.TRAVERSE;
+            default:
+                if (!input.hasNext()) {
+                    throw new IllegalArgumentException(source + " <- Parsing Error");
+                }
+                return new Command(type, input.next());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dendrologist;
+
+import java.util.Scanner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the commands of a stream, such as standard input or a named pipe, on
+ * a separate thread while they are executed. At most a bounded number of
+ * parsed commands wait in a queue; once it is full the reading thread stops
+ * reading, so a producer writing faster than the tree executes the commands
+ * blocks on the pipe instead of growing a buffer. Each command is executed
+ * as soon as it arrives, whether or not more follow.
+ *
+ * @author Matthew Benfield
+ * @see CommandReader, Dendrologist
+ */
+public class CommandStream extends CommandReader {
+    /**
+     * Marks the end of the stream in the queue
+     */
+    private static final Command END = new Command(CommandType.PROPS, null);
+
+    /**
+     * The commands read ahead of their execution
+     */
+    private final BlockingQueue<Command> queue;
+    /**
+     * The parsing error that ended the stream, or null
+     */
+    private RuntimeException failure;
+    /**
+     * Whether the end of the stream was taken from the queue
+     */
+    private boolean done;
+
+    /**
+     * Constructs a reader over a stream of commands and starts reading it
+     *
+     * @param input    the scanner over the stream
+     * @param source   the name of the stream, used in error messages
+     * @param capacity the number of commands that may wait to be executed
+     */
+    public CommandStream(Scanner input, String source, int capacity) {
+        super(input, source);
+        queue = new ArrayBlockingQueue<>(capacity);
+        Thread reader = new Thread(this::read, "dendrologist-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Gives the next command, waiting for it to arrive
+     *
+     * @return the next command, or null at the end of the stream
+     * @throws IllegalArgumentException when the next word is not a command or a
+     *                                  key is missing
+     */
+    @Override
+    public Command next() {
+        if (done) {
+            return null;
+        }
+        Command command;
+        try {
+            command = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (command != END) {
+            return command;
+        }
+        done = true;
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    /**
+     * Parses the stream into the queue until its end or a parsing error
+     */
+    private void read() {
+        try {
+            Command command;
+            while ((command = super.next()) != null) {
+                queue.put(command);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
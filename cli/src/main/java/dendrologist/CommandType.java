@@ -0,0 +1,62 @@
+package dendrologist;
+
+/**
+ * The commands of a command file
+ * 
+ * @author Matthew Benfield
+ * @see Command, Dendrologist
+ */
+public enum CommandType {
+    INSERT("insert", true),
+    DELETE("delete", true),
+    GEN("gen", true),
+    PROPS("props", false),
+    TRAVERSE("traverse", false);
+
+    /**
+     * The word that names this command in a command file
+     */
+    private final String word;
+    /**
+     * Whether this command is followed by a key
+     */
+    private final boolean keyed;
+
+    CommandType(String aWord, boolean isKeyed) {
+        word = aWord;
+        keyed = isKeyed;
+    }
+
+    /**
+     * Gives the word that names this command in a command file
+     * 
+     * @return the name of this command
+     */
+    public String word() {
+        return word;
+    }
+
+    /**
+     * Determines whether this command is followed by a key
+     * 
+     * @return true if this command takes a key; otherwise, false
+     */
+    public boolean hasKey() {
+        return keyed;
+    }
+
+    /**
+     * Gives the command named by the specified word
+     * 
+     * @param word a word of a command file
+     * @return the command named by the word, or null if no command has this name
+     */
+    public static CommandType of(String word) {
+        for (CommandType type : values()) {
+            if (type.word.equals(word)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
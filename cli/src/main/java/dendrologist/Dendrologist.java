@@ -0,0 +1,541 @@
+package dendrologist;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.ArrayList;
+import javax.management.JMException;
+
+/**
+ * A testbed for an augmented implementation of an AVL tree
+ * 
+ * @author William Duncan, Matthew Benfield
+ * @see AVLTreeAPI, AVLTree
+ * 
+ *      <pre>
+ * Date: 10-18-23
+ * Course: csc 3102 
+ * Programming Project # 2
+ * Instructor: Dr. Duncan
+ *      </pre>
+ */
+public class Dendrologist {
+    /**
+     * The line separator of the trace
+     */
+    private static final String NL = System.lineSeparator();
+    /**
+     * The number of entries measured to estimate the footprint of the tree
+     */
+    private static final int FOOTPRINT_SAMPLES = 10000;
+
+    public static void main(String[] args) throws IOException, AVLTreeException, JMException {
+        String usage = "Dendrologist [options] <order-code> <command-file>\n";
+        usage += "  <command-file>: a command file, a binary trace, a named pipe, or - for standard input\n";
+        usage += "  <order-code>:\n";
+        usage += "  0 ordered by increasing string length, primary key, and reverse lexicographical order, secondary key\n";
+        usage += "  -1 for reverse lexicographical order\n";
+        usage += "  1 for lexicographical order\n";
+        usage += "  -2 ordered by decreasing string length\n";
+        usage += "  2 ordered by increasing string length\n";
+        usage += "  -3 ordered by decreasing string length, primary key, and reverse lexicographical order, secondary key\n";
+        usage += "  3 ordered by increasing string length, primary key, and lexicographical order, secondary key\n";
+        usage += "  [options]:\n";
+        usage += "  --profile records per-command latencies and samples the replay every 10000 commands\n";
+        usage += "  --profile-interval=<n> samples the replay every n commands\n";
+        usage += "  --profile-report=<file> writes the profile report to a file instead of standard error\n";
+        usage += "  --parallel=<n> partitions the keys across n trees, each owned by a worker thread\n";
+        usage += "  --partition=hash|range partitions by a hash of the key (default) or by ranges of keys\n";
+        usage += "  --queue-capacity=<n> the number of commands that may wait for each worker, or to be executed\n";
+        usage += "    when streaming from standard input or a named pipe (default 4096)\n";
+        usage += "  --compact stores the keys in a shared string arena instead of one String each\n";
+        usage += "  --prefix-compare skips the prefix a key shares with its ancestors when comparing it\n";
+        usage += "  --lookup-cache=<n> caches the nodes found by lookups in n slots and reports the hit rate\n";
+        usage += "  --finger starts inserts and lookups from the node touched by the previous command\n";
+        usage += "  --multiset counts repeated inserts of a key, and delete removes one occurrence\n";
+        usage += "  --footprint estimates the heap used by the tree after the replay, by component\n";
+        usage += "Dendrologist --compile=<trace-file> [--no-dictionary] <command-file>\n";
+        usage += "  compiles a command file into a binary trace that replays without parsing text\n";
+        usage += "  --no-dictionary gives every key inline instead of once\n";
+        ArrayList<String> operands = new ArrayList<>();
+        boolean profile = false;
+        int interval = 10000;
+        String report = null;
+        int partitions = 0;
+        boolean byRange = false;
+        int queueCapacity = 4096;
+        boolean compact = false;
+        boolean prefixCompare = false;
+        int cacheCapacity = 0;
+        boolean finger = false;
+        boolean multiset = false;
+        boolean footprint = false;
+        String compile = null;
+        boolean dictionary = true;
+        for (String arg : args) {
+            if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.startsWith("--profile-interval=")) {
+                profile = true;
+                interval = Integer.parseInt(arg.substring("--profile-interval=".length()));
+            } else if (arg.startsWith("--profile-report=")) {
+                profile = true;
+                report = arg.substring("--profile-report=".length());
+            } else if (arg.startsWith("--parallel=")) {
+                partitions = Integer.parseInt(arg.substring("--parallel=".length()));
+            } else if (arg.equals("--partition=hash") || arg.equals("--partition=range")) {
+                byRange = arg.endsWith("range");
+            } else if (arg.startsWith("--queue-capacity=")) {
+                queueCapacity = Integer.parseInt(arg.substring("--queue-capacity=".length()));
+            } else if (arg.equals("--compact")) {
+                compact = true;
+            } else if (arg.equals("--prefix-compare")) {
+                prefixCompare = true;
+            } else if (arg.startsWith("--lookup-cache=")) {
+                cacheCapacity = Integer.parseInt(arg.substring("--lookup-cache=".length()));
+            } else if (arg.equals("--finger")) {
+                finger = true;
+            } else if (arg.equals("--multiset")) {
+                multiset = true;
+            } else if (arg.equals("--footprint")) {
+                footprint = true;
+            } else if (arg.startsWith("--compile=")) {
+                compile = arg.substring("--compile=".length());
+            } else if (arg.equals("--no-dictionary")) {
+                dictionary = false;
+            } else {
+                operands.add(arg);
+            }
+        }
+        if (compile != null && operands.size() != 1) {
+            System.out.println(usage);
+            throw new IllegalArgumentException("There should be 1 command line argument to compile.");
+        }
+        if (compile == null && operands.size() != 2) {
+            System.out.println(usage);
+            throw new IllegalArgumentException("There should be 2 command line arguments.");
+        }
+        if (partitions > 0 && profile) {
+            throw new IllegalArgumentException("A parallel replay cannot be profiled.");
+        }
+        if (partitions > 0 && (compact || prefixCompare || cacheCapacity > 0 || finger || multiset || footprint)) {
+            throw new IllegalArgumentException("A parallel replay cannot use compact keys, prefix comparisons, "
+                    + "lookup caches, finger search, multisets or footprints.");
+        }
+
+        String source = operands.get(operands.size() - 1);
+        CommandReader reader;
+        if (source.equals("-")) {
+            reader = new CommandStream(new Scanner(System.in), "<stdin>", queueCapacity);
+        } else {
+            File stringFile = new File(source);
+            if (BinaryCommandReader.isBinary(stringFile)) {
+                reader = new BinaryCommandReader(stringFile);
+            } else if (stringFile.isFile()) {
+                reader = new CommandReader(new Scanner(stringFile), source);
+            } else {
+                reader = new CommandStream(new Scanner(stringFile), source, queueCapacity);
+            }
+        }
+        if (compile != null) {
+            try {
+                long commands = TraceWriter.compile(reader, new File(compile), dictionary);
+                System.err.println("compiled " + commands + " commands into " + compile);
+            } finally {
+                reader.close();
+            }
+            return;
+        }
+        int orderCode = Integer.parseInt(operands.get(0));
+        if (partitions > 0) {
+            ParallelReplay parallel = new ParallelReplay(partitions, comparator(orderCode),
+                    byRange ? null : keyHash(orderCode), queueCapacity);
+            try {
+                parallel.replay(reader, System.out);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                reader.close();
+            }
+            return;
+        }
+        AVLTree<String> tree = null;
+        AVLTree<CompactKey> compactTree = null;
+        StringArena arena = null;
+        if (compact) {
+            arena = new StringArena();
+            compactTree = new AVLTree<>(prefixCompare ? Dendrologist.<CompactKey>prefixComparator(orderCode)
+                    : Dendrologist.<CompactKey>comparator(orderCode));
+            if (cacheCapacity > 0) {
+                compactTree.enableLookupCache(cacheCapacity, keyHash(orderCode));
+            }
+        } else {
+            tree = new AVLTree<>(prefixCompare ? Dendrologist.<String>prefixComparator(orderCode)
+                    : Dendrologist.<String>comparator(orderCode));
+            if (cacheCapacity > 0) {
+                tree.enableLookupCache(cacheCapacity, keyHash(orderCode));
+            }
+        }
+        AVLTree<?> replayed = compact ? compactTree : tree;
+        replayed.setFingerSearch(finger);
+        replayed.setMultiset(multiset);
+        if (AVLTreeMetrics.ENABLED) {
+            replayed.metrics().register("dendrologist");
+        }
+        ReplayProfiler profiler = profile ? new ReplayProfiler(interval) : null;
+        try {
+            if (compact) {
+                replay(reader, compactTree, arena, System.out, profiler);
+            } else {
+                replay(reader, tree, System.out, profiler);
+            }
+        } finally {
+            reader.close();
+            if (profiler != null) {
+                profiler.finish(replayed);
+                if (report == null) {
+                    profiler.report(System.err);
+                } else {
+                    PrintStream reportStream = new PrintStream(report);
+                    profiler.report(reportStream);
+                    reportStream.close();
+                }
+            }
+            if (cacheCapacity > 0) {
+                System.err.println(compact ? compactTree.lookupCache() : tree.lookupCache());
+            }
+            if (footprint) {
+                System.err.println(replayed.footprint(FOOTPRINT_SAMPLES));
+            }
+        }
+        if (AVLTreeMetrics.ENABLED) {
+            System.err.println(replayed.metrics().snapshot());
+            if (compact) {
+                System.err.println("arena: keys = " + arena.size() + ", bytes = " + arena.bytes() + ", footprint = "
+                        + arena.footprint());
+            }
+        }
+    }
+
+    /**
+     * Gives the comparator for the specified order code
+     *
+     * @param <K>        the type of the keys: String, or CompactKey for keys
+     *                   stored in a string arena
+     * @param order_code an order code in the range -3 to 3
+     * @return a comparator that orders strings as described by the order code
+     */
+    public static <K extends CharSequence & Comparable<K>> Comparator<K> comparator(int order_code) {
+        return (in1, in2) -> {
+            switch (order_code) {
+                case 0 -> {
+                    if (in1.length() != in2.length()) {
+                        return in1.length() - in2.length();
+                    } else {
+                        return -(in1.compareTo(in2));
+                    }
+                }
+                case (-1) -> {
+                    return -(in1.compareTo(in2));
+                }
+                case (1) -> {
+                    return in1.compareTo(in2);
+                }
+                case (-2) -> {
+                    return -(in1.length() - in2.length());
+                }
+                case (2) -> {
+                    return in1.length() - in2.length();
+                }
+                case (-3) -> {
+                    if (in1.length() != in2.length()) {
+                        return -(in1.length() - in2.length());
+                    } else {
+                        return -(in1.compareTo(in2));
+                    }
+                }
+                case (3) -> {
+                    if (in1.length() != in2.length()) {
+                        return in1.length() - in2.length();
+                    } else {
+                        return in1.compareTo(in2);
+                    }
+                }
+                default -> {
+                    System.out.println("The order code is -3 to 3.");
+                    return 0;
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Gives a comparator for the specified order code that compares strings
+     * from a known common prefix on, so that a tree built with it skips the
+     * prefix a key shares with its ancestors. Strings of different lengths
+     * are ordered by their lengths alone under order codes 0, 2, -2, 3 and -3.
+     *
+     * @param <K>        the type of the keys: String, or CompactKey for keys
+     *                   stored in a string arena
+     * @param order_code an order code in the range -3 to 3
+     * @return a comparator that orders strings as described by the order code
+     */
+    public static <K extends CharSequence & Comparable<K>> Comparator<K> prefixComparator(int order_code) {
+        switch (order_code) {
+            case 0 -> {
+                return new StringOrder<>(1, -1);
+            }
+            case -1 -> {
+                return new StringOrder<>(0, -1);
+            }
+            case 1 -> {
+                return new StringOrder<>(0, 1);
+            }
+            case -2 -> {
+                return new StringOrder<>(-1, 0);
+            }
+            case 2 -> {
+                return new StringOrder<>(1, 0);
+            }
+            case -3 -> {
+                return new StringOrder<>(-1, -1);
+            }
+            case 3 -> {
+                return new StringOrder<>(1, 1);
+            }
+            default -> {
+                return comparator(order_code);
+            }
+        }
+    }
+
+    /**
+     * Gives a hash of strings that is consistent with the comparator for the
+     * specified order code: strings that compare equal have the same hash
+     *
+     * @param <K>        the type of the keys: String, or CompactKey for keys
+     *                   stored in a string arena
+     * @param order_code an order code in the range -3 to 3
+     * @return a hash of strings for the order code
+     */
+    public static <K extends CharSequence> ToIntFunction<K> keyHash(int order_code) {
+        switch (order_code) {
+            case 0, 1, -1, 3, -3 -> {
+                return Object::hashCode;
+            }
+            case 2, -2 -> {
+                return CharSequence::length;
+            }
+            default -> {
+                return x -> 0;
+            }
+        }
+    }
+
+    /**
+     * Executes the commands read from the specified input against the specified
+     * tree and traces each instruction as it is executed
+     *
+     * @param input  the scanner over a command file
+     * @param tree   the tree the commands are executed against
+     * @param out    the stream the trace is written to
+     * @param source the name of the command file, used in error messages
+     * @throws AVLTreeException when a tree query fails
+     */
+    public static void replay(Scanner input, AVLTree<String> tree, PrintStream out, String source)
+            throws AVLTreeException {
+        replay(input, tree, out, source, null);
+    }
+
+    /**
+     * Executes the commands read from the specified input against the specified
+     * tree, traces each instruction as it is executed and, when profiling,
+     * records the latency of each command
+     *
+     * @param input    the scanner over a command file
+     * @param tree     the tree the commands are executed against
+     * @param out      the stream the trace is written to
+     * @param source   the name of the command file, used in error messages
+     * @param profiler the profiler of the replay, or null to replay without profiling
+     * @throws AVLTreeException when a tree query fails
+     */
+    public static void replay(Scanner input, AVLTree<String> tree, PrintStream out, String source,
+            ReplayProfiler profiler) throws AVLTreeException {
+        replay(new CommandReader(input, source), tree, out, profiler);
+    }
+
+    /**
+     * Executes the commands given by the specified reader against the
+     * specified tree, as they arrive when the reader streams them
+     *
+     * @param reader   the reader of the commands
+     * @param tree     the tree the commands are executed against
+     * @param out      the stream the trace is written to
+     * @param profiler the profiler of the replay, or null to replay without profiling
+     * @throws AVLTreeException when a tree query fails
+     */
+    public static void replay(CommandReader reader, AVLTree<String> tree, PrintStream out,
+            ReplayProfiler profiler) throws AVLTreeException {
+        replay(reader, tree, out, profiler, Function.identity(), Function.identity());
+    }
+
+    /**
+     * Executes the commands read from the specified input against the
+     * specified tree of keys stored in a string arena: inserted keys are
+     * interned in the arena, while the keys of the other commands are looked
+     * up without growing it
+     *
+     * @param input    the scanner over a command file
+     * @param tree     the tree the commands are executed against
+     * @param arena    the arena storing the keys of the tree
+     * @param out      the stream the trace is written to
+     * @param source   the name of the command file, used in error messages
+     * @param profiler the profiler of the replay, or null to replay without profiling
+     * @throws AVLTreeException when a tree query fails
+     */
+    public static void replay(Scanner input, AVLTree<CompactKey> tree, StringArena arena, PrintStream out,
+            String source, ReplayProfiler profiler) throws AVLTreeException {
+        replay(new CommandReader(input, source), tree, arena, out, profiler);
+    }
+
+    /**
+     * Executes the commands given by the specified reader against the
+     * specified tree of keys stored in a string arena, as they arrive when
+     * the reader streams them
+     *
+     * @param reader   the reader of the commands
+     * @param tree     the tree the commands are executed against
+     * @param arena    the arena storing the keys of the tree
+     * @param out      the stream the trace is written to
+     * @param profiler the profiler of the replay, or null to replay without profiling
+     * @throws AVLTreeException when a tree query fails
+     */
+    public static void replay(CommandReader reader, AVLTree<CompactKey> tree, StringArena arena, PrintStream out,
+            ReplayProfiler profiler) throws AVLTreeException {
+        replay(reader, tree, out, profiler, arena::intern, arena::probe);
+    }
+
+    /**
+     * Executes the commands read from the specified input against a tree of
+     * keys of any type
+     *
+     * @param store gives the key to insert for a token of the command file
+     * @param find  gives the key to look up for a token of the command file
+     */
+    private static <K extends Comparable<K>> void replay(CommandReader reader, AVLTree<K> tree, PrintStream out,
+            ReplayProfiler profiler, Function<String, K> store, Function<String, K> find)
+            throws AVLTreeException {
+        Function<K, PrintStream> func = x -> {
+            return out.printf("%s%n", x);
+        };
+        Command command;
+        while ((command = reader.next()) != null) {
+            if (profiler == null) {
+                execute(command, tree, out, func, store, find);
+            } else {
+                long start = System.nanoTime();
+                execute(command, tree, out, func, store, find);
+                profiler.record(command.type(), System.nanoTime() - start, tree);
+            }
+        }
+    }
+
+    /**
+     * Executes a command against the specified tree and traces it
+     *
+     * @param command the command
+     * @param tree    the tree the command is executed against
+     * @param out     the stream the trace is written to
+     * @param func    the function that traces an entry during a traversal
+     * @param store   gives the key to insert for the token of the command
+     * @param find    gives the key to look up for the token of the command
+     * @throws AVLTreeException when a tree query fails
+     */
+    private static <K extends Comparable<K>> void execute(Command command, AVLTree<K> tree, PrintStream out,
+            Function<K, PrintStream> func, Function<String, K> store, Function<String, K> find)
+            throws AVLTreeException {
+        String key = command.key();
+        switch (command.type()) {
+            case PROPS -> {
+                out.print(properties(tree.size(), tree.height(), tree.diameter(), tree.isFibonacci(),
+                        tree.isComplete()));
+            }
+            case INSERT -> {
+                tree.insert(store.apply(key));
+                out.println("Inserted: " + key);
+            }
+            case GEN -> {
+                out.print(genealogy(tree, find.apply(key)));
+            }
+            case DELETE -> {
+                if (tree.isMultiset()) {
+                    tree.removeOne(find.apply(key));
+                } else {
+                    tree.remove(find.apply(key));
+                }
+                out.println("Deleted: " + key);
+            }
+            case TRAVERSE -> {
+                out.println("Pre-Order Traversal: ");
+                tree.preorderTraverse(func);
+                out.println("In-Order Traversal: ");
+                tree.traverse(func);
+                out.println("Post-Order Traversal: ");
+                tree.postorderTraverse(func);
+            }
+        }
+    }
+
+    /**
+     * Traces the properties of a tree
+     *
+     * @param size      the size of the tree
+     * @param height    the height of the tree
+     * @param diameter  the diameter of the tree
+     * @param fibonacci whether the tree is a Fibonacci tree
+     * @param complete  whether the tree is complete
+     * @return the trace of a props command
+     */
+    static String properties(int size, int height, int diameter, boolean fibonacci, boolean complete) {
+        return "Properties:\nsize = " + size + ", height = " + height + ", diameter = " + diameter
+                + "\nfibonacci? = " + fibonacci + ", complete? = " + complete + NL;
+    }
+
+    /**
+     * Traces the genealogy of an entry of a tree
+     *
+     * @param <E>  data type of elements of the tree
+     * @param tree the tree
+     * @param key  the entry
+     * @return the trace of a gen command
+     */
+    static <E extends Comparable<E>> String genealogy(AVLTree<E> tree, E key) {
+        StringBuilder trace = new StringBuilder("Geneology: ").append(key);
+        Optional<Genealogy<E>> found = tree.genealogy(key);
+        if (found.isEmpty()) {
+            return trace.append(" UNDEFINED").append(NL).toString();
+        }
+        Genealogy<E> gen = found.get();
+        String counts = "\n#ancestors = " + gen.ancestors() + ", #descendants = " + gen.descendants();
+        if (gen.left() != null && gen.right() != null) {
+            trace.append("\nparent = " + gen.parent() + ", left-child = " + gen.left() + ", right-child = "
+                    + gen.right() + counts).append(NL);
+        }
+        E onlyChild = gen.left() == null ? gen.right() : gen.right() == null ? gen.left() : null;
+        if (onlyChild != null) {
+            trace.append("\nparent = " + gen.parent() + ", left-child = " + onlyChild + ", right-child = NONE"
+                    + counts).append(NL);
+        } else {
+            trace.append("\nparent = " + gen.parent() + ", left-child = NONE" + ", right-child = NONE" + counts)
+                    .append(NL);
+        }
+        return trace.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,503 @@
+package dendrologist;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Replays a command file on several threads. The keys are partitioned across
+ * independent trees, one per worker, either by a hash that is consistent with
+ * the order code or by ranges of keys chosen from a sample at the start of the
+ * command file. The reading thread routes insert, delete and gen to the worker
+ * that owns the key through a bounded queue, and props and traverse act as
+ * barriers: every worker reports its partition at that point of the command
+ * file and the reports are aggregated. A printer thread writes the trace in
+ * command-file order.
+ * 
+ * The trace has the same shape as a sequential replay, but describes the
+ * partitions rather than a single tree: gen gives the genealogy of the key
+ * within its partition, props gives the total size and the largest height and
+ * diameter, with fibonacci and complete true only when true of every
+ * partition, and traverse gives the in-order traversal of all the keys
+ * followed by the pre-order and post-order traversals of the partitions one
+ * after another.
+ * 
+ * @author Matthew Benfield
+ * @see Dendrologist
+ */
+public class ParallelReplay {
+    /**
+     * The number of keyed commands sampled to choose the ranges of keys
+     */
+    private static final int RANGE_SAMPLE = 1 << 16;
+    /**
+     * The number of traces the reading thread may run ahead of the printer
+     */
+    private static final int OUTPUT_CAPACITY = 1 << 16;
+    /**
+     * Tells a worker to stop
+     */
+    private static final Object STOP = new Object();
+    /**
+     * Tells the printer that the replay is over
+     */
+    private static final Object END = new Object();
+
+    private final Comparator<String> cmp;
+    /**
+     * The hash of a key, or null to partition by ranges of keys
+     */
+    private final ToIntFunction<String> hash;
+    private final Worker[] workers;
+    /**
+     * The traces in command-file order: strings, or futures of strings not yet
+     * computed by the workers
+     */
+    private final BlockingQueue<Object> output = new ArrayBlockingQueue<>(OUTPUT_CAPACITY);
+    /**
+     * The smallest key of every partition but the first, when partitioning by
+     * ranges of keys
+     */
+    private String[] splitters;
+    /**
+     * The first failure of a worker or the printer
+     */
+    private volatile Throwable failure;
+
+    /**
+     * Constructs a parallel replay
+     * 
+     * @param partitions    the number of partitions and workers
+     * @param cmp           the order of the keys
+     * @param hash          a hash of the keys such that keys that compare equal
+     *                      have the same hash, or null to partition by ranges of
+     *                      keys
+     * @param queueCapacity the number of commands that may wait for each worker
+     */
+    public ParallelReplay(int partitions, Comparator<String> cmp, ToIntFunction<String> hash, int queueCapacity) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("There should be at least 1 partition.");
+        }
+        this.cmp = cmp;
+        this.hash = hash;
+        workers = new Worker[partitions];
+        for (int i = 0; i < partitions; i++) {
+            workers[i] = new Worker(i, new AVLTree<>(cmp), new ArrayBlockingQueue<>(queueCapacity));
+        }
+    }
+
+    /**
+     * Replays a command file, tracing each command in command-file order
+     * 
+     * @param reader the reader of the command file
+     * @param out    the stream the trace is written to
+     * @throws AVLTreeException     when a tree query fails
+     * @throws InterruptedException when the reading thread is interrupted
+     */
+    public void replay(CommandReader reader, PrintStream out) throws AVLTreeException, InterruptedException {
+        Thread printer = new Thread(() -> print(out), "dendrologist-printer");
+        printer.start();
+        for (Worker worker : workers) {
+            worker.start();
+        }
+        try {
+            List<Command> pending = new ArrayList<>();
+            IllegalArgumentException unparsed = null;
+            if (hash == null) {
+                try {
+                    sample(reader, pending);
+                } catch (IllegalArgumentException e) {
+                    // trace the commands read before the parse error first,
+                    // as a sequential replay does
+                    unparsed = e;
+                }
+                splitters = splitters(pending);
+            }
+            for (Command command : pending) {
+                dispatch(command);
+            }
+            if (unparsed != null) {
+                throw unparsed;
+            }
+            Command command;
+            while (failure == null && (command = reader.next()) != null) {
+                dispatch(command);
+            }
+        } finally {
+            for (Worker worker : workers) {
+                worker.queue.put(STOP);
+            }
+            output.put(END);
+            for (Worker worker : workers) {
+                worker.join();
+            }
+            printer.join();
+        }
+        if (failure instanceof AVLTreeException) {
+            throw (AVLTreeException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * Gives the trees of the partitions, for inspection once the replay is over
+     * 
+     * @return the tree of each partition
+     */
+    public List<AVLTree<String>> partitions() {
+        List<AVLTree<String>> trees = new ArrayList<>();
+        for (Worker worker : workers) {
+            trees.add(worker.tree);
+        }
+        return trees;
+    }
+
+    /**
+     * Reads the commands whose keys are sampled to choose the ranges of keys
+     * 
+     * @param reader  the reader of the command file
+     * @param pending receives the commands read
+     * @throws IllegalArgumentException when a command does not parse; the
+     *                                  commands read before it are kept
+     */
+    private void sample(CommandReader reader, List<Command> pending) {
+        Command command;
+        while (pending.size() < RANGE_SAMPLE && (command = reader.next()) != null) {
+            pending.add(command);
+        }
+    }
+
+    /**
+     * Chooses the smallest key of each partition from the keys of the sampled
+     * commands
+     * 
+     * @param pending the sampled commands
+     * @return the smallest key of every partition but the first
+     */
+    private String[] splitters(List<Command> pending) {
+        TreeSet<String> sample = new TreeSet<>(cmp);
+        for (Command command : pending) {
+            if (command.type().hasKey()) {
+                sample.add(command.key());
+            }
+        }
+        String[] keys = sample.toArray(new String[0]);
+        int n = Math.min(workers.length, keys.length);
+        String[] chosen = new String[Math.max(0, n - 1)];
+        for (int i = 1; i < n; i++) {
+            chosen[i - 1] = keys[(int) ((long) i * keys.length / n)];
+        }
+        return chosen;
+    }
+
+    /**
+     * Gives the partition that owns a key
+     * 
+     * @param key a key
+     * @return the index of the partition
+     */
+    private int partitionOf(String key) {
+        if (hash != null) {
+            int h = hash.applyAsInt(key);
+            h ^= h >>> 16;
+            return (h & Integer.MAX_VALUE) % workers.length;
+        }
+        int i = Arrays.binarySearch(splitters, key, cmp);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    /**
+     * Routes a command to the workers and queues its trace
+     * 
+     * @param command a command
+     * @throws InterruptedException when the reading thread is interrupted
+     */
+    private void dispatch(Command command) throws InterruptedException {
+        switch (command.type()) {
+            case INSERT -> {
+                workers[partitionOf(command.key())].queue.put(command);
+                output.put("Inserted: " + command.key() + System.lineSeparator());
+            }
+            case DELETE -> {
+                workers[partitionOf(command.key())].queue.put(command);
+                output.put("Deleted: " + command.key() + System.lineSeparator());
+            }
+            case GEN -> {
+                Gen gen = new Gen(command.key());
+                workers[partitionOf(command.key())].queue.put(gen);
+                output.put(gen.trace);
+            }
+            case PROPS, TRAVERSE -> {
+                boolean traverse = command.type() == CommandType.TRAVERSE;
+                List<CompletableFuture<Report>> reports = new ArrayList<>();
+                for (Worker worker : workers) {
+                    Barrier barrier = new Barrier(traverse);
+                    worker.queue.put(barrier);
+                    reports.add(barrier.report);
+                }
+                output.put(CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0]))
+                        .thenApply(v -> traverse ? traversal(reports) : properties(reports)));
+            }
+        }
+    }
+
+    /**
+     * Writes the traces in command-file order until the replay is over
+     * 
+     * @param out the stream the trace is written to
+     */
+    @SuppressWarnings("unchecked")
+    private void print(PrintStream out) {
+        try {
+            Object next;
+            while ((next = output.take()) != END) {
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    out.print(next instanceof String ? (String) next : ((CompletableFuture<String>) next).join());
+                } catch (CompletionException e) {
+                    fail(e.getCause());
+                } catch (Throwable t) {
+                    fail(t);
+                }
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the first failure of the replay
+     * 
+     * @param t the cause of the failure
+     */
+    private synchronized void fail(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+    }
+
+    /**
+     * Aggregates the reports of the partitions for a props command
+     * 
+     * @param reports the reports of the partitions
+     * @return the trace of the props command
+     */
+    private static String properties(List<CompletableFuture<Report>> reports) {
+        int size = 0;
+        int height = -1;
+        int diameter = 0;
+        boolean fibonacci = true;
+        boolean complete = true;
+        for (CompletableFuture<Report> future : reports) {
+            Report r = future.join();
+            size += r.size;
+            height = Math.max(height, r.height);
+            diameter = Math.max(diameter, r.diameter);
+            fibonacci &= r.fibonacci;
+            complete &= r.complete;
+        }
+        return Dendrologist.properties(size, height, diameter, fibonacci, complete);
+    }
+
+    /**
+     * Aggregates the reports of the partitions for a traverse command
+     * 
+     * @param reports the reports of the partitions
+     * @return the trace of the traverse command
+     */
+    private String traversal(List<CompletableFuture<Report>> reports) {
+        String nl = System.lineSeparator();
+        StringBuilder trace = new StringBuilder("Pre-Order Traversal: ").append(nl);
+        for (CompletableFuture<Report> future : reports) {
+            for (String key : future.join().preorder) {
+                trace.append(key).append(nl);
+            }
+        }
+        trace.append("In-Order Traversal: ").append(nl);
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((x, y) -> cmp.compare(x.key(), y.key()));
+        for (CompletableFuture<Report> future : reports) {
+            if (!future.join().inorder.isEmpty()) {
+                heads.add(new Cursor(future.join().inorder));
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            trace.append(head.key()).append(nl);
+            if (++head.index < head.keys.size()) {
+                heads.add(head);
+            }
+        }
+        trace.append("Post-Order Traversal: ").append(nl);
+        for (CompletableFuture<Report> future : reports) {
+            for (String key : future.join().postorder) {
+                trace.append(key).append(nl);
+            }
+        }
+        return trace.toString();
+    }
+
+    /**
+     * A worker owns the tree of a partition and executes the commands routed
+     * to it in the order they were read
+     */
+    private final class Worker extends Thread {
+        final AVLTree<String> tree;
+        final BlockingQueue<Object> queue;
+
+        Worker(int index, AVLTree<String> tree, BlockingQueue<Object> queue) {
+            super("dendrologist-partition-" + index);
+            this.tree = tree;
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object next;
+                while ((next = queue.take()) != STOP) {
+                    // once the replay has failed, keep draining so that the
+                    // reading thread never blocks on a full queue
+                    if (failure == null) {
+                        try {
+                            execute(next);
+                        } catch (Throwable t) {
+                            // an Error must not end the worker either, or
+                            // its queue would never be drained again
+                            fail(t);
+                        }
+                    }
+                    if (failure != null) {
+                        abandon(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Executes a command routed to this worker
+         * 
+         * @param next a command, a gen or a barrier
+         */
+        private void execute(Object next) {
+            if (next instanceof Command) {
+                Command command = (Command) next;
+                if (command.type() == CommandType.INSERT) {
+                    tree.insert(command.key());
+                } else {
+                    tree.remove(command.key());
+                }
+            } else if (next instanceof Gen) {
+                Gen gen = (Gen) next;
+                gen.trace.complete(Dendrologist.genealogy(tree, gen.key));
+            } else {
+                Barrier barrier = (Barrier) next;
+                barrier.report.complete(new Report(tree, barrier.traverse));
+            }
+        }
+
+        /**
+         * Fails the trace of a command that will not be executed
+         * 
+         * @param next a command, a gen or a barrier
+         */
+        private void abandon(Object next) {
+            if (next instanceof Gen) {
+                ((Gen) next).trace.completeExceptionally(failure);
+            } else if (next instanceof Barrier) {
+                ((Barrier) next).report.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * A gen command routed to a worker, with its trace to come
+     */
+    private static final class Gen {
+        final String key;
+        final CompletableFuture<String> trace = new CompletableFuture<>();
+
+        Gen(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A props or traverse command sent to every worker, with the report of the
+     * worker's partition to come
+     */
+    private static final class Barrier {
+        final boolean traverse;
+        final CompletableFuture<Report> report = new CompletableFuture<>();
+
+        Barrier(boolean traverse) {
+            this.traverse = traverse;
+        }
+    }
+
+    /**
+     * The properties, and for traverse the traversals, of a partition
+     */
+    private static final class Report {
+        final int size;
+        final int height;
+        final int diameter;
+        final boolean fibonacci;
+        final boolean complete;
+        final List<String> preorder = new ArrayList<>();
+        final List<String> inorder = new ArrayList<>();
+        final List<String> postorder = new ArrayList<>();
+
+        Report(AVLTree<String> tree, boolean traverse) {
+            size = tree.size();
+            if (traverse) {
+                height = 0;
+                diameter = 0;
+                fibonacci = false;
+                complete = false;
+                tree.preorderTraverse(x -> preorder.add((String) x));
+                tree.traverse(x -> inorder.add((String) x));
+                tree.postorderTraverse(x -> postorder.add((String) x));
+            } else {
+                height = tree.height();
+                diameter = tree.diameter();
+                fibonacci = tree.isFibonacci();
+                complete = tree.isComplete();
+            }
+        }
+    }
+
+    /**
+     * The next key of the in-order traversal of a partition
+     */
+    private static final class Cursor {
+        final List<String> keys;
+        int index;
+
+        Cursor(List<String> keys) {
+            this.keys = keys;
+        }
+
+        String key() {
+            return keys.get(index);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package dendrologist;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Profiles the replay of a command file: records a latency histogram per
+ * command type and, every interval of commands, samples the throughput, the
+ * size and height of the tree and the mean latency of each command type over
+ * the interval. The time taken to sample the tree is left out of the
+ * throughput.
+ * 
+ * @author Matthew Benfield
+ * @see Dendrologist
+ */
+public class ReplayProfiler {
+    /**
+     * The number of commands between two samples
+     */
+    private final int interval;
+    /**
+     * The latencies of the commands of each type
+     */
+    private final EnumMap<CommandType, LatencyHistogram> latencies = new EnumMap<>(CommandType.class);
+    /**
+     * The samples taken so far
+     */
+    private final List<Sample> samples = new ArrayList<>();
+    /**
+     * The number of commands and their total latency for each type over the
+     * current interval, indexed by ordinal
+     */
+    private final long[] intervalCounts = new long[CommandType.values().length];
+    private final long[] intervalNanos = new long[CommandType.values().length];
+    /**
+     * The number of commands replayed so far
+     */
+    private long commands;
+    /**
+     * The replay time spent in previous intervals, excluding sampling
+     */
+    private long elapsedNanos;
+    /**
+     * When the current interval started
+     */
+    private long intervalStart;
+
+    /**
+     * Constructs a profiler
+     * 
+     * @param interval the number of commands between two samples
+     */
+    public ReplayProfiler(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The profiling interval must be positive.");
+        }
+        this.interval = interval;
+        for (CommandType type : CommandType.values()) {
+            latencies.put(type, new LatencyHistogram());
+        }
+        intervalStart = System.nanoTime();
+    }
+
+    /**
+     * Records a replayed command
+     * 
+     * @param type  the type of the command
+     * @param nanos the time taken to execute and trace the command
+     * @param tree  the tree the command was executed against
+     */
+    public void record(CommandType type, long nanos, AVLTree<?> tree) {
+        latencies.get(type).record(nanos);
+        intervalCounts[type.ordinal()]++;
+        intervalNanos[type.ordinal()] += nanos;
+        if (++commands % interval == 0) {
+            sample(tree);
+        }
+    }
+
+    /**
+     * Ends the replay, sampling the last partial interval
+     * 
+     * @param tree the tree the commands were executed against
+     */
+    public void finish(AVLTree<?> tree) {
+        if (commands % interval != 0) {
+            sample(tree);
+        }
+    }
+
+    /**
+     * Samples the tree and closes the current interval
+     * 
+     * @param tree the tree the commands are executed against
+     */
+    private void sample(AVLTree<?> tree) {
+        long now = System.nanoTime();
+        long intervalLength = now - intervalStart;
+        elapsedNanos += intervalLength;
+        long count = 0;
+        for (long c : intervalCounts) {
+            count += c;
+        }
+        double[] means = new double[intervalCounts.length];
+        for (int i = 0; i < means.length; i++) {
+            means[i] = intervalCounts[i] == 0 ? 0 : (double) intervalNanos[i] / intervalCounts[i];
+        }
+        samples.add(new Sample(commands, elapsedNanos, count * 1e9 / Math.max(1, intervalLength), tree.size(),
+                tree.height(), means));
+        Arrays.fill(intervalCounts, 0);
+        Arrays.fill(intervalNanos, 0);
+        intervalStart = System.nanoTime();
+    }
+
+    /**
+     * Gives the latencies of the commands of the specified type
+     * 
+     * @param type a command type
+     * @return the histogram of the latencies of the commands of this type
+     */
+    public LatencyHistogram latency(CommandType type) {
+        return latencies.get(type);
+    }
+
+    /**
+     * Writes a summary report of the replay
+     * 
+     * @param out the stream the report is written to
+     */
+    public void report(PrintStream out) {
+        out.printf("Replay Profile:%ncommands = %d, time = %.3fs, throughput = %.0f commands/s%n", commands,
+                elapsedNanos / 1e9, commands * 1e9 / Math.max(1, elapsedNanos));
+        out.println("Latency by command:");
+        for (CommandType type : CommandType.values()) {
+            LatencyHistogram h = latencies.get(type);
+            if (h.count() > 0) {
+                out.printf("  %-8s %s%n", type.word(), h);
+            }
+        }
+        out.printf("Samples every %d commands (mean latency in microseconds):%n", interval);
+        out.printf("  %12s %10s %12s %10s %6s", "commands", "time(s)", "commands/s", "size", "height");
+        for (CommandType type : CommandType.values()) {
+            out.printf(" %10s", type.word());
+        }
+        out.println();
+        for (Sample s : samples) {
+            out.printf("  %12d %10.3f %12.0f %10d %6d", s.commands, s.elapsedNanos / 1e9, s.throughput, s.size,
+                    s.height);
+            for (double mean : s.meanNanos) {
+                out.printf(" %10.2f", mean / 1e3);
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * The state of a replay at the end of an interval
+     */
+    private static final class Sample {
+        final long commands;
+        final long elapsedNanos;
+        final double throughput;
+        final int size;
+        final int height;
+        final double[] meanNanos;
+
+        Sample(long commands, long elapsedNanos, double throughput, int size, int height, double[] meanNanos) {
+            this.commands = commands;
+            this.elapsedNanos = elapsedNanos;
+            this.throughput = throughput;
+            this.size = size;
+            this.height = height;
+            this.meanNanos = meanNanos;
+        }
+    }
+}
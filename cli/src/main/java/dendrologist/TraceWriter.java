@@ -0,0 +1,147 @@
+package dendrologist;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Compiles commands into a binary trace, which BinaryCommandReader replays
+ * without tokenizing or parsing text. A binary trace starts with the magic
+ * bytes "DNDT", a version byte and a flags byte, followed by one record per
+ * command:
+ *
+ * <pre>
+ * opcode    1 byte: the ordinal of the command type, plus 0x80 when the
+ *           key follows inline
+ * key       for insert, delete and gen: an inline key, as the varint
+ *           length of its UTF-8 bytes followed by the bytes, or the varint
+ *           index of a key given inline earlier
+ * </pre>
+ *
+ * Varints are unsigned LEB128. With the dictionary flag, each key is given
+ * inline once, and later commands refer to it by the order in which it was
+ * first given; without it, every key is given inline.
+ *
+ * @author Matthew Benfield
+ * @see BinaryCommandReader, Dendrologist
+ */
+public class TraceWriter implements Closeable {
+    /**
+     * The magic bytes that start a binary trace
+     */
+    static final byte[] MAGIC = { 'D', 'N', 'D', 'T' };
+    /**
+     * The version of the format
+     */
+    static final int VERSION = 1;
+    /**
+     * The flag of a trace whose keys are given inline once
+     */
+    static final int DICTIONARY = 1;
+    /**
+     * The bit of an opcode whose key follows inline
+     */
+    static final int INLINE = 0x80;
+
+    /**
+     * The stream the trace is written to
+     */
+    private final OutputStream out;
+    /**
+     * The index of each key given inline, or null without a dictionary
+     */
+    private final HashMap<String, Integer> dictionary;
+
+    /**
+     * Constructs a writer of a binary trace and writes its header
+     *
+     * @param out        the stream the trace is written to
+     * @param dictionary whether keys are given inline only once
+     * @throws IOException when the header cannot be written
+     */
+    public TraceWriter(OutputStream out, boolean dictionary) throws IOException {
+        this.out = out;
+        this.dictionary = dictionary ? new HashMap<>() : null;
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(dictionary ? DICTIONARY : 0);
+    }
+
+    /**
+     * Writes a command
+     *
+     * @param command the command
+     * @throws IOException when the command cannot be written
+     */
+    public void write(Command command) throws IOException {
+        int opcode = command.type().ordinal();
+        if (!command.type().hasKey()) {
+            out.write(opcode);
+            return;
+        }
+        if (dictionary != null) {
+            Integer index = dictionary.get(command.key());
+            if (index != null) {
+                out.write(opcode);
+                writeVarint(index);
+                return;
+            }
+            dictionary.put(command.key(), dictionary.size());
+        }
+        byte[] key = command.key().getBytes(StandardCharsets.UTF_8);
+        out.write(opcode | INLINE);
+        writeVarint(key.length);
+        out.write(key);
+    }
+
+    /**
+     * Flushes and closes the stream the trace is written to
+     *
+     * @throws IOException when the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Compiles a command file into a binary trace
+     *
+     * @param reader     the reader of the command file
+     * @param file       the file the trace is written to
+     * @param dictionary whether keys are given inline only once
+     * @return the number of commands compiled
+     * @throws IOException when the trace cannot be written
+     */
+    public static long compile(CommandReader reader, File file, boolean dictionary) throws IOException {
+        long commands = 0;
+        try (TraceWriter writer = new TraceWriter(new BufferedOutputStream(new FileOutputStream(file), 1 << 16),
+                dictionary)) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                writer.write(command);
+                commands++;
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint
+     *
+     * @param value a nonnegative integer
+     * @throws IOException when the varint cannot be written
+     */
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,219 @@
+package dendrologist;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A blocking client of a tree server that pipelines its requests, and a load
+ * test that replays a command file against a server over several connections.
+ * 
+ * @author Matthew Benfield
+ * @see TreeServer
+ */
+public class TreeClient implements Closeable {
+    /**
+     * The most requests sent ahead of their replies
+     */
+    private static final int MAX_IN_FLIGHT = 256;
+    /**
+     * The most characters of requests sent ahead of their replies. A server
+     * stops reading a connection whose replies are not read, so the requests
+     * in flight must fit in the socket buffers for the client to get back to
+     * reading the replies.
+     */
+    private static final int MAX_IN_FLIGHT_CHARS = 1 << 13;
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    /**
+     * Connects to a tree server
+     * 
+     * @param host the host of the server
+     * @param port the port of the server
+     * @throws IOException when the server cannot be reached
+     */
+    public TreeClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a batch of requests, pipelining them: requests are sent ahead of
+     * their replies, and the replies are read once too many requests are in
+     * flight
+     * 
+     * @param requests the request lines
+     * @return the reply to each request, in request order, without the empty
+     *         line that ends it
+     * @throws IOException when the connection fails
+     */
+    public List<String> send(List<String> requests) throws IOException {
+        List<String> replies = new ArrayList<>(requests.size());
+        int[] lengths = new int[requests.size()];
+        int inFlight = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            String request = requests.get(i);
+            lengths[i] = request.length() + 1;
+            while (replies.size() < i
+                    && (i - replies.size() >= MAX_IN_FLIGHT || inFlight + lengths[i] > MAX_IN_FLIGHT_CHARS)) {
+                out.flush();
+                inFlight -= lengths[replies.size()];
+                replies.add(receive());
+            }
+            out.write(request);
+            out.write('\n');
+            inFlight += lengths[i];
+        }
+        out.flush();
+        while (replies.size() < requests.size()) {
+            replies.add(receive());
+        }
+        return replies;
+    }
+
+    /**
+     * Reads the next reply
+     * 
+     * @return the reply, without the empty line that ends it
+     * @throws IOException when the connection fails
+     */
+    private String receive() throws IOException {
+        StringBuilder reply = new StringBuilder();
+        while (true) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new IOException("The server closed the connection.");
+            }
+            if (line.isEmpty()) {
+                return reply.toString();
+            }
+            if (reply.length() > 0) {
+                reply.append('\n');
+            }
+            reply.append(line);
+        }
+    }
+
+    /**
+     * Sends a single request
+     * 
+     * @param request the request line
+     * @return the reply to the request
+     * @throws IOException when the connection fails
+     */
+    public String send(String request) throws IOException {
+        return send(List.of(request)).get(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Load-tests a tree server: the commands of a command file are split into
+     * batches that are dealt out to the connections, each connection pipelining
+     * one batch at a time, and the throughput and the latency of a batch are
+     * reported
+     * 
+     * @param args the host, the port and the command file, then the options
+     *             --connections=&lt;n&gt; (default 1) and --batch=&lt;n&gt;
+     *             (default 64)
+     * @throws Exception when the server cannot be reached or the command file
+     *                   cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> operands = new ArrayList<>();
+        int connections = 1;
+        int batch = 64;
+        for (String arg : args) {
+            if (arg.startsWith("--connections=")) {
+                connections = Integer.parseInt(arg.substring("--connections=".length()));
+            } else if (arg.startsWith("--batch=")) {
+                batch = Integer.parseInt(arg.substring("--batch=".length()));
+            } else {
+                operands.add(arg);
+            }
+        }
+        if (operands.size() != 3) {
+            System.out.println("TreeClient <host> <port> <command-file> [--connections=<n>] [--batch=<n>]");
+            throw new IllegalArgumentException("There should be 3 command line arguments.");
+        }
+        String host = operands.get(0);
+        int port = Integer.parseInt(operands.get(1));
+        List<List<String>> batches = new ArrayList<>();
+        try (Scanner input = new Scanner(new File(operands.get(2)))) {
+            CommandReader reader = new CommandReader(input, operands.get(2));
+            List<String> current = new ArrayList<>();
+            Command command;
+            while ((command = reader.next()) != null) {
+                current.add(command.toString());
+                if (current.size() == batch) {
+                    batches.add(current);
+                    current = new ArrayList<>();
+                }
+            }
+            if (!current.isEmpty()) {
+                batches.add(current);
+            }
+        }
+
+        LatencyHistogram[] latencies = new LatencyHistogram[connections];
+        AtomicLong errors = new AtomicLong();
+        Thread[] threads = new Thread[connections];
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            int first = i;
+            int stride = connections;
+            LatencyHistogram latency = latencies[i] = new LatencyHistogram();
+            threads[i] = new Thread(() -> {
+                try (TreeClient client = new TreeClient(host, port)) {
+                    for (int b = first; b < batches.size(); b += stride) {
+                        long t = System.nanoTime();
+                        for (String reply : client.send(batches.get(b))) {
+                            if (reply.startsWith("ERROR")) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        latency.record(System.nanoTime() - t);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Connection failed: " + e.getMessage());
+                }
+            }, "dendrologist-client-" + i);
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        LatencyHistogram total = new LatencyHistogram();
+        long requests = 0;
+        for (LatencyHistogram latency : latencies) {
+            total.add(latency);
+        }
+        for (List<String> b : batches) {
+            requests += b.size();
+        }
+        System.out.printf("requests = %d, errors = %d, connections = %d, batch = %d%n", requests, errors.get(),
+                connections, batch);
+        System.out.printf("time = %.3fs, throughput = %.0f requests/s%n", elapsed / 1e9,
+                requests * 1e9 / Math.max(1, elapsed));
+        System.out.println("batch latency: " + total);
+    }
+}
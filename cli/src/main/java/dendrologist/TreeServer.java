@@ -0,0 +1,542 @@
+package dendrologist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A lightweight server that shares an AVL tree of strings with other
+ * processes. The server accepts the commands of a command file, one per line,
+ * over TCP, along with the lookups
+ * <pre>
+ * lookup &lt;key&gt;    replies Found: &lt;key&gt; or Missing: &lt;key&gt;
+ * retrieve &lt;key&gt;  replies Retrieved: &lt;entry&gt; or Missing: &lt;key&gt;
+ * size            replies Size: &lt;size&gt;
+ * </pre>
+ * Every reply is the trace Dendrologist would print for the command, without
+ * its empty lines, followed by an empty line; a request that fails is answered
+ * with a line starting with ERROR. Requests may be pipelined: a client may send any number of requests
+ * before reading the replies, which come back in request order. All the
+ * complete requests that arrive in one read are executed together and their
+ * replies are written back with a single write.
+ * 
+ * A single thread multiplexes every connection with a selector. By default it
+ * also executes every request. A server over a sharded tree can instead hand
+ * the requests to an executor, such as the pool of one thread per shard of
+ * ShardedAVLTree.newRequestExecutor(): the requests that arrive in one read
+ * run together on one thread, the connection is not read again until they
+ * are done, and connections are served in parallel, locking only the shards
+ * their keys belong to. With several shards, gen gives the genealogy within
+ * the shard of the key, props gives the total size and the largest height and
+ * diameter, and traverse gives the in-order traversal of every entry between
+ * the pre-order and post-order traversals of the shards one after another.
+ * 
+ * A connection whose replies are not read stops being read once a megabyte of
+ * replies is waiting for it.
+ * 
+ * The server does not authenticate its clients: run from the command line it
+ * listens on the loopback address unless --bind names another one.
+ * 
+ * @author Matthew Benfield
+ * @see TreeClient, Dendrologist
+ */
+public class TreeServer implements Closeable {
+    /**
+     * The longest request accepted, in bytes
+     */
+    private static final int MAX_REQUEST = 1 << 16;
+    /**
+     * The number of bytes of replies that may wait for a connection before the
+     * server stops reading from it
+     */
+    private static final int BACKLOG_LIMIT = 1 << 20;
+    /**
+     * The line separator of the replies
+     */
+    private static final String NL = "\n";
+
+    private final ShardedAVLTree<String> tree;
+    /**
+     * The executor of the requests, or null to execute them on the selector
+     * thread
+     */
+    private final ExecutorService executor;
+    /**
+     * The replies computed by the executor, waiting to be handed to their
+     * connections by the selector thread
+     */
+    private final ConcurrentLinkedQueue<Completion> completions = new ConcurrentLinkedQueue<>();
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    /**
+     * The thread that runs the event loop
+     */
+    private Thread loop;
+    private volatile boolean running;
+
+    /**
+     * Constructs a server bound to the specified address that executes the
+     * requests on its selector thread
+     * 
+     * @param tree    the tree shared by the server
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException when the address cannot be bound
+     */
+    public TreeServer(AVLTree<String> tree, InetSocketAddress address) throws IOException {
+        this(ShardedAVLTree.wrap(tree), null, address);
+    }
+
+    /**
+     * Constructs a server bound to the specified address
+     * 
+     * @param tree     the sharded tree shared by the server
+     * @param executor the executor of the requests, or null to execute them on
+     *                 the selector thread
+     * @param address  the address to listen on; port 0 picks a free port
+     * @throws IOException when the address cannot be bound
+     */
+    public TreeServer(ShardedAVLTree<String> tree, ExecutorService executor, InetSocketAddress address)
+            throws IOException {
+        this.tree = tree;
+        this.executor = executor;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts serving requests on a background thread
+     */
+    public synchronized void start() {
+        if (loop != null) {
+            throw new IllegalStateException("The server is already started.");
+        }
+        running = true;
+        loop = new Thread(this::run, "dendrologist-server");
+        loop.start();
+    }
+
+    /**
+     * Gives the port the server listens on
+     * 
+     * @return the local port
+     * @throws IOException when the server is closed
+     */
+    public int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Waits for the server to be closed
+     * 
+     * @throws InterruptedException when the waiting thread is interrupted
+     */
+    public void join() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = loop;
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    /**
+     * Stops the server and closes every connection
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Runs the event loop until the server is closed
+     */
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Completion done;
+                while ((done = completions.poll()) != null) {
+                    complete(done);
+                }
+                Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+                while (ready.hasNext()) {
+                    SelectionKey key = ready.next();
+                    ready.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isWritable()) {
+                                write(key);
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                read(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Tree server stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Accepts a new connection
+     * 
+     * @throws IOException when the connection cannot be set up
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    /**
+     * Reads the requests available on a connection, executes every complete
+     * request and writes back their replies
+     * 
+     * @param key the key of the connection
+     * @throws IOException when the connection fails
+     */
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection c = (Connection) key.attachment();
+        int n = channel.read(c.in);
+        List<String> requests = new ArrayList<>();
+        byte[] bytes = c.in.array();
+        int start = 0;
+        int end = c.in.position();
+        if (n < 0) {
+            // the client is done sending: execute an unterminated last request
+            String last = new String(bytes, 0, end, StandardCharsets.UTF_8);
+            if (!last.isBlank()) {
+                requests.add(last);
+            }
+            c.in.clear();
+            c.closing = true;
+        }
+        for (int i = 0; i < end && n >= 0; i++) {
+            if (bytes[i] == '\n') {
+                int length = i - start;
+                if (length > 0 && bytes[i - 1] == '\r') {
+                    length--;
+                }
+                String request = new String(bytes, start, length, StandardCharsets.UTF_8);
+                if (!request.isBlank()) {
+                    requests.add(request);
+                }
+                start = i + 1;
+            }
+        }
+        String overflow = null;
+        if (n >= 0) {
+            c.in.limit(end).position(start);
+            c.in.compact();
+            if (!c.in.hasRemaining()) {
+                if (c.in.capacity() >= MAX_REQUEST) {
+                    overflow = "ERROR request longer than " + MAX_REQUEST + " bytes" + NL + NL;
+                    c.in.clear();
+                    c.closing = true;
+                } else {
+                    ByteBuffer larger = ByteBuffer.allocate(c.in.capacity() * 2);
+                    c.in.flip();
+                    larger.put(c.in);
+                    c.in = larger;
+                }
+            }
+        }
+        String tail = overflow;
+        if (executor != null && !requests.isEmpty()) {
+            c.busy = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            executor.execute(() -> {
+                completions.add(new Completion(key, executeAll(requests, tail)));
+                selector.wakeup();
+            });
+            return;
+        }
+        c.queue(executeAll(requests, tail));
+        write(key);
+    }
+
+    /**
+     * Executes a batch of requests
+     * 
+     * @param requests the request lines
+     * @param tail     a reply to add after the replies to the requests, or null
+     * @return the replies to the requests
+     */
+    private byte[] executeAll(List<String> requests, String tail) {
+        StringBuilder replies = new StringBuilder();
+        for (String request : requests) {
+            execute(request, replies);
+        }
+        if (tail != null) {
+            replies.append(tail);
+        }
+        return replies.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hands the replies computed by the executor to their connection
+     * 
+     * @param done the replies and the key of their connection
+     */
+    private void complete(Completion done) {
+        SelectionKey key = done.key;
+        Connection c = (Connection) key.attachment();
+        c.busy = false;
+        if (!key.isValid()) {
+            return;
+        }
+        c.queue(done.replies);
+        try {
+            write(key);
+        } catch (IOException e) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // the connection is gone either way
+            }
+        }
+    }
+
+    /**
+     * Writes as many waiting replies as the connection accepts
+     * 
+     * @param key the key of the connection
+     * @throws IOException when the connection fails
+     */
+    private void write(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection c = (Connection) key.attachment();
+        while (!c.out.isEmpty()) {
+            ByteBuffer head = c.out.peek();
+            c.backlog -= channel.write(head);
+            if (head.hasRemaining()) {
+                break;
+            }
+            c.out.poll();
+        }
+        if (c.out.isEmpty() && c.closing && !c.busy) {
+            channel.close();
+            return;
+        }
+        int ops = c.out.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+        if (!c.closing && !c.busy && c.backlog < BACKLOG_LIMIT) {
+            ops |= SelectionKey.OP_READ;
+        }
+        key.interestOps(ops);
+    }
+
+    /**
+     * Executes a request against the tree
+     * 
+     * @param request a request line
+     * @param replies receives the reply to the request
+     */
+    void execute(String request, StringBuilder replies) {
+        String[] words = request.trim().split("\\s+");
+        String word = words[0];
+        CommandType type = CommandType.of(word);
+        if (type == null && !word.equals("lookup") && !word.equals("retrieve") && !word.equals("size")) {
+            replies.append("ERROR unknown command: ").append(word).append(NL).append(NL);
+            return;
+        }
+        boolean keyed = type != null ? type.hasKey() : !word.equals("size");
+        if (words.length != (keyed ? 2 : 1)) {
+            replies.append("ERROR malformed request: ").append(request).append(NL).append(NL);
+            return;
+        }
+        String key = keyed ? words[1] : null;
+        try {
+            if (type != null) {
+                switch (type) {
+                    case INSERT -> {
+                        tree.insert(key);
+                        replies.append("Inserted: ").append(key).append(NL);
+                    }
+                    case DELETE -> {
+                        tree.remove(key);
+                        replies.append("Deleted: ").append(key).append(NL);
+                    }
+                    case GEN -> {
+                        String genealogy = tree.query(key, t -> Dendrologist.genealogy(t, key));
+                        // the genealogy of an entry with two children has an empty
+                        // line, which would end the reply early
+                        replies.append(genealogy.replaceAll("\\R+", NL));
+                    }
+                    case PROPS -> {
+                        int size = 0;
+                        int height = -1;
+                        int diameter = 0;
+                        boolean fibonacci = true;
+                        boolean complete = true;
+                        for (Object[] p : tree.queryAll(t -> new Object[] { t.size(), t.height(), t.diameter(),
+                                t.isFibonacci(), t.isComplete() })) {
+                            size += (Integer) p[0];
+                            height = Math.max(height, (Integer) p[1]);
+                            diameter = Math.max(diameter, (Integer) p[2]);
+                            fibonacci &= (Boolean) p[3];
+                            complete &= (Boolean) p[4];
+                        }
+                        replies.append(Dendrologist.properties(size, height, diameter, fibonacci, complete));
+                    }
+                    case TRAVERSE -> {
+                        replies.append("Pre-Order Traversal: ").append(NL);
+                        tree.queryAll(t -> {
+                            t.preorderTraverse(x -> replies.append(x).append(NL));
+                            return null;
+                        });
+                        replies.append("In-Order Traversal: ").append(NL);
+                        tree.traverse(x -> replies.append(x).append(NL));
+                        replies.append("Post-Order Traversal: ").append(NL);
+                        tree.queryAll(t -> {
+                            t.postorderTraverse(x -> replies.append(x).append(NL));
+                            return null;
+                        });
+                    }
+                }
+            } else if (word.equals("lookup")) {
+                replies.append(tree.inTree(key) ? "Found: " : "Missing: ").append(key).append(NL);
+            } else if (word.equals("retrieve")) {
+                Optional<String> entry = tree.find(key);
+                if (entry.isPresent()) {
+                    replies.append("Retrieved: ").append(entry.get()).append(NL);
+                } else {
+                    replies.append("Missing: ").append(key).append(NL);
+                }
+            } else {
+                replies.append("Size: ").append(tree.size()).append(NL);
+            }
+        } catch (AVLTreeException | RuntimeException e) {
+            replies.append("ERROR ").append(e.getMessage()).append(NL);
+        }
+        replies.append(NL);
+    }
+
+    /**
+     * Serves a new tree until the process is killed
+     * 
+     * @param args the order code and, optionally, the port to listen on,
+     *             --bind=&lt;address&gt; to listen on an address other than the
+     *             loopback address and --shards=&lt;n&gt; to split the tree
+     *             into n shards served by an executor
+     * @throws IOException          when the port cannot be bound
+     * @throws InterruptedException when the main thread is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> operands = new ArrayList<>();
+        int shards = 0;
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        for (String arg : args) {
+            if (arg.startsWith("--shards=")) {
+                shards = Integer.parseInt(arg.substring("--shards=".length()));
+            } else if (arg.startsWith("--bind=")) {
+                bind = InetAddress.getByName(arg.substring("--bind=".length()));
+            } else {
+                operands.add(arg);
+            }
+        }
+        if (operands.size() < 1 || operands.size() > 2) {
+            System.out.println("TreeServer <order-code> [port] [--bind=<address>] [--shards=<n>]");
+            throw new IllegalArgumentException("There should be 1 or 2 command line arguments.");
+        }
+        int orderCode = Integer.parseInt(operands.get(0));
+        InetSocketAddress address = new InetSocketAddress(bind,
+                operands.size() == 2 ? Integer.parseInt(operands.get(1)) : 7878);
+        TreeServer server;
+        if (shards > 0) {
+            ShardedAVLTree<String> sharded = ShardedAVLTree.hashed(shards,
+                    Dendrologist.<String>comparator(orderCode), Dendrologist.<String>keyHash(orderCode));
+            server = new TreeServer(sharded, sharded.newRequestExecutor(), address);
+        } else {
+            server = new TreeServer(new AVLTree<>(Dendrologist.<String>comparator(orderCode)), address);
+        }
+        server.start();
+        System.out.println("Tree server listening on " + bind.getHostAddress() + " port " + server.port());
+        server.join();
+    }
+
+    /**
+     * The state of a connection
+     */
+    private static final class Connection {
+        /**
+         * The bytes read but not yet executed
+         */
+        ByteBuffer in = ByteBuffer.allocate(8192);
+        /**
+         * The replies not yet written
+         */
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        /**
+         * The number of bytes of replies not yet written
+         */
+        long backlog;
+        /**
+         * Whether the connection is closed once the replies are written
+         */
+        boolean closing;
+        /**
+         * Whether the executor is running requests of the connection
+         */
+        boolean busy;
+
+        void queue(byte[] replies) {
+            if (replies.length == 0) {
+                return;
+            }
+            out.add(ByteBuffer.wrap(replies));
+            backlog += replies.length;
+        }
+    }
+
+    /**
+     * The replies to a batch of requests executed by the executor
+     */
+    private static final class Completion {
+        final SelectionKey key;
+        final byte[] replies;
+
+        Completion(SelectionKey key, byte[] replies) {
+            this.key = key;
+            this.replies = replies;
+        }
+    }
+}
@@ -0,0 +1,2249 @@
+package dendrologist;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.ArrayList;
+
+/**
+ * Models an AVL tree.
+ * 
+ * @param <E> data type of elements of the tree
+ * @author William Duncan, Matthew Benfield
+ * @see AVLTreeAPI
+ * 
+ *      <pre>
+ * Date: 10-18-23
+ * Course: CSC 3102 
+ * Programming Project # 2
+ * Instructor: Dr. Duncan
+ *      </pre>
+ *
+ *      DO NOT REMOVE THIS NOTICE (GNU GPL V2):
+ *      Contact Information: duncanw@lsu.edu
+ *      Copyright (c) 2022 William E. Duncan
+ *
+ *      This program is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      This program is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with this program. If not, see <https://www.gnu.org/licenses/>
+ *      </pre>
+ */
+public class AVLTree<E extends Comparable<E>> implements AVLTreeAPI<E> {
+   /**
+    * The root node of this tree
+    */
+   private Node root;
+   /**
+    * The number of nodes in this tree
+    */
+   private int count;
+   /**
+    * A comparator lambda function that compares two elements of this
+    * AVL tree; cmp.compare(x,y) gives 1. negative when x less than y
+    * 2. positive when x greater than y 3. 0 when x equal y
+    */
+   private Comparator<? super E> cmp;
+   /**
+    * The order of the entries, without the counting of comparisons for the
+    * metrics, which a frozen copy must not share
+    */
+   private Comparator<? super E> entryOrder;
+   /**
+    * The metrics of this tree, or null when metrics are disabled
+    */
+   private AVLTreeMetrics metrics;
+   /**
+    * The comparator of this tree when it is a prefix comparator, or null
+    */
+   private PrefixComparator<? super E> prefixCmp;
+   /**
+    * The cache of the nodes found by recent lookups, or null
+    */
+   private LookupCache<E> cache;
+   /**
+    * Whether inserts and lookups start from the finger
+    */
+   private boolean fingerSearch;
+   /**
+    * The node last touched by a finger search, or null
+    */
+   private Node finger;
+   /**
+    * Whether each node counts the occurrences of its entry
+    */
+   private boolean multiset;
+   /**
+    * The number of occurrences of all the entries, in multiset mode
+    */
+   private int occurrences;
+   /**
+    * The summary maintained by every node, or null
+    */
+   private Augmentation<? super E, Object> augmentation;
+   /**
+    * The summary of no entries
+    */
+   private Object identity;
+   /**
+    * The listener of the mutations of this tree, or null
+    */
+   private MutationListener<? super E> listener;
+   /**
+    * The mutations not yet delivered to the listener
+    */
+   private MutationBatch<E> mutations;
+
+   /**
+    * A node of a tree stores a data item and references
+    * to the child nodes to the left and to the right.
+    * Subclasses of the tree may store more in subclasses of nodes.
+    */
+   class Node {
+      /**
+       * the data in this node
+       */
+      public E data;
+      /**
+       * the left child
+       */
+      public Node left;
+      /**
+       * the right child
+       */
+      public Node right;
+      /**
+       * the parent, or null at the root
+       */
+      Node parent;
+      /**
+       * the balanced factor of this node, or null once the node is removed
+       * from the tree
+       */
+      BalancedFactor bal;
+   }
+
+   /**
+    * A node of an augmented tree also stores the summary of its subtree.
+    */
+   class AugmentedNode extends Node {
+      /**
+       * the summary of the entries of the subtree at this node
+       */
+      Object summary;
+   }
+
+   /**
+    * A node of a multiset also counts the occurrences of its data item.
+    * Counted nodes are augmented nodes, whose summary costs no memory
+    * beside the count once objects are aligned.
+    */
+   private class CountedNode extends AugmentedNode {
+      /**
+       * the number of occurrences of the data in this node
+       */
+      int copies = 1;
+   }
+
+   /**
+    * Constructs an empty tree
+    */
+   public AVLTree() {
+      root = null;
+      count = 0;
+      cmp = (x, y) -> x.compareTo(y);
+      entryOrder = cmp;
+      if (AVLTreeMetrics.ENABLED) {
+         metrics = new AVLTreeMetrics();
+         cmp = metrics.counting(cmp);
+      }
+   }
+
+   /**
+    * A parameterized constructor that uses an externally defined comparator.
+    * When the comparator is a PrefixComparator, searches skip the prefix the
+    * searched item is known to share with the entries of each subtree.
+    * 
+    * @param fn - a trichotomous integer value comparator function
+    */
+   public AVLTree(Comparator<? super E> fn) {
+      root = null;
+      count = 0;
+      cmp = fn;
+      entryOrder = fn;
+      if (AVLTreeMetrics.ENABLED) {
+         metrics = new AVLTreeMetrics();
+         cmp = metrics.counting(cmp);
+      }
+      if (cmp instanceof PrefixComparator)
+         prefixCmp = (PrefixComparator<? super E>) cmp;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return (root == null);
+   }
+
+   @Override
+   public void insert(E obj) {
+      long start = AVLTreeMetrics.ENABLED ? System.nanoTime() : 0L;
+      if (multiset || augmentation != null) {
+         AtomicInteger side = new AtomicInteger();
+         Node node = locate(obj, side);
+         if (node != null && side.get() == 0) {
+            if (listener != null)
+               mutated(multiset ? MutationType.COUNT : MutationType.REPLACE, obj, multiset ? null : node.data,
+                     multiset ? 1 : 0);
+            if (multiset)
+               ((CountedNode) node).copies++;
+            else
+               node.data = obj;
+            updatePath(node);
+         } else
+            attach(node, side.get(), newNode(obj));
+         if (multiset)
+            occurrences++;
+         if (AVLTreeMetrics.ENABLED)
+            metrics.inserted(System.nanoTime() - start);
+         return;
+      }
+      Node newNode = newNode(obj);
+      if (fingerSearch) {
+         insertByFinger(newNode);
+      } else {
+         AtomicBoolean forTaller = new AtomicBoolean();
+         Node existing = findNode(obj);
+         if (existing == null)
+            count++;
+         if (listener != null)
+            mutated(existing == null ? MutationType.INSERT : MutationType.REPLACE, obj,
+                  existing == null ? null : existing.data, existing == null ? 1 : 0);
+         root = insert(root, newNode, forTaller, 0, 0);
+         root.parent = null;
+      }
+      if (AVLTreeMetrics.ENABLED)
+         metrics.inserted(System.nanoTime() - start);
+   }
+
+   @Override
+   public boolean inTree(E item) {
+      return lookup(item) != null;
+   }
+
+   @Override
+   public void remove(E item) {
+      long start = AVLTreeMetrics.ENABLED ? System.nanoTime() : 0L;
+      AtomicBoolean shorter = new AtomicBoolean();
+      AtomicBoolean success = new AtomicBoolean();
+      Node newRoot;
+      if (augmentation != null) {
+         AtomicInteger side = new AtomicInteger();
+         Node node = locate(item, side);
+         if (node != null && side.get() == 0) {
+            if (multiset)
+               occurrences -= ((CountedNode) node).copies;
+            removeNode(node);
+         }
+         if (AVLTreeMetrics.ENABLED)
+            metrics.removed(System.nanoTime() - start);
+         return;
+      }
+      Node node = findNode(item);
+      if (node != null) {
+         if (listener != null)
+            mutated(MutationType.REMOVE, node.data, null, multiset ? -((CountedNode) node).copies : -1);
+         if (multiset)
+            occurrences -= ((CountedNode) node).copies;
+         newRoot = remove(root, item, shorter, success, 0, 0);
+         if (success.get()) {
+            root = newRoot;
+            if (root != null)
+               root.parent = null;
+            count--;
+         }
+      }
+      if (AVLTreeMetrics.ENABLED)
+         metrics.removed(System.nanoTime() - start);
+   }
+
+   @Override
+   public E retrieve(E item) throws AVLTreeException {
+      if (isEmpty())
+         throw new EntryNotFoundException("AVL Tree Exception: tree empty on call to retrieve()");
+      Node node = lookup(item);
+      if (node == null)
+         throw new EntryNotFoundException("AVL Tree Exception: key not in tree call to retrieve()");
+      return node.data;
+   }
+
+   @Override
+   public Optional<E> find(E item) {
+      Node node = lookup(item);
+      return node == null ? Optional.empty() : Optional.of(node.data);
+   }
+
+   public void traverse(Function func) {
+      traverse(root, func);
+   }
+
+   @Override
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Gives the metrics of this tree. Metrics are kept only when the JVM runs
+    * with -Ddendrologist.metrics=true; otherwise the returned metrics stay 0.
+    * 
+    * @return the metrics of this tree
+    */
+   public AVLTreeMetrics metrics() {
+      return AVLTreeMetrics.ENABLED ? metrics : AVLTreeMetrics.DISABLED;
+   }
+
+   /**
+    * Measures the heap used by this tree, visiting every entry
+    * 
+    * @return the footprint of this tree
+    */
+   public Footprint footprint() {
+      return footprint(Math.max(count, 1));
+   }
+
+   /**
+    * Estimates the heap used by this tree. The nodes, their balance factors
+    * and the auxiliary structures are sized from their layout and the number
+    * of nodes; the entries, with the values of a map and the summaries of an
+    * augmented tree, are measured along random descents from the root, in
+    * time proportional to the number of descents times the height. Each
+    * descent goes to a child chosen uniformly until it reaches a leaf, and
+    * weighs every node it measures by the inverse of the probability of
+    * reaching it, the product of the numbers of children along the way, as
+    * in Knuth's estimate of the size of a search tree. Every entry thus
+    * counts alike, whatever its depth, and the weighted sizes are scaled to
+    * the number of nodes.
+    * 
+    * @param samples the number of descents; with at least as many as there
+    *                are nodes, every node is measured instead
+    * @return the footprint of this tree
+    * @throws IllegalArgumentException when the number of samples is not
+    *                                  positive
+    */
+   public Footprint footprint(int samples) {
+      if (samples < 1)
+         throw new IllegalArgumentException("The number of samples must be positive.");
+      double[] bytes = new double[3];
+      int sampled;
+      if (samples >= count) {
+         measureAll(root, bytes);
+         sampled = count;
+      } else {
+         Random rnd = new Random(count);
+         double reached = 0;
+         for (int i = 0; i < samples; i++) {
+            double weight = 1;
+            for (Node node = root; node != null;) {
+               measure(node, weight, bytes);
+               reached += weight;
+               if (node.left != null && node.right != null) {
+                  weight *= 2;
+                  node = rnd.nextBoolean() ? node.left : node.right;
+               } else
+                  node = node.left != null ? node.left : node.right;
+            }
+         }
+         sampled = samples;
+         for (int i = 0; i < bytes.length; i++)
+            bytes[i] = bytes[i] / reached * count;
+      }
+      long nodeBytes = root == null ? 0 : Footprint.shallowBytes(root.getClass());
+      long balance = (long) count * Footprint.REFERENCE;
+      long auxiliary = 0;
+      if (cache != null)
+         auxiliary += cache.footprint();
+      if (mutations != null)
+         auxiliary += mutations.footprint();
+      if (listener instanceof AsyncMutationListener)
+         auxiliary += ((AsyncMutationListener<?>) listener).footprint();
+      if (root != null && root.data instanceof CompactKey)
+         auxiliary += ((CompactKey) root.data).arena().footprint();
+      return new Footprint(count * nodeBytes - balance, balance, Math.round(bytes[0]), Math.round(bytes[1]),
+            Math.round(bytes[2]), auxiliary, sampled, count);
+   }
+
+   /**
+    * Caches the nodes found by lookups with inTree, retrieve and getChildren
+    * in a table of the specified capacity, hashing entries with hashCode
+    * 
+    * @param capacity the number of slots of the cache
+    */
+   public void enableLookupCache(int capacity) {
+      enableLookupCache(capacity, Object::hashCode);
+   }
+
+   /**
+    * Caches the nodes found by lookups with inTree, retrieve and getChildren
+    * in a table of the specified capacity
+    * 
+    * @param capacity the number of slots of the cache
+    * @param hash     the hash of an entry; entries that compare equal should
+    *                 have the same hash
+    */
+   public void enableLookupCache(int capacity, ToIntFunction<? super E> hash) {
+      cache = new LookupCache<>(capacity, hash);
+   }
+
+   /**
+    * Stops caching lookups and discards the cache
+    */
+   public void disableLookupCache() {
+      cache = null;
+   }
+
+   /**
+    * Makes inserts and lookups with inTree, retrieve and getChildren start
+    * from the node touched by the previous insert or lookup, the finger,
+    * instead of the root. A search climbs from the finger only as far as the
+    * nearest ancestor that bounds the item and descends from there, so it
+    * costs O(log d) comparisons for an item d entries away from the finger,
+    * and keys inserted in sorted order cost a constant number of comparisons
+    * each. Finger searches compare items from their first character even
+    * with a prefix comparator.
+    * 
+    * @param enabled whether searches start from the finger
+    */
+   public void setFingerSearch(boolean enabled) {
+      fingerSearch = enabled;
+      finger = null;
+   }
+
+   /**
+    * Determines whether searches start from the finger
+    * 
+    * @return true when finger search is enabled
+    */
+   public boolean isFingerSearch() {
+      return fingerSearch;
+   }
+
+   /**
+    * Makes every entry of this tree count its occurrences. In multiset mode,
+    * inserting an entry already in this tree adds an occurrence in a single
+    * descent and keeps the entry first inserted, removeOne removes one
+    * occurrence, remove removes them all, and size counts distinct entries
+    * while occurrences counts them all.
+    * 
+    * @param enabled whether entries count their occurrences
+    * @throws IllegalStateException when this tree is not empty
+    */
+   public void setMultiset(boolean enabled) {
+      if (root != null)
+         throw new IllegalStateException("The multiset mode of a tree can only change while it is empty.");
+      multiset = enabled;
+      occurrences = 0;
+   }
+
+   /**
+    * Determines whether entries count their occurrences
+    * 
+    * @return true in multiset mode
+    */
+   public boolean isMultiset() {
+      return multiset;
+   }
+
+   /**
+    * Gives the number of occurrences of the specified entry
+    * 
+    * @param item an entry
+    * @return the number of occurrences in multiset mode, and otherwise 1
+    *         when the entry is in this tree; 0 when it is not
+    */
+   public int count(E item) {
+      Node node = cachedNode(item);
+      if (node == null)
+         return 0;
+      return multiset ? ((CountedNode) node).copies : 1;
+   }
+
+   /**
+    * Gives the number of occurrences of all the entries of this tree
+    * 
+    * @return the total number of occurrences in multiset mode, and otherwise
+    *         the size of this tree
+    */
+   public int occurrences() {
+      return multiset ? occurrences : count;
+   }
+
+   /**
+    * Removes one occurrence of the specified entry in a single descent,
+    * removing the entry when it was its last occurrence
+    * 
+    * @param item an entry
+    * @return true when an occurrence was removed, false when the entry is
+    *         not in this tree
+    */
+   public boolean removeOne(E item) {
+      long start = AVLTreeMetrics.ENABLED ? System.nanoTime() : 0L;
+      AtomicInteger side = new AtomicInteger();
+      Node node = locate(item, side);
+      boolean found = node != null && side.get() == 0;
+      if (found) {
+         if (multiset && ((CountedNode) node).copies > 1) {
+            if (listener != null)
+               mutated(MutationType.COUNT, node.data, null, -1);
+            ((CountedNode) node).copies--;
+            updatePath(node);
+         } else
+            removeNode(node);
+         if (multiset)
+            occurrences--;
+      }
+      if (AVLTreeMetrics.ENABLED)
+         metrics.removed(System.nanoTime() - start);
+      return found;
+   }
+
+   /**
+    * Makes every node of this tree maintain the summary of the entries of its
+    * subtree, in multiset mode counting each occurrence of an entry. Inserts
+    * and removals then update the summaries along their path to the root,
+    * and rotations update the nodes they move.
+    * 
+    * @param <S>          data type of the summaries
+    * @param augmentation the summary of the entries
+    * @return the aggregate queries over the summaries
+    * @throws IllegalStateException when this tree is not empty
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public <S> Aggregates<S> augment(Augmentation<? super E, S> augmentation) {
+      if (root != null)
+         throw new IllegalStateException("A tree can only be augmented while it is empty.");
+      this.augmentation = (Augmentation) augmentation;
+      identity = augmentation.identity();
+      return new Aggregates<>();
+   }
+
+   /**
+    * Compiles this tree into a read-only tree of the same shape whose nodes
+    * are packed into arrays in van Emde Boas order. The frozen tree does not
+    * change when this tree does; it holds each entry once, without the
+    * occurrence counts of a multiset or the values of a map.
+    * 
+    * @return the frozen tree
+    */
+   public FrozenAVLTree<E> freeze() {
+      ArrayList<Node> order = new ArrayList<>(count);
+      if (root != null)
+         layout(root, height(root) + 1, order);
+      IdentityHashMap<Node, Integer> index = new IdentityHashMap<>(order.size());
+      for (int i = 0; i < order.size(); i++)
+         index.put(order.get(i), i);
+      Object[] entries = new Object[order.size()];
+      int[] children = new int[2 * order.size()];
+      int[] parents = new int[order.size()];
+      for (int i = 0; i < order.size(); i++) {
+         Node node = order.get(i);
+         entries[i] = node.data;
+         children[2 * i] = node.left == null ? -1 : index.get(node.left);
+         children[2 * i + 1] = node.right == null ? -1 : index.get(node.right);
+         parents[i] = node.parent == null ? -1 : index.get(node.parent);
+      }
+      return new FrozenAVLTree<E>(entries, children, parents, height(), entryOrder);
+   }
+
+   /**
+    * Reports the mutations of this tree to the specified listener in batches
+    * of up to the specified size: the inserts, removals and replacements of
+    * entries, the occurrences added and removed in multiset mode, and the
+    * rotations. The mutations pending for the previous listener are
+    * delivered to it first.
+    * 
+    * @param listener  the listener, or null to stop reporting mutations
+    * @param batchSize the number of mutations delivered at once
+    */
+   public void setMutationListener(MutationListener<? super E> listener, int batchSize) {
+      flushMutations();
+      if (listener != null && batchSize < 1)
+         throw new IllegalArgumentException("The size of a batch of mutations must be positive.");
+      this.listener = listener;
+      mutations = listener == null ? null : new MutationBatch<>(batchSize);
+   }
+
+   /**
+    * Delivers the pending mutations of this tree to its listener, if any
+    */
+   public void flushMutations() {
+      if (listener == null || mutations.size() == 0)
+         return;
+      try {
+         listener.mutated(mutations);
+      } finally {
+         mutations.clear();
+      }
+   }
+
+   /**
+    * Determines whether lookups leave this tree as they found it, so that
+    * several threads may look up entries at once. Lookups write to the tree
+    * when it keeps metrics, caches lookups or searches from the finger.
+    * 
+    * @return true when lookups do not write to this tree
+    */
+   boolean hasReadOnlyLookups() {
+      return !AVLTreeMetrics.ENABLED && cache == null && !fingerSearch;
+   }
+
+   /**
+    * Gives the lookup cache of this tree
+    * 
+    * @return the lookup cache, or null when lookups are not cached
+    */
+   public LookupCache<E> lookupCache() {
+      return cache;
+   }
+
+   /* ===> BEGIN: Augmented public methods <=== */
+
+   @Override
+   public void preorderTraverse(Function func) {
+      preorderTraverse(root, func);
+   }
+
+   @Override
+   public void postorderTraverse(Function func) {
+      postorderTraverse(root, func);
+   }
+
+   @Override
+   public ArrayList<E> getChildren(E entry) throws AVLTreeException {
+      ArrayList<E> children = new ArrayList<>();
+      Node parent = cachedNode(entry);
+
+      if (parent != null) {
+         if (parent.left != null) {
+            children.add(parent.left.data);
+         }
+
+         if (parent.right != null) {
+            children.add(parent.right.data);
+         }
+      } else {
+         throw new EntryNotFoundException("AVLTree Exception: Entry not found in this tree.");
+      }
+
+      return children;
+   }
+
+   public E getParent(E entry) throws AVLTreeException {
+      Node current = cachedNode(entry);
+
+      if (current == null) {
+         throw new EntryNotFoundException("AVLTree Exception: Entry not found in this tree.");
+      }
+
+      return (current.parent != null) ? current.parent.data : null;
+   }
+
+   public int ancestors(E entry) throws AVLTreeException {
+      Node current = cachedNode(entry);
+      int ancestorCount = 0;
+
+      if (current == null) {
+         throw new EntryNotFoundException("AVLTree Exception: Entry not found in this tree.");
+      }
+
+      while (current.parent != null) {
+         current = current.parent;
+         ancestorCount++;
+      }
+
+      return ancestorCount;
+   }
+
+   /**
+    * Gives the least entry of this tree greater than the specified entry
+    * 
+    * @param entry an entry, in this tree or not
+    * @return the in-order successor of the entry, or null when no entry of
+    *         this tree is greater
+    */
+   public E successor(E entry) {
+      Node node = cachedNode(entry);
+      if (node != null) {
+         node = next(node);
+      } else {
+         Node current = root;
+         while (current != null) {
+            if (cmp.compare(current.data, entry) > 0) {
+               node = current;
+               current = current.left;
+            } else
+               current = current.right;
+         }
+      }
+      return node == null ? null : node.data;
+   }
+
+   /**
+    * Gives the greatest entry of this tree less than the specified entry
+    * 
+    * @param entry an entry, in this tree or not
+    * @return the in-order predecessor of the entry, or null when no entry of
+    *         this tree is less
+    */
+   public E predecessor(E entry) {
+      Node node = cachedNode(entry);
+      if (node != null) {
+         node = previous(node);
+      } else {
+         Node current = root;
+         while (current != null) {
+            if (cmp.compare(current.data, entry) < 0) {
+               node = current;
+               current = current.right;
+            } else
+               current = current.left;
+         }
+      }
+      return node == null ? null : node.data;
+   }
+
+   /**
+    * Gives a cursor on the node containing the specified entry
+    * 
+    * @param entry an entry in this tree
+    * @return a cursor on the entry
+    * @throws AVLTreeException when the specified entry is not in this tree
+    */
+   public Cursor cursor(E entry) throws AVLTreeException {
+      Node node = cachedNode(entry);
+      if (node == null)
+         throw new EntryNotFoundException("AVLTree Exception: Entry not found in this tree.");
+      return new Cursor(node);
+   }
+
+   /**
+    * Gives a cursor on the least entry of this tree
+    * 
+    * @return a cursor on the least entry, invalid when this tree is empty
+    */
+   public Cursor first() {
+      return new Cursor(root == null ? null : first(root));
+   }
+
+   /**
+    * Gives a cursor on the greatest entry of this tree
+    * 
+    * @return a cursor on the greatest entry, invalid when this tree is empty
+    */
+   public Cursor last() {
+      return new Cursor(root == null ? null : last(root));
+   }
+
+   public int descendants(E entry) throws AVLTreeException {
+      return countDesc(root.left) + countDesc(root.right);
+   }
+
+   @Override
+   public Optional<Genealogy<E>> genealogy(E entry) {
+      Node node = lookup(entry);
+      if (node == null)
+         return Optional.empty();
+      int ancestorCount = 0;
+      for (Node current = node.parent; current != null; current = current.parent)
+         ancestorCount++;
+      return Optional.of(new Genealogy<>(node.parent == null ? null : node.parent.data,
+            node.left == null ? null : node.left.data, node.right == null ? null : node.right.data, ancestorCount,
+            countDesc(root.left) + countDesc(root.right)));
+   }
+
+   @Override
+   public int height() {
+      return height(root);
+   }
+
+   @Override
+   public int diameter() {
+      if (root == null) {
+         return 0;
+      } else
+         return height(root.left) + height(root.right) + 3;
+   }
+
+   @Override
+   public boolean isFibonacci() {
+      if (root == null){
+         return true;
+     }
+     if (fibonacci(height(root) + 3) == size() + 1) {
+         Queue<Node> queue = new LinkedList<>();
+         queue.add(root);
+         while (!queue.isEmpty()) {
+             if (queue.peek().bal == BalancedFactor.RH) {
+                 return false;
+             }
+             if (queue.peek().left != null) {
+                 queue.add(queue.peek().left);
+             }
+             if (queue.peek().right != null) {
+                 queue.add(queue.peek().right);
+             }
+             queue.remove();
+         }
+     } else {
+         return false;
+     }
+     return true;
+   }
+
+   @Override
+   public boolean isComplete() {
+      return isComplete(root, 0);
+   }
+
+   /* ===> END: Augmented public methods <=== */
+
+   /**
+    * The aggregate queries over the summaries of an augmented tree. Each
+    * query combines the summaries of O(log n) subtrees and entries.
+    * 
+    * @param <S> data type of the summaries
+    */
+   public final class Aggregates<S> {
+      /**
+       * Constructs the queries over the summaries of this tree
+       */
+      private Aggregates() {
+      }
+
+      /**
+       * Gives the summary of every entry of this tree
+       * 
+       * @return the summary of this tree
+       */
+      @SuppressWarnings("unchecked")
+      public S total() {
+         return (S) summary(root);
+      }
+
+      /**
+       * Gives the summary of the entries of this tree from one entry to
+       * another, both included; neither needs to be in this tree
+       * 
+       * @param from the least entry of the range
+       * @param to   the greatest entry of the range
+       * @return the summary of the entries in the range, in order
+       */
+      @SuppressWarnings("unchecked")
+      public S range(E from, E to) {
+         Node node = root;
+         while (node != null) {
+            if (cmp.compare(node.data, from) < 0)
+               node = node.right;
+            else if (cmp.compare(node.data, to) > 0)
+               node = node.left;
+            else
+               return (S) augmentation.combine(augmentation.combine(atLeast(node.left, from), own(node)),
+                     atMost(node.right, to));
+         }
+         return (S) identity;
+      }
+   }
+
+   /**
+    * A handle on a node of this tree that moves in order and along the
+    * links of the tree without searching. Each move costs O(1) amortized
+    * over a scan. A cursor stays on its node through rotations; once its node
+    * is removed from the tree, or it moves past either end, it is invalid.
+    * The entry of a node can change when a removal moves its in-order
+    * predecessor into it.
+    */
+   public final class Cursor {
+      /**
+       * the node of this cursor, or null
+       */
+      private Node node;
+
+      /**
+       * Constructs a cursor on a node
+       * 
+       * @param node a node of this tree, or null
+       */
+      private Cursor(Node node) {
+         this.node = node;
+      }
+
+      /**
+       * Determines whether this cursor is on a node of this tree
+       * 
+       * @return true when the cursor is valid
+       */
+      public boolean isValid() {
+         return node != null && node.bal != null;
+      }
+
+      /**
+       * Gives the entry of the node of this cursor
+       * 
+       * @return the entry
+       * @throws NoSuchElementException when the cursor is invalid
+       */
+      public E entry() {
+         if (!isValid())
+            throw new NoSuchElementException("AVLTree Exception: cursor is not on an entry of this tree.");
+         return node.data;
+      }
+
+      /**
+       * Moves this cursor to the in-order successor of its node
+       * 
+       * @return true when the cursor moved, false when it moved past the
+       *         greatest entry and became invalid
+       */
+      public boolean next() {
+         entry();
+         node = AVLTree.this.next(node);
+         return node != null;
+      }
+
+      /**
+       * Moves this cursor to the in-order predecessor of its node
+       * 
+       * @return true when the cursor moved, false when it moved past the
+       *         least entry and became invalid
+       */
+      public boolean previous() {
+         entry();
+         node = AVLTree.this.previous(node);
+         return node != null;
+      }
+
+      /**
+       * Moves this cursor to the parent of its node
+       * 
+       * @return true when the cursor moved, false at the root
+       */
+      public boolean parent() {
+         entry();
+         if (node.parent == null)
+            return false;
+         node = node.parent;
+         return true;
+      }
+
+      /**
+       * Moves this cursor to the left child of its node
+       * 
+       * @return true when the cursor moved, false when there is no left child
+       */
+      public boolean left() {
+         entry();
+         if (node.left == null)
+            return false;
+         node = node.left;
+         return true;
+      }
+
+      /**
+       * Moves this cursor to the right child of its node
+       * 
+       * @return true when the cursor moved, false when there is no right child
+       */
+      public boolean right() {
+         entry();
+         if (node.right == null)
+            return false;
+         node = node.right;
+         return true;
+      }
+   }
+
+   /**
+    * A enumerated type for the balanced factor of a node
+    */
+   private enum BalancedFactor {
+      LH(-1), EH(0), RH(1);
+
+      BalancedFactor(int aValue) {
+         value = aValue;
+      }
+
+      private int value;
+   }
+
+   /* private methods definitions */
+
+   /**
+    * An auxiliary method that finds the node containing the specified item
+    * 
+    * @param item item with a specified search key
+    * @return the node containing the item, or null if the item is not in this tree
+    */
+   private Node findNode(E item) {
+      if (prefixCmp != null)
+         return findNodeByPrefix(item);
+      Node tmp = root;
+      while (tmp != null) {
+         int d = cmp.compare(tmp.data, item);
+         if (d == 0)
+            return tmp;
+         else if (d > 0)
+            tmp = tmp.left;
+         else
+            tmp = tmp.right;
+      }
+      return null;
+   }
+
+   /**
+    * An auxiliary method that gives the node with the least entry of a subtree
+    * 
+    * @param node the root of a subtree
+    * @return the leftmost node of the subtree
+    */
+   private Node first(Node node) {
+      while (node.left != null)
+         node = node.left;
+      return node;
+   }
+
+   /**
+    * An auxiliary method that gives the node with the greatest entry of a subtree
+    * 
+    * @param node the root of a subtree
+    * @return the rightmost node of the subtree
+    */
+   private Node last(Node node) {
+      while (node.right != null)
+         node = node.right;
+      return node;
+   }
+
+   /**
+    * An auxiliary method that gives the in-order successor of a node
+    * 
+    * @param node a node of this tree
+    * @return the successor, or null for the node of the greatest entry
+    */
+   Node next(Node node) {
+      if (node.right != null)
+         return first(node.right);
+      while (node.parent != null && node.parent.right == node)
+         node = node.parent;
+      return node.parent;
+   }
+
+   /**
+    * An auxiliary method that gives the in-order predecessor of a node
+    * 
+    * @param node a node of this tree
+    * @return the predecessor, or null for the node of the least entry
+    */
+   private Node previous(Node node) {
+      if (node.left != null)
+         return last(node.left);
+      while (node.parent != null && node.parent.left == node)
+         node = node.parent;
+      return node.parent;
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item,
+    * from the finger when finger search is enabled
+    * 
+    * @param item item with a specified search key
+    * @return the node containing the item, or null if the item is not in this tree
+    */
+   private Node search(E item) {
+      if (!fingerSearch || root == null)
+         return findNode(item);
+      AtomicInteger side = new AtomicInteger();
+      Node node = fingerLocate(item, side);
+      return side.get() == 0 ? node : null;
+   }
+
+   /**
+    * An auxiliary method that searches for the specified item from the
+    * finger, or from the root when there is no finger, and moves the finger
+    * to the node where the search ends. The tree must not be empty.
+    * 
+    * Climbing from the finger toward a greater item, only the ancestors the
+    * climb reaches from their left subtree can bound the item, and the climb
+    * stops at the first of them that is greater than the item: every entry
+    * between the finger and that ancestor lies in the subtree of the last
+    * node passed that is less than the item, and the search descends from
+    * there. Climbing toward a smaller item is symmetric.
+    * 
+    * @param item item with a specified search key
+    * @param side set to the comparison of the item with the returned node
+    * @return the node containing the item, or the node whose empty child is
+    *         the place of the item
+    */
+   private Node fingerLocate(E item, AtomicInteger side) {
+      Node start = finger != null && finger.bal != null ? finger : root;
+      int d = cmp.compare(item, start.data);
+      if (d != 0 && start == finger) {
+         Node x = start;
+         while (x.parent != null) {
+            Node p = x.parent;
+            if ((d > 0) == (p.left == x)) {
+               int e = cmp.compare(item, p.data);
+               if (e == 0) {
+                  start = p;
+                  d = 0;
+                  break;
+               }
+               if ((e > 0) != (d > 0))
+                  break;
+               start = p;
+            }
+            x = p;
+         }
+      }
+      Node node = start;
+      while (d != 0) {
+         Node next = d < 0 ? node.left : node.right;
+         if (next == null)
+            break;
+         node = next;
+         d = cmp.compare(item, node.data);
+      }
+      side.set(d);
+      finger = node;
+      return node;
+   }
+
+   /**
+    * An auxiliary method that inserts a new node at the place found by a
+    * finger search, or updates the node if the data is already in the tree,
+    * and then rebalances the tree bottom-up along the parent links
+    * 
+    * @param newNode the new node to be inserted
+    */
+   private void insertByFinger(Node newNode) {
+      if (root == null) {
+         attach(null, 0, newNode);
+         return;
+      }
+      AtomicInteger side = new AtomicInteger();
+      Node node = fingerLocate(newNode.data, side);
+      if (side.get() == 0) {
+         if (listener != null)
+            mutated(MutationType.REPLACE, newNode.data, node.data, 0);
+         node.data = newNode.data;
+         return;
+      }
+      attach(node, side.get(), newNode);
+   }
+
+   /**
+    * An auxiliary method that records a mutation for the listener, delivering
+    * the batch once it is full
+    * 
+    * @param type  the kind of the mutation
+    * @param entry the entry of the mutation
+    * @param other the other entry of the mutation, or null
+    * @param delta the change in the occurrences of the entry
+    */
+   private void mutated(MutationType type, E entry, E other, int delta) {
+      mutations.add(type, entry, other, delta);
+      if (mutations.isFull())
+         flushMutations();
+   }
+
+   /**
+    * An auxiliary method that creates a node for a new entry
+    * 
+    * @return an empty node
+    */
+   Node createNode() {
+      if (multiset)
+         return new CountedNode();
+      return augmentation != null ? new AugmentedNode() : new Node();
+   }
+
+   /**
+    * An auxiliary method that determines whether the nodes of this tree
+    * maintain summaries
+    * 
+    * @return true if this tree is augmented; otherwise, false
+    */
+   boolean isAugmented() {
+      return augmentation != null;
+   }
+
+   /**
+    * An auxiliary method that gives the value mapped to the entry of a node
+    * 
+    * @param node a node
+    * @return the value of the node, or null when this tree is not a map
+    */
+   Object value(Node node) {
+      return null;
+   }
+
+   /**
+    * An auxiliary method that adds the weighted sizes of the entry, value and
+    * summary of a node to a footprint
+    * 
+    * @param node   a node
+    * @param weight the number of nodes the node stands for
+    * @param bytes  the bytes of the entries, values and summaries so far
+    */
+   private void measure(Node node, double weight, double[] bytes) {
+      bytes[0] += weight * Footprint.sizeOf(node.data);
+      bytes[1] += weight * Footprint.sizeOf(value(node));
+      if (node instanceof AugmentedNode && augmentation != null)
+         bytes[2] += weight * Footprint.sizeOf(((AugmentedNode) node).summary);
+   }
+
+   /**
+    * An auxiliary method that adds the sizes of the entries, values and
+    * summaries of a subtree to a footprint
+    * 
+    * @param node  the root of a subtree, or null
+    * @param bytes the bytes of the entries, values and summaries so far
+    */
+   private void measureAll(Node node, double[] bytes) {
+      if (node == null)
+         return;
+      measureAll(node.left, bytes);
+      measure(node, 1, bytes);
+      measureAll(node.right, bytes);
+   }
+
+   /**
+    * An auxiliary method that gives the summary of a subtree
+    * 
+    * @param node the root of a subtree, or null
+    * @return the summary of the subtree
+    */
+   private Object summary(Node node) {
+      return node == null ? identity : ((AugmentedNode) node).summary;
+   }
+
+   /**
+    * An auxiliary method that gives the summary of the entry of a node,
+    * repeated for each of its occurrences in multiset mode
+    * 
+    * @param node a node
+    * @return the summary of the entry of the node
+    */
+   private Object own(Node node) {
+      Object entry = augmentation.summarize(node.data);
+      if (!multiset)
+         return entry;
+      Object total = identity;
+      for (int n = ((CountedNode) node).copies; n > 0; n >>= 1) {
+         if ((n & 1) != 0)
+            total = augmentation.combine(total, entry);
+         entry = augmentation.combine(entry, entry);
+      }
+      return total;
+   }
+
+   /**
+    * An auxiliary method that recomputes the summary of a node from its
+    * entry and the summaries of its children
+    * 
+    * @param node a node
+    */
+   private void update(Node node) {
+      ((AugmentedNode) node).summary = augmentation.combine(
+            augmentation.combine(summary(node.left), own(node)), summary(node.right));
+   }
+
+   /**
+    * An auxiliary method that recomputes the summaries of a node and its
+    * ancestors when the tree is augmented
+    * 
+    * @param node a node, or null
+    */
+   private void updatePath(Node node) {
+      if (augmentation == null)
+         return;
+      for (; node != null; node = node.parent)
+         update(node);
+   }
+
+   /**
+    * An auxiliary method that gives the summary of the entries of a subtree
+    * that are at least the specified entry
+    * 
+    * @param node the root of a subtree, or null
+    * @param from the least entry summarized
+    * @return the summary of the entries from the specified entry on
+    */
+   private Object atLeast(Node node, E from) {
+      Object total = identity;
+      while (node != null) {
+         if (cmp.compare(node.data, from) < 0) {
+            node = node.right;
+         } else {
+            total = augmentation.combine(augmentation.combine(own(node), summary(node.right)), total);
+            node = node.left;
+         }
+      }
+      return total;
+   }
+
+   /**
+    * An auxiliary method that gives the summary of the entries of a subtree
+    * that are at most the specified entry
+    * 
+    * @param node the root of a subtree, or null
+    * @param to   the greatest entry summarized
+    * @return the summary of the entries up to the specified entry
+    */
+   private Object atMost(Node node, E to) {
+      Object total = identity;
+      while (node != null) {
+         if (cmp.compare(node.data, to) > 0) {
+            node = node.left;
+         } else {
+            total = augmentation.combine(total, augmentation.combine(summary(node.left), own(node)));
+            node = node.right;
+         }
+      }
+      return total;
+   }
+
+   /**
+    * An auxiliary method that lists the nodes of a subtree in van Emde Boas
+    * order: the top half of its levels, then each subtree below them
+    * 
+    * @param node   the root of a subtree
+    * @param levels the number of levels of the subtree to list
+    * @param order  the list the nodes are added to
+    */
+   private void layout(Node node, int levels, ArrayList<Node> order) {
+      if (levels == 1) {
+         order.add(node);
+         return;
+      }
+      int top = levels / 2;
+      layout(node, top, order);
+      ArrayList<Node> below = new ArrayList<>();
+      level(node, top, below);
+      for (Node subtree : below)
+         layout(subtree, levels - top, order);
+   }
+
+   /**
+    * An auxiliary method that lists the nodes of a subtree at a depth, from
+    * left to right
+    * 
+    * @param node  the root of a subtree, or null
+    * @param depth the depth of the listed nodes below the root
+    * @param nodes the list the nodes are added to
+    */
+   private void level(Node node, int depth, ArrayList<Node> nodes) {
+      if (node == null)
+         return;
+      if (depth == 0) {
+         nodes.add(node);
+      } else {
+         level(node.left, depth - 1, nodes);
+         level(node.right, depth - 1, nodes);
+      }
+   }
+
+   /**
+    * An auxiliary method that creates a balanced leaf for a new entry
+    * 
+    * @param data the entry
+    * @return a node containing the entry
+    */
+   Node newNode(E data) {
+      Node node = createNode();
+      node.bal = BalancedFactor.EH;
+      node.data = data;
+      if (augmentation != null)
+         update(node);
+      return node;
+   }
+
+   /**
+    * An auxiliary method that gives the node with the least entry of this tree
+    * 
+    * @return the leftmost node, or null when this tree is empty
+    */
+   Node firstNode() {
+      return root == null ? null : first(root);
+   }
+
+   /**
+    * An auxiliary method that moves the entry of a node into another node
+    * when a removal exchanges them
+    * 
+    * @param from the node whose entry is moved
+    * @param to   the node receiving the entry
+    */
+   void exchange(Node from, Node to) {
+      to.data = from.data;
+      if (multiset)
+         ((CountedNode) to).copies = ((CountedNode) from).copies;
+   }
+
+   /**
+    * An auxiliary method that unlinks the specified node from this tree and
+    * then rebalances the tree bottom-up along the parent links, as the
+    * recursive remove does on its way back up. A node with two children
+    * takes the entry of its in-order predecessor, which is unlinked instead.
+    * 
+    * @param node a node of this tree
+    */
+   private void removeNode(Node node) {
+      if (listener != null)
+         mutated(MutationType.REMOVE, node.data, null, multiset ? -((CountedNode) node).copies : -1);
+      if (node.left != null && node.right != null) {
+         Node exchPtr = last(node.left);
+         exchange(exchPtr, node);
+         node = exchPtr;
+      }
+      Node child = node.left != null ? node.left : node.right;
+      Node parent = node.parent;
+      boolean fromLeft = parent != null && parent.left == node;
+      if (child != null)
+         child.parent = parent;
+      if (parent == null)
+         root = child;
+      else if (fromLeft)
+         parent.left = child;
+      else
+         parent.right = child;
+      node.bal = null;
+      count--;
+      Node unlinkedFrom = parent;
+      AtomicBoolean shorter = new AtomicBoolean(true);
+      while (parent != null && shorter.get()) {
+         Node grandparent = parent.parent;
+         boolean parentFromLeft = grandparent != null && grandparent.left == parent;
+         Node subtree = fromLeft ? deleteRightBalance(parent, shorter) : deleteLeftBalance(parent, shorter);
+         if (subtree != parent) {
+            if (grandparent == null)
+               root = subtree;
+            else if (parentFromLeft)
+               grandparent.left = subtree;
+            else
+               grandparent.right = subtree;
+         }
+         fromLeft = parentFromLeft;
+         parent = grandparent;
+      }
+      updatePath(unlinkedFrom);
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item,
+    * or the node whose empty child is the place of the item, in a single
+    * descent through the lookup cache, from the finger or from the root
+    * 
+    * @param item item with a specified search key
+    * @param side set to the comparison of the item with the returned node
+    * @return the node where the search ended, or null when this tree is empty
+    */
+   Node locate(E item, AtomicInteger side) {
+      if (root == null)
+         return null;
+      int slot = 0;
+      if (cache != null) {
+         slot = cache.slot(item);
+         Node node = cacheHit(item, slot);
+         if (node != null) {
+            side.set(0);
+            return node;
+         }
+      }
+      Node node = fingerSearch ? fingerLocate(item, side) : rootLocate(item, side);
+      if (cache != null && side.get() == 0)
+         cache.put(slot, node);
+      return node;
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item,
+    * or the node whose empty child is the place of the item, by descending
+    * from the root. The tree must not be empty.
+    * 
+    * @param item item with a specified search key
+    * @param side set to the comparison of the item with the returned node
+    * @return the node where the search ended
+    */
+   private Node rootLocate(E item, AtomicInteger side) {
+      Node node = root;
+      int lo = 0;
+      int hi = 0;
+      int d;
+      while (true) {
+         d = compare(item, node.data, Math.min(lo, hi));
+         if (d == 0)
+            break;
+         Node next;
+         if (d < 0) {
+            hi = prefix(d);
+            next = node.left;
+         } else {
+            lo = prefix(d);
+            next = node.right;
+         }
+         if (next == null)
+            break;
+         node = next;
+      }
+      side.set(d);
+      return node;
+   }
+
+   /**
+    * An auxiliary method that links a new node as a child of the node where
+    * a search for its entry ended, and then rebalances the tree bottom-up
+    * along the parent links
+    * 
+    * @param node    the node returned by the search, or null when this tree
+    *                is empty
+    * @param side    the comparison of the entry with that node, which
+    *                links the new node to its left when negative
+    * @param newNode the new node, with its entry and an even balance
+    */
+   void attach(Node node, int side, Node newNode) {
+      if (listener != null)
+         mutated(MutationType.INSERT, newNode.data, null, 1);
+      count++;
+      finger = newNode;
+      if (node == null) {
+         newNode.parent = null;
+         root = newNode;
+         return;
+      }
+      newNode.parent = node;
+      if (side < 0)
+         node.left = newNode;
+      else
+         node.right = newNode;
+      AtomicBoolean taller = new AtomicBoolean(true);
+      Node child = newNode;
+      node = child.parent;
+      while (node != null && taller.get()) {
+         Node parent = node.parent;
+         Node subtree = node;
+         if (node.left == child)
+            switch (node.bal) {
+               case LH: // was left-high -- rotate
+                  subtree = leftBalance(node, taller);
+                  break;
+               case EH: // was balanced -- now LH
+                  node.bal = BalancedFactor.LH;
+                  break;
+               case RH: // was right-high -- now EH
+                  node.bal = BalancedFactor.EH;
+                  taller.set(false);
+                  break;
+            }
+         else
+            switch (node.bal) {
+               case LH: // was left-high -- now EH
+                  node.bal = BalancedFactor.EH;
+                  taller.set(false);
+                  break;
+               case EH: // was balance -- now RH
+                  node.bal = BalancedFactor.RH;
+                  break;
+               case RH: // was right high -- rotate
+                  subtree = rightBalance(node, taller);
+                  break;
+            }
+         if (subtree != node) {
+            if (parent == null)
+               root = subtree;
+            else if (parent.left == node)
+               parent.left = subtree;
+            else
+               parent.right = subtree;
+         }
+         child = subtree;
+         node = parent;
+      }
+      updatePath(newNode);
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item
+    * with the prefix comparator, starting each comparison after the prefix
+    * the item shares with the nearest ancestors it is greater and less than
+    * 
+    * @param item item with a specified search key
+    * @return the node containing the item, or null if the item is not in this tree
+    */
+   private Node findNodeByPrefix(E item) {
+      Node tmp = root;
+      int lo = 0;
+      int hi = 0;
+      while (tmp != null) {
+         int d = prefixCmp.compareFrom(item, tmp.data, Math.min(lo, hi));
+         if (d == 0)
+            return tmp;
+         else if (d < 0) {
+            hi = PrefixComparator.prefix(d);
+            tmp = tmp.left;
+         } else {
+            lo = PrefixComparator.prefix(d);
+            tmp = tmp.right;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * An auxiliary method that compares an item with the data of a node
+    * 
+    * @param item the item
+    * @param data the data of the node
+    * @param from the length of a prefix the item and the data are known to
+    *             share, used only with the prefix comparator
+    * @return the comparison of the item with the data, as encoded by
+    *         PrefixComparator.compareFrom with the prefix comparator
+    */
+   private int compare(E item, E data, int from) {
+      return prefixCmp == null ? cmp.compare(item, data) : prefixCmp.compareFrom(item, data, from);
+   }
+
+   /**
+    * An auxiliary method that gives the prefix the compared items share
+    * 
+    * @param d a nonzero comparison given by compare
+    * @return the length of the shared prefix, or 0 without the prefix comparator
+    */
+   private int prefix(int d) {
+      return prefixCmp == null ? 0 : PrefixComparator.prefix(d);
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item,
+    * through the lookup cache when lookups are cached
+    * 
+    * @param item item with a specified search key
+    * @return the node containing the item, or null if the item is not in this tree
+    */
+   Node cachedNode(E item) {
+      if (cache == null)
+         return search(item);
+      int slot = cache.slot(item);
+      Node node = cacheHit(item, slot);
+      if (node != null)
+         return node;
+      node = search(item);
+      if (node != null)
+         cache.put(slot, node);
+      return node;
+   }
+
+   /**
+    * An auxiliary method that gives the node cached in the slot of the
+    * specified item when it still contains the item, and counts the hit or
+    * the miss
+    * 
+    * @param item item with a specified search key
+    * @param slot the slot of the item in the lookup cache
+    * @return the node containing the item, or null on a miss
+    */
+   @SuppressWarnings("unchecked")
+   private Node cacheHit(E item, int slot) {
+      Node node = (Node) cache.get(slot);
+      if (node != null && node.bal != null && cmp.compare(node.data, item) == 0) {
+         cache.hit();
+         return node;
+      }
+      cache.miss();
+      return null;
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item on
+    * behalf of a public lookup, recording the latency of the lookup
+    * 
+    * @param item item with a specified search key
+    * @return the node containing the item, or null if the item is not in this tree
+    */
+   private Node lookup(E item) {
+      if (!AVLTreeMetrics.ENABLED)
+         return cachedNode(item);
+      long start = System.nanoTime();
+      Node node = cachedNode(item);
+      metrics.lookedUp(System.nanoTime() - start);
+      return node;
+   }
+
+   /**
+    * An auxiliary method that inserts a new node in the tree or
+    * updates a node if the data is already in the tree.
+    * 
+    * @param curRoot a root of a subtree
+    * @param newNode the new node to be inserted
+    * @param taller  indicates whether the subtree becomes
+    *                taller after the insertion
+    * @param lo      the prefix the new data shares with the nearest ancestor
+    *                it is greater than
+    * @param hi      the prefix the new data shares with the nearest ancestor
+    *                it is less than
+    * @return a reference to the new node
+    */
+   private Node insert(Node curRoot, Node newNode, AtomicBoolean taller, int lo, int hi) {
+      if (curRoot == null) {
+         curRoot = newNode;
+         taller.set(true);
+         return curRoot;
+      }
+      int d = compare(newNode.data, curRoot.data, Math.min(lo, hi));
+      if (d < 0) {
+         curRoot.left = insert(curRoot.left, newNode, taller, lo, prefix(d));
+         curRoot.left.parent = curRoot;
+         if (taller.get())
+            switch (curRoot.bal) {
+               case LH: // was left-high -- rotate
+                  curRoot = leftBalance(curRoot, taller);
+                  break;
+               case EH: // was balanced -- now LH
+                  curRoot.bal = BalancedFactor.LH;
+                  break;
+               case RH: // was right-high -- now EH
+                  curRoot.bal = BalancedFactor.EH;
+                  taller.set(false);
+                  break;
+            }
+         return curRoot;
+      } else if (d > 0) {
+         curRoot.right = insert(curRoot.right, newNode, taller, prefix(d), hi);
+         curRoot.right.parent = curRoot;
+         if (taller.get())
+            switch (curRoot.bal) {
+               case LH: // was left-high -- now EH
+                  curRoot.bal = BalancedFactor.EH;
+                  taller.set(false);
+                  break;
+               case EH: // was balance -- now RH
+                  curRoot.bal = BalancedFactor.RH;
+                  break;
+               case RH: // was right high -- rotate
+                  curRoot = rightBalance(curRoot, taller);
+                  break;
+            }
+         return curRoot;
+      } else {
+         curRoot.data = newNode.data;
+         taller.set(false);
+         return curRoot;
+      }
+   }
+
+   /**
+    * An auxiliary method that left-balances the specified node
+    * 
+    * @param curRoot the node to be left-balanced
+    * @param taller  indicates whether the tree becomes taller
+    * @return the root of the subtree after left-balancing
+    */
+   private Node leftBalance(Node curRoot, AtomicBoolean taller) {
+      Node rightTree;
+      Node leftTree;
+      leftTree = curRoot.left;
+      switch (leftTree.bal) {
+         case LH: // left-high -- rotate right
+            curRoot.bal = BalancedFactor.EH;
+            leftTree.bal = BalancedFactor.EH;
+            // Rotate right
+            curRoot = rotateRight(curRoot);
+            if (AVLTreeMetrics.ENABLED)
+               metrics.rotated(false);
+            taller.set(false);
+            break;
+         case EH: // This is an error
+            System.out.println("AVL Tree Error: error in balance tree in call to leftBalance()");
+            System.exit(1);
+            break;
+         case RH: // right-high - requires double rotation: first left, then right
+            rightTree = leftTree.right;
+            switch (rightTree.bal) {
+               case LH:
+                  curRoot.bal = BalancedFactor.RH;
+                  leftTree.bal = BalancedFactor.EH;
+                  break;
+               case EH:
+                  curRoot.bal = BalancedFactor.EH;
+                  leftTree.bal = BalancedFactor.EH; /* LH */
+                  break;
+               case RH:
+                  curRoot.bal = BalancedFactor.EH;
+                  leftTree.bal = BalancedFactor.LH;
+                  break;
+            }
+            rightTree.bal = BalancedFactor.EH;
+            // rotate left
+            curRoot.left = rotateLeft(leftTree);
+            // rotate right
+            curRoot = rotateRight(curRoot);
+            if (AVLTreeMetrics.ENABLED)
+               metrics.rotated(true);
+            taller.set(false);
+      }
+      return curRoot;
+   }
+
+   /**
+    * An auxiliary method that right-balances the specified node
+    * 
+    * @param curRoot the node to be right-balanced
+    * @param taller  indicates whether the tree becomes taller
+    * @return the root of the subtree after right-balancing
+    */
+   private Node rightBalance(Node curRoot, AtomicBoolean taller) {
+      Node rightTree;
+      Node leftTree;
+      rightTree = curRoot.right;
+      switch (rightTree.bal) {
+         case RH: // right-high -- rotate left
+            curRoot.bal = BalancedFactor.EH;
+            rightTree.bal = BalancedFactor.EH;
+            // Rotate left
+            curRoot = rotateLeft(curRoot);
+            if (AVLTreeMetrics.ENABLED)
+               metrics.rotated(false);
+            taller.set(false);
+            break;
+         case EH: // This is an error
+            System.out.println("AVL Tree Error: error in balance tree in call to rightBalance()");
+            break;
+         case LH: // left-high - requires double rotation: first right, then left
+            leftTree = rightTree.left;
+            switch (leftTree.bal) {
+               case RH:
+                  curRoot.bal = BalancedFactor.LH;
+                  rightTree.bal = BalancedFactor.EH;
+                  break;
+               case EH:
+                  curRoot.bal = BalancedFactor.EH;
+                  rightTree.bal = BalancedFactor.EH; /* RH */
+                  break;
+               case LH:
+                  curRoot.bal = BalancedFactor.EH;
+                  rightTree.bal = BalancedFactor.RH;
+                  break;
+            }
+            leftTree.bal = BalancedFactor.EH;
+            // rotate right
+            curRoot.right = rotateRight(rightTree);
+            // rotate left
+            curRoot = rotateLeft(curRoot);
+            if (AVLTreeMetrics.ENABLED)
+               metrics.rotated(true);
+            taller.set(false);
+      }
+      return curRoot;
+   }
+
+   /**
+    * An auxiliary method that Left-rotates the subtree at this node
+    * 
+    * @param node the node at which the left-rotation occurs.
+    * @return the new node of the subtree after the left-rotation
+    */
+   private Node rotateLeft(Node node) {
+      Node tmp;
+      tmp = node.right;
+      node.right = tmp.left;
+      if (tmp.left != null)
+         tmp.left.parent = node;
+      tmp.left = node;
+      tmp.parent = node.parent;
+      node.parent = tmp;
+      if (listener != null)
+         mutated(MutationType.ROTATE, tmp.data, node.data, 0);
+      if (augmentation != null) {
+         update(node);
+         update(tmp);
+      }
+      return tmp;
+   }
+
+   /**
+    * An auxiliary method that right-rotates the subtree at this node
+    * 
+    * @param node the node at which the right-rotation occurs.
+    * @return the new node of the subtree after the right-rotation
+    */
+   private Node rotateRight(Node node) {
+      Node tmp;
+      tmp = node.left;
+      node.left = tmp.right;
+      if (tmp.right != null)
+         tmp.right.parent = node;
+      tmp.right = node;
+      tmp.parent = node.parent;
+      node.parent = tmp;
+      if (listener != null)
+         mutated(MutationType.ROTATE, tmp.data, node.data, 0);
+      if (augmentation != null) {
+         update(node);
+         update(tmp);
+      }
+      return tmp;
+   }
+
+   /**
+    * An auxiliary method that in-order traverses the subtree at the specified node
+    * 
+    * @param node the root of a subtree
+    * @param func the function to be applied to the data in each node
+    */
+   private void traverse(Node node, Function func) {
+      if (node != null) {
+         traverse(node.left, func);
+         func.apply(node.data);
+         traverse(node.right, func);
+      }
+   }
+
+   /**
+    * An auxiliary method that deletes the specified node from this tree
+    * 
+    * @param node    the node to be deleted
+    * @param key     the item stored in this node
+    * @param shorter indicates whether the subtree becomes shorter
+    * @param success indicates whether the node was successfully deleted
+    * @param lo      the prefix the key shares with the nearest ancestor it is
+    *                greater than
+    * @param hi      the prefix the key shares with the nearest ancestor it is
+    *                less than
+    * @return a reference to the deleted node
+    */
+   private Node remove(Node node, E key, AtomicBoolean shorter, AtomicBoolean success, int lo, int hi) {
+      Node delPtr;
+      Node exchPtr;
+      Node newRoot;
+      if (node == null) {
+         shorter.set(false);
+         success.set(false);
+         return null;
+      }
+      int d = compare(key, node.data, Math.min(lo, hi));
+      if (d < 0) {
+         node.left = remove(node.left, key, shorter, success, lo, prefix(d));
+         if (node.left != null)
+            node.left.parent = node;
+         if (shorter.get())
+            node = deleteRightBalance(node, shorter);
+      } else if (d > 0) {
+         node.right = remove(node.right, key, shorter, success, prefix(d), hi);
+         if (node.right != null)
+            node.right.parent = node;
+         if (shorter.get())
+            node = deleteLeftBalance(node, shorter);
+      } else {
+         delPtr = node;
+         if (node.right == null) {
+            delPtr.bal = null;
+            newRoot = node.left;
+            success.set(true);
+            shorter.set(true);
+            return newRoot;
+         } else if (node.left == null) {
+            delPtr.bal = null;
+            newRoot = node.right;
+            success.set(true);
+            shorter.set(true);
+            return newRoot;
+         } else {
+            exchPtr = node.left;
+            while (exchPtr.right != null)
+               exchPtr = exchPtr.right;
+            exchange(exchPtr, node);
+            node.left = remove(node.left, exchPtr.data, shorter, success, 0, 0);
+            if (node.left != null)
+               node.left.parent = node;
+            if (shorter.get())
+               node = deleteRightBalance(node, shorter);
+         }
+      }
+      return node;
+   }
+
+   /**
+    * An auxiliary method that right-balances this subtree after a deletion
+    * 
+    * @param node    the node to be right-balanced
+    * @param shorter indicates whether the subtree becomes shorter
+    * @return a reference to the root of the subtree after right-balancing.
+    */
+   private Node deleteRightBalance(Node node, AtomicBoolean shorter) {
+      Node rightTree;
+      Node leftTree;
+      switch (node.bal) {
+         case LH: // deleted left -- now balanced
+            node.bal = BalancedFactor.EH;
+            break;
+         case EH: // now right high
+            node.bal = BalancedFactor.RH;
+            shorter.set(false);
+            break;
+         case RH: // right high -- rotate left
+            rightTree = node.right;
+            if (rightTree.bal == BalancedFactor.LH) {
+               leftTree = rightTree.left;
+               switch (leftTree.bal) {
+                  case LH:
+                     rightTree.bal = BalancedFactor.RH;
+                     node.bal = BalancedFactor.EH;
+                     break;
+                  case EH:
+                     node.bal = BalancedFactor.EH;
+                     rightTree.bal = BalancedFactor.EH;
+                     break;
+                  case RH:
+                     node.bal = BalancedFactor.LH;
+                     rightTree.bal = BalancedFactor.EH;
+                     break;
+               }
+               leftTree.bal = BalancedFactor.EH;
+               // rotate right, then left
+               node.right = rotateRight(rightTree);
+               node = rotateLeft(node);
+               if (AVLTreeMetrics.ENABLED)
+                  metrics.rotated(true);
+            } else {
+               switch (rightTree.bal) {
+                  case LH:
+                  case RH:
+                     node.bal = BalancedFactor.EH;
+                     rightTree.bal = BalancedFactor.EH;
+                     break;
+                  case EH:
+                     node.bal = BalancedFactor.RH;
+                     rightTree.bal = BalancedFactor.LH;
+                     shorter.set(false);
+                     break;
+               }
+               node = rotateLeft(node);
+               if (AVLTreeMetrics.ENABLED)
+                  metrics.rotated(false);
+            }
+      }
+      return node;
+   }
+
+   /**
+    * An auxiliary method that left-balances this subtree after a deletion
+    * 
+    * @param node    the node to be left-balanced
+    * @param shorter indicates whether the subtree becomes shorter
+    * @return a reference to the root of the subtree after left-balancing.
+    */
+   private Node deleteLeftBalance(Node node, AtomicBoolean shorter) {
+      Node rightTree;
+      Node leftTree;
+      switch (node.bal) {
+         case RH: // deleted right -- now balanced
+            node.bal = BalancedFactor.EH;
+            break;
+         case EH: // now left high
+            node.bal = BalancedFactor.LH;
+            shorter.set(false);
+            break;
+         case LH: // left high -- rotate right
+            leftTree = node.left;
+            if (leftTree.bal == BalancedFactor.RH) {
+               rightTree = leftTree.right;
+               switch (rightTree.bal) {
+                  case RH:
+                     leftTree.bal = BalancedFactor.LH;
+                     node.bal = BalancedFactor.EH;
+                     break;
+                  case EH:
+                     node.bal = BalancedFactor.EH;
+                     leftTree.bal = BalancedFactor.EH;
+                     break;
+                  case LH:
+                     node.bal = BalancedFactor.RH;
+                     leftTree.bal = BalancedFactor.EH;
+                     break;
+               }
+               rightTree.bal = BalancedFactor.EH;
+               // rotate left, then right
+               node.left = rotateLeft(leftTree);
+               node = rotateRight(node);
+               if (AVLTreeMetrics.ENABLED)
+                  metrics.rotated(true);
+            } else {
+               switch (leftTree.bal) {
+                  case RH:
+                  case LH:
+                     node.bal = BalancedFactor.EH;
+                     leftTree.bal = BalancedFactor.EH;
+                     break;
+                  case EH:
+                     node.bal = BalancedFactor.LH;
+                     leftTree.bal = BalancedFactor.RH;
+                     shorter.set(false);
+                     break;
+               }
+               node = rotateRight(node);
+               if (AVLTreeMetrics.ENABLED)
+                  metrics.rotated(false);
+            }
+      }
+      return node;
+   }
+
+   /* BEGIN: Augmented Private Auxiliary Methods */
+
+   /**
+    * Traverses this subtree preorder and apply this specified
+    * function to the entry in each node
+    * 
+    * @param node the root of the subtree
+    * @param func the function to apply to the entry in each node
+    */
+   private void preorderTraverse(Node node, Function func) {
+      if (node != null) {
+         func.apply(node.data);
+         preorderTraverse(node.left, func);
+         preorderTraverse(node.right, func);
+      }
+   }
+
+   /**
+    * Traverses this subtree postorder and apply this specified
+    * function to the entry in each node
+    * 
+    * @param node the root of the subtree
+    * @param func the function to apply to the entry in each node
+    */
+   private void postorderTraverse(Node node, Function func) {
+      if (node != null) {
+         postorderTraverse(node.left, func);
+         postorderTraverse(node.right, func);
+         func.apply(node.data);
+      }
+   }
+
+   /**
+    * Recursively counts the number of descendants that the specified node has.
+    * 
+    * @param node the root of a subtree
+    * @return the number of descendants of the specified node
+    */
+   private int countDesc(Node node) {
+      if (node == null) {
+         return 0;
+      }
+
+      int leftCount = countDesc(node.left);
+      int rightCount = countDesc(node.right);
+
+      return leftCount + rightCount;
+   }
+
+   /**
+    * Determines the height of the subtree rooted at the specified node
+    * 
+    * @param node a root of the subtree
+    * @return the height of the tree rooted at the specified node
+    */
+   private int height(Node node) {
+      if (node == null) {
+         return -1;
+      }
+      int lHeight = 0;
+      int rHeight = 0;
+      if (node.left != null) {
+         lHeight = height(node.left) + 1;
+      }
+      if (node.right != null) {
+         rHeight = height(node.right) + 1;
+      }
+      if (rHeight >= lHeight) {
+         return rHeight;
+      }
+      if (lHeight >= rHeight) {
+         return lHeight;
+      }
+
+      return -1;
+   }
+
+   /**
+    * An auxiliary function that iteratively computes the
+    * nth Fibonacci number
+    * 
+    * @param n the term of the Fibonacci sequence to compute
+    * @return the nth Fibonacci number or -1 if n < 1
+    */
+   private int fibonacci(int n) {
+      if (n == 0) {
+         return 0;
+     }
+     if (n == 1) {
+         return 1;
+     }
+
+     return fibonacci(n - 1) + fibonacci(n - 2);
+   }
+
+   /**
+    * Determines whether the tree rooted at the specified node is complete
+    *
+    * @param node  the root of a subtree
+    * @param index the level-order index of the specified Node
+    * @return true if the subtree rooted at the specified node is complete;
+    *         otherwise, false
+    */
+   private boolean isComplete(Node node, int index) {
+      if (node == null) {
+         return true;
+      }
+
+      Queue<Node> queue1 = new LinkedList<>();
+      queue1.add(node);
+
+      int eIndex = 0;
+      while (!queue1.isEmpty()) {
+         Node current = queue1.poll();
+
+         if (current != null) {
+            if (index != eIndex) {
+               return false;
+            }
+
+            queue1.add(current.left);
+            queue1.add(current.right);
+
+            eIndex++;
+         } else {
+            while (!queue1.isEmpty() && queue1.peek() == null) {
+               queue1.poll();
+               eIndex++;
+            }
+         }
+      }
+
+      return true;
+   }
+   /* END: Augmented Private Auxiliary Methods */
+}
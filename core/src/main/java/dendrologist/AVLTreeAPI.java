@@ -2,6 +2,7 @@ package dendrologist;
 
 import java.util.function.Function;
 import java.util.ArrayList;
+import java.util.Optional;
 
 /**
  * Reports an exception in an AVL Tree
@@ -96,6 +97,15 @@ public interface AVLTreeAPI<E extends Comparable<E>>
     * @throws AVLTreeException when no such element exists 
     */
    E retrieve(E key) throws AVLTreeException;
+
+   /**
+    * returns the item with the given search key, without throwing when
+    * there is none.
+    * @param key the key of the item to be found
+    * @return the item with the specified key, or empty when no such element
+    * exists
+    */
+   Optional<E> find(E key);
    
    /**
     * This function traverses the tree in in-order
@@ -166,6 +176,16 @@ public interface AVLTreeAPI<E extends Comparable<E>>
 	* </pre	
     */
    public int descendants(E entry) throws AVLTreeException;
+
+   /**
+    * Determines the entries in the parent and child nodes of the node
+    * containing the specified entry and counts its ancestors and
+    * descendants, without throwing when the entry is not in this tree
+    * @param entry an entry
+    * @return the genealogy of the entry, or empty if this entry is not in
+    * this tree
+    */
+   public Optional<Genealogy<E>> genealogy(E entry);
    
    /**
     * Gives the height of this tree.
@@ -0,0 +1,300 @@
+package dendrologist;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Models an AVL tree that maps keys to values. Each node stores its key and
+ * its value, so a value is read or updated in place by a single descent
+ * instead of being wrapped in a key object and reinserted. Every query of
+ * AVLTree, from getParent and ancestors to height and isComplete, applies to
+ * the keys of the map, and lookups use the lookup cache and finger search
+ * when they are enabled.
+ *
+ * As in java.util.Map, a function given to computeIfAbsent, compute or merge
+ * that returns null leaves the key unmapped. These functions must not modify
+ * the map.
+ *
+ * @param <K> data type of the keys of the map
+ * @param <V> data type of the values of the map
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+public class AVLTreeMap<K extends Comparable<K>, V> extends AVLTree<K> {
+   /**
+    * A node of a map stores a value with its key
+    *
+    * @param <V> data type of the value
+    */
+   private interface MapNode<V> {
+      /**
+       * Gives the value mapped to the key of this node
+       *
+       * @return the value
+       */
+      V value();
+
+      /**
+       * Maps the key of this node to the specified value
+       *
+       * @param value the value
+       */
+      void setValue(V value);
+   }
+
+   /**
+    * A node of a map that is not augmented
+    */
+   private class PlainMapNode extends Node implements MapNode<V> {
+      /**
+       * the value mapped to the key of this node
+       */
+      V value;
+
+      @Override
+      public V value() {
+         return value;
+      }
+
+      @Override
+      public void setValue(V value) {
+         this.value = value;
+      }
+   }
+
+   /**
+    * A node of an augmented map, which also stores the summary of its subtree
+    */
+   private class AugmentedMapNode extends AugmentedNode implements MapNode<V> {
+      /**
+       * the value mapped to the key of this node
+       */
+      V value;
+
+      @Override
+      public V value() {
+         return value;
+      }
+
+      @Override
+      public void setValue(V value) {
+         this.value = value;
+      }
+   }
+
+   /**
+    * Constructs an empty map ordered by the natural order of its keys
+    */
+   public AVLTreeMap() {
+      super();
+   }
+
+   /**
+    * Constructs an empty map ordered by the specified comparator
+    *
+    * @param fn - a trichotomous integer value comparator function
+    */
+   public AVLTreeMap(Comparator<? super K> fn) {
+      super(fn);
+   }
+
+   /**
+    * Gives the value mapped to the specified key
+    *
+    * @param key a key
+    * @return the value of the key, or null when the key is not in this map
+    */
+   public V get(K key) {
+      MapNode<V> node = mapNode(cachedNode(key));
+      return node == null ? null : node.value();
+   }
+
+   /**
+    * Gives the value mapped to the specified key, or a default value
+    *
+    * @param key          a key
+    * @param defaultValue the value given when the key is not in this map
+    * @return the value of the key, or the default value
+    */
+   public V getOrDefault(K key, V defaultValue) {
+      MapNode<V> node = mapNode(cachedNode(key));
+      return node == null ? defaultValue : node.value();
+   }
+
+   /**
+    * Maps the specified key to the specified value, keeping the key already
+    * in this map when there is one
+    *
+    * @param key   a key
+    * @param value the value of the key
+    * @return the previous value of the key, or null when the key was not in
+    *         this map
+    */
+   public V put(K key, V value) {
+      AtomicInteger side = new AtomicInteger();
+      Node node = locate(key, side);
+      if (node != null && side.get() == 0) {
+         V old = mapNode(node).value();
+         mapNode(node).setValue(value);
+         return old;
+      }
+      attach(node, side.get(), newEntry(key, value));
+      return null;
+   }
+
+   /**
+    * Gives the value mapped to the specified key, first mapping the key to a
+    * value computed from it when it is not mapped
+    *
+    * @param key      a key
+    * @param function computes the value of an unmapped key
+    * @return the value of the key, or null when the function gave null
+    */
+   public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+      AtomicInteger side = new AtomicInteger();
+      Node node = locate(key, side);
+      if (node != null && side.get() == 0) {
+         if (mapNode(node).value() == null)
+            mapNode(node).setValue(function.apply(key));
+         return mapNode(node).value();
+      }
+      V value = function.apply(key);
+      if (value != null)
+         attach(node, side.get(), newEntry(key, value));
+      return value;
+   }
+
+   /**
+    * Maps the specified key to a value computed from the key and its current
+    * value, updating the value in place, or removes the key when the
+    * computed value is null
+    *
+    * @param key      a key
+    * @param function computes the new value from the key and its current
+    *                 value, or null when the key is not mapped
+    * @return the new value of the key, or null when it is no longer mapped
+    */
+   public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+      AtomicInteger side = new AtomicInteger();
+      Node node = locate(key, side);
+      boolean found = node != null && side.get() == 0;
+      V value = function.apply(key, found ? mapNode(node).value() : null);
+      if (found) {
+         if (value == null)
+            remove(key);
+         else
+            mapNode(node).setValue(value);
+      } else if (value != null)
+         attach(node, side.get(), newEntry(key, value));
+      return value;
+   }
+
+   /**
+    * Maps the specified key to the specified value when the key is not
+    * mapped, and otherwise to the value merged from its current value and the
+    * specified value, updating it in place; the key is removed when the
+    * merged value is null
+    *
+    * @param key      a key
+    * @param value    the value to map or merge
+    * @param function merges the current value with the specified value
+    * @return the new value of the key, or null when it is no longer mapped
+    */
+   public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+      AtomicInteger side = new AtomicInteger();
+      Node node = locate(key, side);
+      if (node == null || side.get() != 0 || mapNode(node).value() == null) {
+         if (node != null && side.get() == 0)
+            mapNode(node).setValue(value);
+         else
+            attach(node, side.get(), newEntry(key, value));
+         return value;
+      }
+      V merged = function.apply(mapNode(node).value(), value);
+      if (merged == null)
+         remove(key);
+      else
+         mapNode(node).setValue(merged);
+      return merged;
+   }
+
+   /**
+    * Removes the specified key and its value from this map
+    *
+    * @param key a key
+    * @return the value of the key, or null when the key was not in this map
+    */
+   public V removeKey(K key) {
+      MapNode<V> node = mapNode(cachedNode(key));
+      if (node == null)
+         return null;
+      V old = node.value();
+      remove(key);
+      return old;
+   }
+
+   /**
+    * Applies the specified action to every key and value of this map in
+    * ascending order of the keys
+    *
+    * @param action the action applied to each key and its value
+    */
+   public void forEach(BiConsumer<? super K, ? super V> action) {
+      for (Node node = firstNode(); node != null; node = next(node))
+         action.accept(node.data, mapNode(node).value());
+   }
+
+   /**
+    * A map holds one value per key and has no multiset mode
+    * 
+    * @param enabled ignored
+    * @throws UnsupportedOperationException always
+    */
+   @Override
+   public void setMultiset(boolean enabled) {
+      throw new UnsupportedOperationException("A map has no multiset mode.");
+   }
+
+   @Override
+   Node createNode() {
+      return isAugmented() ? new AugmentedMapNode() : new PlainMapNode();
+   }
+
+   @Override
+   Object value(Node node) {
+      return mapNode(node).value();
+   }
+
+   @Override
+   void exchange(Node from, Node to) {
+      super.exchange(from, to);
+      mapNode(to).setValue(mapNode(from).value());
+   }
+
+   /**
+    * Creates a node for a new key and its value
+    *
+    * @param key   the key
+    * @param value the value of the key
+    * @return a balanced leaf containing the key and the value
+    */
+   private Node newEntry(K key, V value) {
+      Node node = newNode(key);
+      mapNode(node).setValue(value);
+      return node;
+   }
+
+   /**
+    * Gives the specified node of this map as a map node
+    *
+    * @param node a node of this map, or null
+    * @return the node, or null
+    */
+   @SuppressWarnings("unchecked")
+   private MapNode<V> mapNode(Node node) {
+      return (MapNode<V>) node;
+   }
+}
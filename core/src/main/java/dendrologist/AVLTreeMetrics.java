@@ -0,0 +1,304 @@
+package dendrologist;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts the operations, comparisons and rotations of an AVL tree and records
+ * the latency of each insert, remove and lookup.
+ * 
+ * Metrics are switched on for the whole JVM with the system property
+ * <code>-Ddendrologist.metrics=true</code>. ENABLED is a constant, so when it is
+ * false the JIT compiler removes every guarded call from the hot paths of the
+ * tree and no metrics object is allocated.
+ * 
+ * Like the tree, the metrics are written by the thread that owns the tree;
+ * a reader on another thread, such as a JMX client, sees approximate values.
+ * 
+ * @author Matthew Benfield
+ * @see AVLTree, AVLTreeMetricsMXBean
+ */
+public final class AVLTreeMetrics implements AVLTreeMetricsMXBean {
+   /**
+    * Whether the trees created by this JVM keep metrics
+    */
+   public static final boolean ENABLED = Boolean.getBoolean("dendrologist.metrics");
+   /**
+    * The metrics reported by a tree that keeps no metrics
+    */
+   static final AVLTreeMetrics DISABLED = new AVLTreeMetrics();
+
+   private long inserts;
+   private long removes;
+   private long lookups;
+   private long comparisons;
+   private long singleRotations;
+   private long doubleRotations;
+   private final LatencyHistogram insertLatency = new LatencyHistogram();
+   private final LatencyHistogram removeLatency = new LatencyHistogram();
+   private final LatencyHistogram lookupLatency = new LatencyHistogram();
+   /**
+    * The name this object is registered under with the platform MBean server
+    */
+   private ObjectName objectName;
+
+   /**
+    * Wraps a comparator so that it counts its invocations
+    * 
+    * @param <E> the type of the compared elements
+    * @param cmp a comparator
+    * @return a comparator that counts every comparison before delegating it,
+    *         and that is a prefix comparator when cmp is one
+    */
+   <E> Comparator<E> counting(Comparator<E> cmp) {
+      if (cmp instanceof PrefixComparator) {
+         PrefixComparator<E> prefixCmp = (PrefixComparator<E>) cmp;
+         return new PrefixComparator<E>() {
+            @Override
+            public int compare(E x, E y) {
+               comparisons++;
+               return prefixCmp.compare(x, y);
+            }
+
+            @Override
+            public int compareFrom(E x, E y, int from) {
+               comparisons++;
+               return prefixCmp.compareFrom(x, y, from);
+            }
+         };
+      }
+      return (x, y) -> {
+         comparisons++;
+         return cmp.compare(x, y);
+      };
+   }
+
+   /**
+    * Records an insert
+    * 
+    * @param nanos the latency of the insert
+    */
+   void inserted(long nanos) {
+      inserts++;
+      insertLatency.record(nanos);
+   }
+
+   /**
+    * Records a remove
+    * 
+    * @param nanos the latency of the remove
+    */
+   void removed(long nanos) {
+      removes++;
+      removeLatency.record(nanos);
+   }
+
+   /**
+    * Records a lookup
+    * 
+    * @param nanos the latency of the lookup
+    */
+   void lookedUp(long nanos) {
+      lookups++;
+      lookupLatency.record(nanos);
+   }
+
+   /**
+    * Records a rotation done to rebalance the tree
+    * 
+    * @param twice true for a double rotation; false for a single rotation
+    */
+   void rotated(boolean twice) {
+      if (twice)
+         doubleRotations++;
+      else
+         singleRotations++;
+   }
+
+   @Override
+   public long getInserts() {
+      return inserts;
+   }
+
+   @Override
+   public long getRemoves() {
+      return removes;
+   }
+
+   @Override
+   public long getLookups() {
+      return lookups;
+   }
+
+   @Override
+   public long getComparisons() {
+      return comparisons;
+   }
+
+   @Override
+   public long getSingleRotations() {
+      return singleRotations;
+   }
+
+   @Override
+   public long getDoubleRotations() {
+      return doubleRotations;
+   }
+
+   @Override
+   public LatencyHistogram.Summary getInsertLatency() {
+      return insertLatency.summary();
+   }
+
+   @Override
+   public LatencyHistogram.Summary getRemoveLatency() {
+      return removeLatency.summary();
+   }
+
+   @Override
+   public LatencyHistogram.Summary getLookupLatency() {
+      return lookupLatency.summary();
+   }
+
+   @Override
+   public void reset() {
+      inserts = 0;
+      removes = 0;
+      lookups = 0;
+      comparisons = 0;
+      singleRotations = 0;
+      doubleRotations = 0;
+      insertLatency.reset();
+      removeLatency.reset();
+      lookupLatency.reset();
+   }
+
+   /**
+    * Takes a snapshot of these metrics
+    * 
+    * @return a copy of the current counts and latency histograms
+    */
+   public Snapshot snapshot() {
+      return new Snapshot(this);
+   }
+
+   /**
+    * Registers these metrics with the platform MBean server under the name
+    * dendrologist:type=AVLTree,name=<i>name</i>
+    * 
+    * @param name the name of the tree
+    * @return the name these metrics are registered under
+    * @throws JMException when the name is malformed or already taken
+    */
+   public synchronized ObjectName register(String name) throws JMException {
+      if (this == DISABLED)
+         throw new IllegalStateException("metrics are disabled; run with -Ddendrologist.metrics=true");
+      unregister();
+      ObjectName on = ObjectName.getInstance("dendrologist:type=AVLTree,name=" + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+      objectName = on;
+      return on;
+   }
+
+   /**
+    * Unregisters these metrics from the platform MBean server, if they are
+    * registered
+    * 
+    * @throws JMException when the MBean server rejects the request
+    */
+   public synchronized void unregister() throws JMException {
+      if (objectName != null) {
+         MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         if (server.isRegistered(objectName))
+            server.unregisterMBean(objectName);
+         objectName = null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return snapshot().toString();
+   }
+
+   /**
+    * An immutable copy of the metrics of a tree at some point in time
+    */
+   public static final class Snapshot {
+      private final long inserts;
+      private final long removes;
+      private final long lookups;
+      private final long comparisons;
+      private final long singleRotations;
+      private final long doubleRotations;
+      private final LatencyHistogram insertLatency;
+      private final LatencyHistogram removeLatency;
+      private final LatencyHistogram lookupLatency;
+
+      /**
+       * Copies the specified metrics
+       * 
+       * @param m the metrics of a tree
+       */
+      private Snapshot(AVLTreeMetrics m) {
+         inserts = m.inserts;
+         removes = m.removes;
+         lookups = m.lookups;
+         comparisons = m.comparisons;
+         singleRotations = m.singleRotations;
+         doubleRotations = m.doubleRotations;
+         insertLatency = m.insertLatency.copy();
+         removeLatency = m.removeLatency.copy();
+         lookupLatency = m.lookupLatency.copy();
+      }
+
+      public long inserts() {
+         return inserts;
+      }
+
+      public long removes() {
+         return removes;
+      }
+
+      public long lookups() {
+         return lookups;
+      }
+
+      public long comparisons() {
+         return comparisons;
+      }
+
+      public long singleRotations() {
+         return singleRotations;
+      }
+
+      public long doubleRotations() {
+         return doubleRotations;
+      }
+
+      public LatencyHistogram insertLatency() {
+         return insertLatency.copy();
+      }
+
+      public LatencyHistogram removeLatency() {
+         return removeLatency.copy();
+      }
+
+      public LatencyHistogram lookupLatency() {
+         return lookupLatency.copy();
+      }
+
+      @Override
+      public String toString() {
+         return "AVL Tree Metrics:\ninserts = " + inserts + ", removes = " + removes + ", lookups = " + lookups
+               + "\ncomparisons = " + comparisons + ", single rotations = " + singleRotations
+               + ", double rotations = " + doubleRotations
+               + "\ninsert latency: " + insertLatency
+               + "\nremove latency: " + removeLatency
+               + "\nlookup latency: " + lookupLatency;
+      }
+   }
+}
@@ -0,0 +1,77 @@
+package dendrologist;
+
+/**
+ * The management interface of the metrics of an AVL tree
+ * 
+ * @author Matthew Benfield
+ * @see AVLTreeMetrics
+ */
+public interface AVLTreeMetricsMXBean {
+   /**
+    * Gives the number of calls to insert
+    * 
+    * @return the number of inserts
+    */
+   long getInserts();
+
+   /**
+    * Gives the number of calls to remove
+    * 
+    * @return the number of removes
+    */
+   long getRemoves();
+
+   /**
+    * Gives the number of calls to inTree and retrieve
+    * 
+    * @return the number of lookups
+    */
+   long getLookups();
+
+   /**
+    * Gives the number of times the comparator was invoked
+    * 
+    * @return the number of comparisons
+    */
+   long getComparisons();
+
+   /**
+    * Gives the number of single rotations done to rebalance the tree
+    * 
+    * @return the number of single rotations
+    */
+   long getSingleRotations();
+
+   /**
+    * Gives the number of double rotations done to rebalance the tree
+    * 
+    * @return the number of double rotations
+    */
+   long getDoubleRotations();
+
+   /**
+    * Summarizes the latencies of the inserts
+    * 
+    * @return a summary of the insert latencies
+    */
+   LatencyHistogram.Summary getInsertLatency();
+
+   /**
+    * Summarizes the latencies of the removes
+    * 
+    * @return a summary of the remove latencies
+    */
+   LatencyHistogram.Summary getRemoveLatency();
+
+   /**
+    * Summarizes the latencies of the lookups
+    * 
+    * @return a summary of the lookup latencies
+    */
+   LatencyHistogram.Summary getLookupLatency();
+
+   /**
+    * Discards all the counts and latencies
+    */
+   void reset();
+}
@@ -0,0 +1,205 @@
+package dendrologist;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the mutations of an AVL tree to another listener on a thread of
+ * its own. The mutations are copied into a ring buffer of fixed capacity,
+ * which the delivering thread drains in batches of whatever has accumulated,
+ * so the thread that mutates the tree only pays for the copy. When the ring
+ * is full the mutating thread waits for room, which bounds the memory held
+ * by a slow listener.
+ *
+ * The ring has a single producer, the thread that owns the tree, and a
+ * single consumer, the delivering thread.
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see MutationListener, AVLTree
+ */
+public final class AsyncMutationListener<E> implements MutationListener<E>, AutoCloseable {
+   /**
+    * The listener the mutations are delivered to
+    */
+   private final MutationListener<? super E> downstream;
+   /**
+    * The ring buffer, as the parallel arrays of a mutation batch
+    */
+   private final MutationType[] types;
+   private final Object[] entries;
+   private final Object[] others;
+   private final int[] deltas;
+   /**
+    * The batches delivered downstream, windows of the ring
+    */
+   private final MutationBatch<E> delivered;
+   /**
+    * The number of mutations copied into the ring
+    */
+   private final AtomicLong published = new AtomicLong();
+   /**
+    * The number of mutations delivered downstream
+    */
+   private final AtomicLong consumed = new AtomicLong();
+   /**
+    * The delivering thread
+    */
+   private final Thread consumer;
+   /**
+    * Whether no more mutations will be published
+    */
+   private volatile boolean closed;
+   /**
+    * The failure of the downstream listener, or null
+    */
+   private volatile Throwable failure;
+
+   /**
+    * Constructs a listener that delivers mutations to another listener on a
+    * thread of its own and starts that thread
+    *
+    * @param downstream the listener the mutations are delivered to
+    * @param capacity   the number of mutations the ring buffer holds,
+    *                   rounded up to a power of two
+    */
+   public AsyncMutationListener(MutationListener<? super E> downstream, int capacity) {
+      if (capacity < 1)
+         throw new IllegalArgumentException("The capacity of a ring buffer must be positive.");
+      int size = Integer.highestOneBit(Math.min(capacity, 1 << 30) * 2 - 1);
+      this.downstream = downstream;
+      types = new MutationType[size];
+      entries = new Object[size];
+      others = new Object[size];
+      deltas = new int[size];
+      delivered = new MutationBatch<>(types, entries, others, deltas);
+      consumer = new Thread(this::deliver, "dendrologist-mutations");
+      consumer.setDaemon(true);
+      consumer.start();
+   }
+
+   /**
+    * Copies a batch of mutations into the ring buffer, waiting for room when
+    * it is full
+    *
+    * @param batch the mutations
+    * @throws IllegalStateException when this listener is closed or the
+    *                               downstream listener failed
+    */
+   @Override
+   public void mutated(MutationBatch<? extends E> batch) {
+      if (closed)
+         throw new IllegalStateException("The mutation listener is closed.");
+      checkFailure();
+      int mask = types.length - 1;
+      long next = published.get();
+      for (int i = 0; i < batch.size(); i++) {
+         if (next - consumed.get() == types.length) {
+            publish(next);
+            while (next - consumed.get() == types.length) {
+               checkFailure();
+               LockSupport.parkNanos(10_000L);
+            }
+         }
+         int slot = (int) next & mask;
+         types[slot] = batch.type(i);
+         entries[slot] = batch.entry(i);
+         others[slot] = batch.other(i);
+         deltas[slot] = batch.delta(i);
+         next++;
+      }
+      publish(next);
+   }
+
+   /**
+    * Waits until every published mutation has been delivered
+    *
+    * @throws IllegalStateException when the downstream listener failed
+    */
+   public void awaitDelivery() {
+      while (consumed.get() != published.get()) {
+         checkFailure();
+         LockSupport.parkNanos(10_000L);
+      }
+      checkFailure();
+   }
+
+   /**
+    * Delivers the mutations already published and stops the delivering
+    * thread. When interrupted while waiting for the delivering thread, stops
+    * waiting and keeps the interrupt status of the calling thread.
+    *
+    * @throws IllegalStateException when the downstream listener failed
+    */
+   @Override
+   public void close() {
+      closed = true;
+      LockSupport.unpark(consumer);
+      try {
+         consumer.join();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return;
+      }
+      checkFailure();
+   }
+
+   /**
+    * Gives the heap used by the ring buffer of this listener
+    *
+    * @return the size of this listener and its ring buffer in bytes
+    */
+   long footprint() {
+      return Footprint.shallowBytes(AsyncMutationListener.class) + delivered.footprint();
+   }
+
+   /**
+    * Makes mutations visible to the delivering thread and wakes it
+    *
+    * @param next the number of mutations copied into the ring
+    */
+   private void publish(long next) {
+      published.set(next);
+      LockSupport.unpark(consumer);
+   }
+
+   /**
+    * Rethrows the failure of the downstream listener, if any
+    */
+   private void checkFailure() {
+      if (failure != null)
+         throw new IllegalStateException("The mutation listener failed.", failure);
+   }
+
+   /**
+    * Delivers the published mutations in batches until this listener is
+    * closed and the ring is drained
+    */
+   private void deliver() {
+      int mask = types.length - 1;
+      long done = consumed.get();
+      while (true) {
+         long available = published.get();
+         if (available == done) {
+            if (closed && published.get() == done)
+               return;
+            LockSupport.park(this);
+            continue;
+         }
+         int from = (int) done & mask;
+         int count = (int) Math.min(available - done, types.length - from);
+         delivered.window(from, count);
+         try {
+            downstream.mutated(delivered);
+         } catch (Throwable t) {
+            // an Error must be recorded too, or the producer would wait for
+            // room in the ring forever
+            failure = t;
+            return;
+         }
+         delivered.clear();
+         done += count;
+         consumed.set(done);
+      }
+   }
+}
@@ -0,0 +1,134 @@
+package dendrologist;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A summary of the entries of an AVL tree that every node maintains for its
+ * subtree. The summaries form a monoid: combine must be associative and
+ * identity must be neutral for it, though combine need not be commutative,
+ * since the entries are always combined in order. A tree keeps the summary
+ * of each subtree up to date through inserts, removals and rotations, which
+ * gives the summary of any range of entries in O(log n).
+ *
+ * @param <E> data type of the entries of the tree
+ * @param <S> data type of the summaries
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+public interface Augmentation<E, S> {
+   /**
+    * Gives the summary of no entries
+    *
+    * @return the identity of combine
+    */
+   S identity();
+
+   /**
+    * Gives the summary of a single entry
+    *
+    * @param entry an entry
+    * @return the summary of the entry
+    */
+   S summarize(E entry);
+
+   /**
+    * Combines the summaries of two consecutive runs of entries
+    *
+    * @param left  the summary of the entries that come first
+    * @param right the summary of the entries that come next
+    * @return the summary of both runs
+    */
+   S combine(S left, S right);
+
+   /**
+    * Gives the sum of a value of the entries
+    *
+    * @param <E>   data type of the entries
+    * @param value the value of an entry
+    * @return an augmentation summing the values
+    */
+   static <E> Augmentation<E, Long> sum(ToLongFunction<? super E> value) {
+      return new Augmentation<E, Long>() {
+         @Override
+         public Long identity() {
+            return 0L;
+         }
+
+         @Override
+         public Long summarize(E entry) {
+            return value.applyAsLong(entry);
+         }
+
+         @Override
+         public Long combine(Long left, Long right) {
+            return left + right;
+         }
+      };
+   }
+
+   /**
+    * Gives the number of entries that satisfy a predicate
+    *
+    * @param <E>       data type of the entries
+    * @param predicate the predicate
+    * @return an augmentation counting the entries that satisfy the predicate
+    */
+   static <E> Augmentation<E, Long> count(Predicate<? super E> predicate) {
+      return sum(entry -> predicate.test(entry) ? 1 : 0);
+   }
+
+   /**
+    * Gives the total length of string entries
+    *
+    * @param <E> data type of the entries
+    * @return an augmentation summing the lengths of the entries
+    */
+   static <E extends CharSequence> Augmentation<E, Long> totalLength() {
+      return sum(CharSequence::length);
+   }
+
+   /**
+    * Gives the least entry under an order, or null for no entries
+    *
+    * @param <E>   data type of the entries
+    * @param order the order of the entries, which need not be the order of
+    *              the tree
+    * @return an augmentation giving the least entry
+    */
+   static <E> Augmentation<E, E> min(Comparator<? super E> order) {
+      return new Augmentation<E, E>() {
+         @Override
+         public E identity() {
+            return null;
+         }
+
+         @Override
+         public E summarize(E entry) {
+            return entry;
+         }
+
+         @Override
+         public E combine(E left, E right) {
+            if (left == null)
+               return right;
+            if (right == null)
+               return left;
+            return order.compare(right, left) < 0 ? right : left;
+         }
+      };
+   }
+
+   /**
+    * Gives the greatest entry under an order, or null for no entries
+    *
+    * @param <E>   data type of the entries
+    * @param order the order of the entries, which need not be the order of
+    *              the tree
+    * @return an augmentation giving the greatest entry
+    */
+   static <E> Augmentation<E, E> max(Comparator<? super E> order) {
+      return min(order.reversed());
+   }
+}
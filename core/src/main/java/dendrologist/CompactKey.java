@@ -0,0 +1,176 @@
+package dendrologist;
+
+import java.util.Arrays;
+
+/**
+ * A string stored in a StringArena. A key holds only its arena and the
+ * offset of its characters, and behaves as the string it stands for: its
+ * length, characters, hash code, equality and natural order are those of the
+ * string, and its natural order compares the stored bytes directly.
+ *
+ * @author Matthew Benfield
+ * @see StringArena
+ */
+public final class CompactKey implements CharSequence, Comparable<CompactKey> {
+   /**
+    * The arena storing the string
+    */
+   private final StringArena arena;
+   /**
+    * The offset of the string in the arena
+    */
+   private final int offset;
+
+   /**
+    * Constructs the key of a stored string
+    *
+    * @param arena  the arena storing the string
+    * @param offset the offset of the string in the arena
+    */
+   CompactKey(StringArena arena, int offset) {
+      this.arena = arena;
+      this.offset = offset;
+   }
+
+   @Override
+   public int length() {
+      return arena.header(offset) >>> 1;
+   }
+
+   @Override
+   public char charAt(int index) {
+      int header = arena.header(offset);
+      if (index < 0 || index >= header >>> 1)
+         throw new IndexOutOfBoundsException(index);
+      return arena.charAt(offset, header, index);
+   }
+
+   @Override
+   public CharSequence subSequence(int start, int end) {
+      return toString().subSequence(start, end);
+   }
+
+   /**
+    * Compares the strings of two keys lexicographically, as String.compareTo
+    * does: the difference of the first differing characters, or else the
+    * difference of the lengths
+    *
+    * @param other another key
+    * @return a negative integer, zero or a positive integer when this string
+    *         precedes, equals or follows the other
+    */
+   @Override
+   public int compareTo(CompactKey other) {
+      byte[] a = arena.bytes;
+      byte[] b = other.arena.bytes;
+      int ha = arena.header(offset);
+      int hb = other.arena.header(other.offset);
+      int la = ha >>> 1;
+      int lb = hb >>> 1;
+      int common = Math.min(la, lb);
+      if ((ha & StringArena.UTF16) == (hb & StringArena.UTF16)) {
+         // stored the same way: the first differing byte settles the order
+         int width = (ha & StringArena.UTF16) == 0 ? 1 : 2;
+         int from = offset + 4;
+         int otherFrom = other.offset + 4;
+         int i = Arrays.mismatch(a, from, from + width * common, b, otherFrom, otherFrom + width * common);
+         if (i >= 0) {
+            int at = i / width;
+            return arena.charAt(offset, ha, at) - other.arena.charAt(other.offset, hb, at);
+         }
+         return la - lb;
+      }
+      for (int i = 0; i < common; i++) {
+         char x = arena.charAt(offset, ha, i);
+         char y = other.arena.charAt(other.offset, hb, i);
+         if (x != y)
+            return x - y;
+      }
+      return la - lb;
+   }
+
+   /**
+    * Compares the strings of two keys lexicographically after a shared prefix
+    *
+    * @param other another key
+    * @param from  the length of a prefix the strings are known to share
+    * @return the comparison as encoded by PrefixComparator.compareFrom
+    */
+   int compareFrom(CompactKey other, int from) {
+      byte[] a = arena.bytes;
+      byte[] b = other.arena.bytes;
+      int ha = arena.header(offset);
+      int hb = other.arena.header(other.offset);
+      int la = ha >>> 1;
+      int lb = hb >>> 1;
+      int common = Math.min(la, lb);
+      if (from < common) {
+         if ((ha & StringArena.UTF16) == (hb & StringArena.UTF16)) {
+            int width = (ha & StringArena.UTF16) == 0 ? 1 : 2;
+            int start = offset + 4 + width * from;
+            int otherStart = other.offset + 4 + width * from;
+            int length = width * (common - from);
+            int i = Arrays.mismatch(a, start, start + length, b, otherStart, otherStart + length);
+            if (i >= 0) {
+               int at = from + i / width;
+               return arena.charAt(offset, ha, at) < other.arena.charAt(other.offset, hb, at) ? -(at + 1) : at + 1;
+            }
+         } else {
+            for (int i = from; i < common; i++) {
+               char x = arena.charAt(offset, ha, i);
+               char y = other.arena.charAt(other.offset, hb, i);
+               if (x != y)
+                  return x < y ? -(i + 1) : i + 1;
+            }
+         }
+      }
+      if (la == lb)
+         return 0;
+      return la < lb ? -(common + 1) : common + 1;
+   }
+
+   /**
+    * Gives the hash code of the string of this key, equal to its
+    * String.hashCode
+    */
+   @Override
+   public int hashCode() {
+      int header = arena.header(offset);
+      int length = header >>> 1;
+      int hash = 0;
+      for (int i = 0; i < length; i++)
+         hash = 31 * hash + arena.charAt(offset, header, i);
+      return hash;
+   }
+
+   @Override
+   public boolean equals(Object obj) {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof CompactKey))
+         return false;
+      CompactKey other = (CompactKey) obj;
+      if (arena == other.arena && offset == other.offset)
+         return true;
+      return length() == other.length() && compareTo(other) == 0;
+   }
+
+   /**
+    * Gives the arena storing the string of this key
+    *
+    * @return the arena of this key
+    */
+   StringArena arena() {
+      return arena;
+   }
+
+   @Override
+   public String toString() {
+      int header = arena.header(offset);
+      int length = header >>> 1;
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++)
+         chars[i] = arena.charAt(offset, header, i);
+      return new String(chars);
+   }
+}
@@ -0,0 +1,32 @@
+package dendrologist;
+
+/**
+ * Reports that an entry is not in an AVL tree. Missing entries are an
+ * expected outcome of a query rather than a fault, so the exception does not
+ * record the stack trace, which costs far more than the lookup that failed.
+ *
+ * @author Matthew Benfield
+ * @see AVLTreeException, AVLTree
+ */
+class EntryNotFoundException extends AVLTreeException {
+   private static final long serialVersionUID = 1L;
+
+   /**
+    * Constructs an exception with the specified detail message
+    *
+    * @param msg the detail message
+    */
+   EntryNotFoundException(String msg) {
+      super(msg);
+   }
+
+   /**
+    * Leaves the stack trace empty
+    *
+    * @return this exception
+    */
+   @Override
+   public synchronized Throwable fillInStackTrace() {
+      return this;
+   }
+}
@@ -0,0 +1,260 @@
+package dendrologist;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * An estimate of the heap used by a tree, broken down by component: the
+ * nodes, the references to their balance factors, the entries with what they
+ * hold, such as the characters of strings, the values of a map, the summaries
+ * of an augmented tree, and the auxiliary structures of the tree.
+ *
+ * Sizes follow the object layout of a 64-bit HotSpot JVM, with the header and
+ * reference sizes of the running JVM and objects aligned on 8 bytes. Objects
+ * shared by several entries are counted once per entry.
+ *
+ * @author Matthew Benfield
+ * @see AVLTree, FrozenAVLTree
+ */
+public final class Footprint {
+   /**
+    * The size of a reference
+    */
+   static final int REFERENCE;
+   /**
+    * The size of an object header
+    */
+   static final int HEADER;
+
+   static {
+      boolean compressedOops = true;
+      boolean compressedClasses = true;
+      try {
+         HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+         compressedOops = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedOops").getValue());
+         compressedClasses = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedClassPointers").getValue());
+      } catch (RuntimeException | LinkageError e) {
+         // not a HotSpot JVM: assume the layout of a heap under 32 GiB
+      }
+      REFERENCE = compressedOops ? 4 : 8;
+      HEADER = compressedClasses ? 12 : 16;
+   }
+
+   private final long nodes;
+   private final long balanceFactors;
+   private final long entries;
+   private final long values;
+   private final long summaries;
+   private final long auxiliary;
+   private final int sampled;
+   private final int size;
+
+   /**
+    * Constructs an estimate
+    *
+    * @param nodes          the bytes of the nodes, without the references to
+    *                       their balance factors
+    * @param balanceFactors the bytes of the references to the balance factors
+    * @param entries        the bytes of the entries
+    * @param values         the bytes of the values of a map
+    * @param summaries      the bytes of the summaries of an augmented tree
+    * @param auxiliary      the bytes of the auxiliary structures
+    * @param sampled        the number of entries the estimate was taken from
+    * @param size           the number of entries
+    */
+   public Footprint(long nodes, long balanceFactors, long entries, long values, long summaries, long auxiliary,
+         int sampled, int size) {
+      this.nodes = nodes;
+      this.balanceFactors = balanceFactors;
+      this.entries = entries;
+      this.values = values;
+      this.summaries = summaries;
+      this.auxiliary = auxiliary;
+      this.sampled = sampled;
+      this.size = size;
+   }
+
+   /**
+    * Gives the bytes of the nodes, or of the arrays of a frozen tree, without
+    * the references to their balance factors
+    *
+    * @return the bytes of the nodes
+    */
+   public long nodes() {
+      return nodes;
+   }
+
+   /**
+    * Gives the bytes of the references of the nodes to their balance factors
+    *
+    * @return the bytes of the balance factors
+    */
+   public long balanceFactors() {
+      return balanceFactors;
+   }
+
+   /**
+    * Gives the bytes of the entries and of what they hold, such as the
+    * characters of strings
+    *
+    * @return the bytes of the entries
+    */
+   public long entries() {
+      return entries;
+   }
+
+   /**
+    * Gives the bytes of the values of a map
+    *
+    * @return the bytes of the values, or 0 for a tree that is not a map
+    */
+   public long values() {
+      return values;
+   }
+
+   /**
+    * Gives the bytes of the summaries of an augmented tree
+    *
+    * @return the bytes of the summaries, or 0 for a tree that is not augmented
+    */
+   public long summaries() {
+      return summaries;
+   }
+
+   /**
+    * Gives the bytes of the auxiliary structures: the lookup cache, the batch
+    * of mutations and the string arena of compact keys
+    *
+    * @return the bytes of the auxiliary structures
+    */
+   public long auxiliary() {
+      return auxiliary;
+   }
+
+   /**
+    * Gives the total of the components
+    *
+    * @return the estimated footprint in bytes
+    */
+   public long total() {
+      return nodes + balanceFactors + entries + values + summaries + auxiliary;
+   }
+
+   /**
+    * Gives the number of samples the sizes of the entries were estimated
+    * from: entries of a frozen tree, descents from the root of a live tree,
+    * or every entry when the estimate is exact
+    *
+    * @return the size of the sample
+    */
+   public int sampled() {
+      return sampled;
+   }
+
+   /**
+    * Determines whether every entry was measured
+    *
+    * @return true if the estimate is exact for this layout; otherwise, false
+    */
+   public boolean isExact() {
+      return sampled == size;
+   }
+
+   @Override
+   public String toString() {
+      return "footprint = " + total() + " bytes: nodes = " + nodes + ", balance factors = " + balanceFactors
+            + ", entries = " + entries + ", values = " + values + ", summaries = " + summaries
+            + ", auxiliary = " + auxiliary + (isExact() ? "" : " (" + sampled + " samples over " + size + " entries)");
+   }
+
+   /**
+    * Estimates the size of an object and of what it holds for the types
+    * stored in trees: strings with their characters, compact keys without
+    * their arena, and boxed primitives; any other object is counted as an
+    * object without fields
+    *
+    * @param object an object, or null
+    * @return the estimated size in bytes
+    */
+   public static long sizeOf(Object object) {
+      if (object == null)
+         return 0;
+      if (object instanceof String s) {
+         boolean latin1 = true;
+         for (int i = 0; i < s.length() && latin1; i++)
+            latin1 = s.charAt(i) < 256;
+         return objectBytes(1, 2) + arrayBytes(s.length(), latin1 ? 1 : 2);
+      }
+      if (object instanceof CompactKey)
+         return objectBytes(1, 1);
+      if (object instanceof Long || object instanceof Double)
+         return align(HEADER + 8);
+      if (object instanceof Number || object instanceof Character || object instanceof Boolean)
+         return align(HEADER + 4);
+      return align(HEADER);
+   }
+
+   /**
+    * Gives the size of an instance of a class from its fields, including
+    * those inherited and the reference of an inner class to its outer object
+    *
+    * @param type a class
+    * @return the size in bytes of an instance of the class
+    */
+   static long shallowBytes(Class<?> type) {
+      long bytes = HEADER;
+      for (Class<?> c = type; c != null; c = c.getSuperclass())
+         for (Field field : c.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()))
+               continue;
+            Class<?> t = field.getType();
+            if (!t.isPrimitive())
+               bytes += REFERENCE;
+            else if (t == long.class || t == double.class)
+               bytes += 8;
+            else if (t == int.class || t == float.class)
+               bytes += 4;
+            else if (t == short.class || t == char.class)
+               bytes += 2;
+            else
+               bytes += 1;
+         }
+      return align(bytes);
+   }
+
+   /**
+    * Gives the size of an object
+    *
+    * @param references the number of reference fields
+    * @param ints       the number of int fields, or of 4 bytes of smaller
+    *                   fields
+    * @return the size in bytes
+    */
+   static long objectBytes(int references, int ints) {
+      return align(HEADER + (long) references * REFERENCE + 4L * ints);
+   }
+
+   /**
+    * Gives the size of an array
+    *
+    * @param length       the length of the array
+    * @param elementBytes the size of an element
+    * @return the size in bytes
+    */
+   static long arrayBytes(long length, int elementBytes) {
+      return align(align(HEADER + 4) + length * elementBytes);
+   }
+
+   /**
+    * Rounds a size up to the alignment of objects
+    *
+    * @param bytes a size
+    * @return the size rounded up to a multiple of 8
+    */
+   static long align(long bytes) {
+      return (bytes + 7) & ~7L;
+   }
+}
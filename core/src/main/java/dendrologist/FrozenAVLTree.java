@@ -0,0 +1,407 @@
+package dendrologist;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Models a read-only AVL tree compiled from an AVLTree by freeze. The frozen
+ * tree has the shape of the tree it was compiled from, so the parents,
+ * children, ancestors and height of its entries are the same, but its nodes
+ * are packed into arrays instead of being separate objects: node i has its
+ * entry in entries[i], its children in children[2i] and children[2i + 1],
+ * its parent in parents[i] and the size of its subtree in sizes[i], with -1
+ * for no node.
+ *
+ * The nodes are laid out in van Emde Boas order: the top half of the levels
+ * of the tree comes first, followed by each of the subtrees hanging from it,
+ * each laid out the same way. A descent of any length then touches
+ * O(log n / log B) blocks of B indices, whatever the size of the cache
+ * blocks, instead of one cache line per node visited.
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+public final class FrozenAVLTree<E extends Comparable<E>> {
+   /**
+    * The index of no node
+    */
+   private static final int NONE = -1;
+   /**
+    * The entry of each node
+    */
+   private final Object[] entries;
+   /**
+    * The left and right children of each node
+    */
+   private final int[] children;
+   /**
+    * The parent of each node
+    */
+   private final int[] parents;
+   /**
+    * The number of nodes of the subtree at each node
+    */
+   private final int[] sizes;
+   /**
+    * The height of the tree, -1 when it is empty
+    */
+   private final int height;
+   /**
+    * The order of the entries
+    */
+   private final Comparator<? super E> cmp;
+
+   /**
+    * Constructs a frozen tree from its packed nodes; the root is node 0, and
+    * every node comes before its descendants
+    *
+    * @param entries  the entry of each node
+    * @param children the left and right children of each node
+    * @param parents  the parent of each node
+    * @param height   the height of the tree
+    * @param cmp      the order of the entries
+    */
+   FrozenAVLTree(Object[] entries, int[] children, int[] parents, int height, Comparator<? super E> cmp) {
+      this.entries = entries;
+      this.children = children;
+      this.parents = parents;
+      this.height = height;
+      this.cmp = cmp;
+      sizes = new int[entries.length];
+      for (int i = entries.length - 1; i >= 0; i--)
+         sizes[i] = 1 + size(children[2 * i]) + size(children[2 * i + 1]);
+   }
+
+   /**
+    * Determines whether this tree is empty
+    *
+    * @return true if this tree is empty; otherwise, false
+    */
+   public boolean isEmpty() {
+      return entries.length == 0;
+   }
+
+   /**
+    * Gives the number of entries of this tree
+    *
+    * @return the size of this tree
+    */
+   public int size() {
+      return entries.length;
+   }
+
+   /**
+    * Determines whether an item is in this tree
+    *
+    * @param item item with a specified search key
+    * @return true if the item is in this tree; otherwise, false
+    */
+   public boolean inTree(E item) {
+      return indexOf(item) != NONE;
+   }
+
+   /**
+    * Gives the entry of this tree with the specified key
+    *
+    * @param item the key of the entry to be retrieved
+    * @return the entry with the specified key
+    * @throws AVLTreeException when no such entry exists
+    */
+   public E retrieve(E item) throws AVLTreeException {
+      if (isEmpty())
+         throw new EntryNotFoundException("AVL Tree Exception: tree empty on call to retrieve()");
+      int node = indexOf(item);
+      if (node == NONE)
+         throw new EntryNotFoundException("AVL Tree Exception: key not in tree call to retrieve()");
+      return entry(node);
+   }
+
+   /**
+    * Gives the entry of this tree with the specified key, without throwing
+    * when there is none
+    *
+    * @param item the key of the entry to be found
+    * @return the entry with the specified key, or empty
+    */
+   public Optional<E> find(E item) {
+      int node = indexOf(item);
+      return node == NONE ? Optional.empty() : Optional.of(entry(node));
+   }
+
+   /**
+    * Traverses this tree in in-order, applying a function to each entry
+    *
+    * @param func the function to apply to each entry
+    */
+   @SuppressWarnings("unchecked")
+   public void traverse(Function func) {
+      if (!isEmpty())
+         traverse(0, func);
+   }
+
+   /**
+    * Gives the entries of the children of the node containing the specified
+    * entry
+    *
+    * @param entry an entry in this tree
+    * @return the entries of the left and right children, when they exist
+    * @throws AVLTreeException when the specified entry is not in this tree
+    */
+   public ArrayList<E> getChildren(E entry) throws AVLTreeException {
+      int node = found(entry);
+      ArrayList<E> result = new ArrayList<>();
+      if (children[2 * node] != NONE)
+         result.add(entry(children[2 * node]));
+      if (children[2 * node + 1] != NONE)
+         result.add(entry(children[2 * node + 1]));
+      return result;
+   }
+
+   /**
+    * Gives the entry of the parent of the node containing the specified entry
+    *
+    * @param entry an entry in this tree
+    * @return the entry of the parent, or null at the root
+    * @throws AVLTreeException when the specified entry is not in this tree
+    */
+   public E getParent(E entry) throws AVLTreeException {
+      int parent = parents[found(entry)];
+      return parent == NONE ? null : entry(parent);
+   }
+
+   /**
+    * Counts the ancestors of the node containing the specified entry
+    *
+    * @param entry an entry in this tree
+    * @return the number of ancestors of the entry
+    * @throws AVLTreeException when the specified entry is not in this tree
+    */
+   public int ancestors(E entry) throws AVLTreeException {
+      int count = 0;
+      for (int node = parents[found(entry)]; node != NONE; node = parents[node])
+         count++;
+      return count;
+   }
+
+   /**
+    * Counts the descendants of the node containing the specified entry
+    *
+    * @param entry an entry in this tree
+    * @return the number of descendants of the entry
+    * @throws AVLTreeException when the specified entry is not in this tree
+    */
+   public int descendants(E entry) throws AVLTreeException {
+      return sizes[found(entry)] - 1;
+   }
+
+   /**
+    * Gives the genealogy of the specified entry, without throwing when it is
+    * not in this tree
+    *
+    * @param entry an entry
+    * @return the genealogy of the entry, or empty
+    */
+   public Optional<Genealogy<E>> genealogy(E entry) {
+      int node = indexOf(entry);
+      if (node == NONE)
+         return Optional.empty();
+      int ancestors = 0;
+      for (int current = parents[node]; current != NONE; current = parents[current])
+         ancestors++;
+      int parent = parents[node];
+      int left = children[2 * node];
+      int right = children[2 * node + 1];
+      return Optional.of(new Genealogy<>(parent == NONE ? null : entry(parent), left == NONE ? null : entry(left),
+            right == NONE ? null : entry(right), ancestors, sizes[node] - 1));
+   }
+
+   /**
+    * Gives the height of this tree
+    *
+    * @return the height of this tree, -1 when it is empty
+    */
+   public int height() {
+      return height;
+   }
+
+   /**
+    * Measures the heap used by this tree, visiting every entry
+    *
+    * @return the footprint of this tree
+    */
+   public Footprint footprint() {
+      return footprint(Math.max(entries.length, 1));
+   }
+
+   /**
+    * Estimates the heap used by this tree: the arrays of its packed nodes,
+    * which hold no balance factors, and its entries, measured on a sample of
+    * nodes drawn uniformly at random
+    *
+    * @param samples the number of entries to measure; with at least as many as
+    *                there are entries, every entry is measured
+    * @return the footprint of this tree
+    * @throws IllegalArgumentException when the number of samples is not
+    *                                  positive
+    */
+   public Footprint footprint(int samples) {
+      if (samples < 1)
+         throw new IllegalArgumentException("The number of samples must be positive.");
+      int n = entries.length;
+      long arrays = Footprint.shallowBytes(FrozenAVLTree.class) + Footprint.arrayBytes(n, Footprint.REFERENCE)
+            + Footprint.arrayBytes(2L * n, 4) + 2 * Footprint.arrayBytes(n, 4);
+      long bytes = 0;
+      int sampled = Math.min(samples, n);
+      if (sampled == n) {
+         for (Object entry : entries)
+            bytes += Footprint.sizeOf(entry);
+      } else {
+         Random rnd = new Random(n);
+         for (int i = 0; i < sampled; i++)
+            bytes += Footprint.sizeOf(entries[rnd.nextInt(n)]);
+         bytes = Math.round((double) bytes / sampled * n);
+      }
+      long auxiliary = n > 0 && entries[0] instanceof CompactKey ? ((CompactKey) entries[0]).arena().footprint() : 0;
+      return new Footprint(arrays, 0, bytes, 0, 0, auxiliary, sampled, n);
+   }
+
+   /**
+    * Gives the entries of this tree from one entry to another, both
+    * included; neither needs to be in this tree
+    *
+    * @param from the least entry of the range
+    * @param to   the greatest entry of the range
+    * @return the entries in the range in ascending order
+    */
+   public ArrayList<E> range(E from, E to) {
+      ArrayList<E> result = new ArrayList<>();
+      if (!isEmpty())
+         range(0, from, to, result);
+      return result;
+   }
+
+   /**
+    * Counts the entries of this tree from one entry to another, both
+    * included, in O(log n) from the sizes of the subtrees
+    *
+    * @param from the least entry of the range
+    * @param to   the greatest entry of the range
+    * @return the number of entries in the range
+    */
+   public int rangeSize(E from, E to) {
+      return Math.max(0, rank(to, true) - rank(from, false));
+   }
+
+   /**
+    * An auxiliary method that gives the entry of a node
+    *
+    * @param node a node
+    * @return the entry of the node
+    */
+   @SuppressWarnings("unchecked")
+   private E entry(int node) {
+      return (E) entries[node];
+   }
+
+   /**
+    * An auxiliary method that gives the size of the subtree at a node
+    *
+    * @param node a node, or NONE
+    * @return the number of nodes of the subtree
+    */
+   private int size(int node) {
+      return node == NONE ? 0 : sizes[node];
+   }
+
+   /**
+    * An auxiliary method that finds the node containing the specified item
+    *
+    * @param item an item
+    * @return the node containing the item, or NONE
+    */
+   private int indexOf(E item) {
+      int node = isEmpty() ? NONE : 0;
+      while (node != NONE) {
+         int d = cmp.compare(item, entry(node));
+         if (d == 0)
+            return node;
+         node = children[d < 0 ? 2 * node : 2 * node + 1];
+      }
+      return NONE;
+   }
+
+   /**
+    * An auxiliary method that finds the node containing an entry that must
+    * be in this tree
+    *
+    * @param entry an entry
+    * @return the node containing the entry
+    * @throws AVLTreeException when the entry is not in this tree
+    */
+   private int found(E entry) throws AVLTreeException {
+      int node = indexOf(entry);
+      if (node == NONE)
+         throw new EntryNotFoundException("AVLTree Exception: Entry not found in this tree.");
+      return node;
+   }
+
+   /**
+    * An auxiliary method that counts the entries less than an item, or at
+    * most the item
+    *
+    * @param item      an item
+    * @param inclusive whether entries equal to the item are counted
+    * @return the number of entries counted
+    */
+   private int rank(E item, boolean inclusive) {
+      int count = 0;
+      int node = isEmpty() ? NONE : 0;
+      while (node != NONE) {
+         int d = cmp.compare(entry(node), item);
+         if (d < 0 || d == 0 && inclusive) {
+            count += 1 + size(children[2 * node]);
+            node = children[2 * node + 1];
+         } else
+            node = children[2 * node];
+      }
+      return count;
+   }
+
+   /**
+    * An auxiliary method that in-order traverses the subtree at a node
+    *
+    * @param node the root of a subtree
+    * @param func the function to apply to each entry
+    */
+   @SuppressWarnings("unchecked")
+   private void traverse(int node, Function func) {
+      if (children[2 * node] != NONE)
+         traverse(children[2 * node], func);
+      func.apply(entries[node]);
+      if (children[2 * node + 1] != NONE)
+         traverse(children[2 * node + 1], func);
+   }
+
+   /**
+    * An auxiliary method that collects the entries of a subtree in a range
+    *
+    * @param node   the root of a subtree
+    * @param from   the least entry of the range
+    * @param to     the greatest entry of the range
+    * @param result the list the entries are added to
+    */
+   private void range(int node, E from, E to, ArrayList<E> result) {
+      boolean aboveFrom = cmp.compare(entry(node), from) >= 0;
+      boolean belowTo = cmp.compare(entry(node), to) <= 0;
+      if (aboveFrom && children[2 * node] != NONE)
+         range(children[2 * node], from, to, result);
+      if (aboveFrom && belowTo)
+         result.add(entry(node));
+      if (belowTo && children[2 * node + 1] != NONE)
+         range(children[2 * node + 1], from, to, result);
+   }
+}
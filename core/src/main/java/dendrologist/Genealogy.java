@@ -0,0 +1,80 @@
+package dendrologist;
+
+/**
+ * The genealogy of an entry of an AVL tree: the entries of its parent and
+ * children and the number of its ancestors and descendants, gathered by a
+ * single lookup
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see AVLTreeAPI, AVLTree
+ */
+public final class Genealogy<E> {
+   private final E parent;
+   private final E left;
+   private final E right;
+   private final int ancestors;
+   private final int descendants;
+
+   /**
+    * Constructs a genealogy
+    *
+    * @param parent      the entry of the parent, or null at the root
+    * @param left        the entry of the left child, or null
+    * @param right       the entry of the right child, or null
+    * @param ancestors   the number of ancestors
+    * @param descendants the number of descendants
+    */
+   public Genealogy(E parent, E left, E right, int ancestors, int descendants) {
+      this.parent = parent;
+      this.left = left;
+      this.right = right;
+      this.ancestors = ancestors;
+      this.descendants = descendants;
+   }
+
+   /**
+    * Gives the entry of the parent
+    *
+    * @return the entry of the parent, or null at the root
+    */
+   public E parent() {
+      return parent;
+   }
+
+   /**
+    * Gives the entry of the left child
+    *
+    * @return the entry of the left child, or null when there is none
+    */
+   public E left() {
+      return left;
+   }
+
+   /**
+    * Gives the entry of the right child
+    *
+    * @return the entry of the right child, or null when there is none
+    */
+   public E right() {
+      return right;
+   }
+
+   /**
+    * Gives the number of ancestors
+    *
+    * @return the number of ancestors, 0 at the root
+    */
+   public int ancestors() {
+      return ancestors;
+   }
+
+   /**
+    * Gives the number of descendants, as descendants would
+    *
+    * @return the number of descendants
+    */
+   public int descendants() {
+      return descendants;
+   }
+}
@@ -0,0 +1,276 @@
+package dendrologist;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * A histogram of latencies in nanoseconds. Values are recorded in buckets that
+ * split every power of two into eight equal parts, so any percentile is
+ * reported within 12.5% of the recorded value while the histogram stays a
+ * fixed array of a few hundred counters.
+ * 
+ * A histogram is not thread-safe; it is written by a single thread, and a
+ * reader on another thread sees approximate values.
+ * 
+ * @author Matthew Benfield
+ * @see AVLTreeMetrics
+ */
+public final class LatencyHistogram {
+   /**
+    * The number of bits of a value kept below its leading bit
+    */
+   private static final int SUB_BUCKET_BITS = 3;
+   /**
+    * The number of buckets a power of two is split into
+    */
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   /**
+    * The number of recorded values in each bucket
+    */
+   private final long[] buckets = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+   /**
+    * The number of recorded values
+    */
+   private long count;
+   /**
+    * The sum of the recorded values
+    */
+   private long sum;
+   /**
+    * The smallest recorded value
+    */
+   private long min = Long.MAX_VALUE;
+   /**
+    * The largest recorded value
+    */
+   private long max;
+
+   /**
+    * Records a value
+    * 
+    * @param nanos a latency in nanoseconds; negative values are recorded as 0
+    */
+   public void record(long nanos) {
+      if (nanos < 0)
+         nanos = 0;
+      buckets[index(nanos)]++;
+      count++;
+      sum += nanos;
+      if (nanos < min)
+         min = nanos;
+      if (nanos > max)
+         max = nanos;
+   }
+
+   /**
+    * Adds the values recorded by another histogram to this histogram
+    * 
+    * @param other a histogram
+    */
+   public void add(LatencyHistogram other) {
+      for (int i = 0; i < buckets.length; i++)
+         buckets[i] += other.buckets[i];
+      count += other.count;
+      sum += other.sum;
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+   }
+
+   /**
+    * Discards all the recorded values
+    */
+   public void reset() {
+      java.util.Arrays.fill(buckets, 0);
+      count = 0;
+      sum = 0;
+      min = Long.MAX_VALUE;
+      max = 0;
+   }
+
+   /**
+    * Gives a copy of this histogram
+    * 
+    * @return a histogram with the values recorded by this histogram
+    */
+   public LatencyHistogram copy() {
+      LatencyHistogram copy = new LatencyHistogram();
+      copy.add(this);
+      return copy;
+   }
+
+   /**
+    * Gives the number of recorded values
+    * 
+    * @return the number of recorded values
+    */
+   public long count() {
+      return count;
+   }
+
+   /**
+    * Gives the sum of the recorded values
+    * 
+    * @return the sum of the recorded values in nanoseconds
+    */
+   public long total() {
+      return sum;
+   }
+
+   /**
+    * Gives the mean of the recorded values
+    * 
+    * @return the mean in nanoseconds, or 0 when no value was recorded
+    */
+   public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+   }
+
+   /**
+    * Gives the smallest recorded value
+    * 
+    * @return the smallest value in nanoseconds, or 0 when no value was recorded
+    */
+   public long min() {
+      return count == 0 ? 0 : min;
+   }
+
+   /**
+    * Gives the largest recorded value
+    * 
+    * @return the largest value in nanoseconds, or 0 when no value was recorded
+    */
+   public long max() {
+      return max;
+   }
+
+   /**
+    * Gives the value below which the specified percentage of the recorded
+    * values fall
+    * 
+    * @param percent a percentage between 0 and 100
+    * @return the percentile in nanoseconds, or 0 when no value was recorded
+    */
+   public long percentile(double percent) {
+      if (count == 0)
+         return 0;
+      long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+         seen += buckets[i];
+         if (seen >= rank)
+            return Math.max(min, Math.min(max, upperBound(i)));
+      }
+      return max;
+   }
+
+   /**
+    * Gives a summary of this histogram
+    * 
+    * @return the count, mean, 50th, 90th, 99th and 99.9th percentiles and maximum
+    */
+   public Summary summary() {
+      return new Summary(count, Math.round(mean()), percentile(50), percentile(90), percentile(99),
+            percentile(99.9), max);
+   }
+
+   @Override
+   public String toString() {
+      return summary().toString();
+   }
+
+   /**
+    * Gives the bucket a value is recorded in
+    * 
+    * @param value a non-negative value
+    * @return the index of the bucket
+    */
+   private static int index(long value) {
+      if (value < SUB_BUCKETS)
+         return (int) value;
+      int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+      int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+      return (shift + 1) * SUB_BUCKETS + sub;
+   }
+
+   /**
+    * Gives the largest value recorded in a bucket
+    * 
+    * @param index the index of a bucket
+    * @return the largest value of the bucket
+    */
+   private static long upperBound(int index) {
+      int shift = index / SUB_BUCKETS - 1;
+      long sub = index % SUB_BUCKETS;
+      if (shift < 0)
+         return sub;
+      return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+   }
+
+   /**
+    * A summary of the latencies recorded by a histogram, in nanoseconds
+    */
+   public static final class Summary {
+      private final long count;
+      private final long mean;
+      private final long p50;
+      private final long p90;
+      private final long p99;
+      private final long p999;
+      private final long max;
+
+      /**
+       * Constructs a summary
+       * 
+       * @param count the number of recorded values
+       * @param mean  the mean
+       * @param p50   the 50th percentile
+       * @param p90   the 90th percentile
+       * @param p99   the 99th percentile
+       * @param p999  the 99.9th percentile
+       * @param max   the maximum
+       */
+      @ConstructorParameters({ "count", "mean", "p50", "p90", "p99", "p999", "max" })
+      public Summary(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+         this.count = count;
+         this.mean = mean;
+         this.p50 = p50;
+         this.p90 = p90;
+         this.p99 = p99;
+         this.p999 = p999;
+         this.max = max;
+      }
+
+      public long getCount() {
+         return count;
+      }
+
+      public long getMean() {
+         return mean;
+      }
+
+      public long getP50() {
+         return p50;
+      }
+
+      public long getP90() {
+         return p90;
+      }
+
+      public long getP99() {
+         return p99;
+      }
+
+      public long getP999() {
+         return p999;
+      }
+
+      public long getMax() {
+         return max;
+      }
+
+      @Override
+      public String toString() {
+         return String.format("count = %d, mean = %dns, p50 = %dns, p90 = %dns, p99 = %dns, p99.9 = %dns, max = %dns",
+               count, mean, p50, p90, p99, p999, max);
+      }
+   }
+}
@@ -0,0 +1,156 @@
+package dendrologist;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded cache of the nodes of an AVL tree found by recent lookups. The
+ * cache is a direct-mapped table: each key hashes to one slot, which holds
+ * the node last found for a key of that slot. A hit costs a hash and a
+ * single comparison, so lookups of a small set of hot keys approach constant
+ * time; a miss descends from the root and replaces the slot.
+ *
+ * The tree validates every hit: a node removed from the tree is marked as
+ * such, and a node whose entry was replaced during a removal no longer
+ * compares equal to the key, so stale slots simply miss. Rotations relink
+ * nodes without moving their entries and leave the cache valid.
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+public final class LookupCache<E> {
+   /**
+    * The node cached in each slot, or null
+    */
+   private final Object[] slots;
+   /**
+    * The hash of a key, consistent with the order of the tree
+    */
+   private final ToIntFunction<? super E> hash;
+   /**
+    * The number of lookups answered by the cache
+    */
+   private long hits;
+   /**
+    * The number of lookups that descended the tree
+    */
+   private long misses;
+
+   /**
+    * Constructs an empty cache
+    *
+    * @param capacity the number of slots, rounded up to a power of two
+    * @param hash     the hash of a key; keys that compare equal should have
+    *                 the same hash, or they will miss each other's slots
+    */
+   LookupCache(int capacity, ToIntFunction<? super E> hash) {
+      if (capacity < 1)
+         throw new IllegalArgumentException("The capacity of a lookup cache must be positive.");
+      slots = new Object[Integer.highestOneBit(Math.min(capacity, 1 << 30) * 2 - 1)];
+      this.hash = hash;
+   }
+
+   /**
+    * Gives the slot of a key
+    */
+   int slot(E key) {
+      int h = hash.applyAsInt(key) * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & (slots.length - 1);
+   }
+
+   /**
+    * Gives the node cached in a slot
+    */
+   Object get(int slot) {
+      return slots[slot];
+   }
+
+   /**
+    * Caches a node in a slot
+    */
+   void put(int slot, Object node) {
+      slots[slot] = node;
+   }
+
+   /**
+    * Records a lookup answered by the cache
+    */
+   void hit() {
+      hits++;
+   }
+
+   /**
+    * Records a lookup that descended the tree
+    */
+   void miss() {
+      misses++;
+   }
+
+   /**
+    * Empties every slot, keeping the statistics
+    */
+   public void clear() {
+      Arrays.fill(slots, null);
+   }
+
+   /**
+    * Gives the number of slots of this cache
+    *
+    * @return the capacity of this cache
+    */
+   public int capacity() {
+      return slots.length;
+   }
+
+   /**
+    * Gives the number of lookups answered by this cache
+    *
+    * @return the number of hits
+    */
+   public long hits() {
+      return hits;
+   }
+
+   /**
+    * Gives the number of lookups that missed this cache
+    *
+    * @return the number of misses
+    */
+   public long misses() {
+      return misses;
+   }
+
+   /**
+    * Gives the fraction of lookups answered by this cache
+    *
+    * @return the hit rate, or 0 before the first lookup
+    */
+   public double hitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0.0 : (double) hits / lookups;
+   }
+
+   /**
+    * Resets the hit and miss counts to 0
+    */
+   public void resetStatistics() {
+      hits = 0;
+      misses = 0;
+   }
+
+   /**
+    * Gives the heap used by this cache
+    * 
+    * @return the size of this cache and its table in bytes
+    */
+   long footprint() {
+      return Footprint.shallowBytes(LookupCache.class) + Footprint.arrayBytes(slots.length, Footprint.REFERENCE);
+   }
+
+   @Override
+   public String toString() {
+      return String.format("lookup cache: capacity = %d, hits = %d, misses = %d, hit rate = %.3f", capacity(),
+            hits, misses, hitRate());
+   }
+}
@@ -0,0 +1,173 @@
+package dendrologist;
+
+/**
+ * A batch of mutations of an AVL tree, stored in parallel arrays so that
+ * recording a mutation allocates nothing. The batch is a window of these
+ * arrays, which an asynchronous listener shares with its ring buffer.
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see MutationListener, MutationType
+ */
+public final class MutationBatch<E> {
+   /**
+    * The kind of each mutation
+    */
+   private final MutationType[] types;
+   /**
+    * The entry of each mutation
+    */
+   private final Object[] entries;
+   /**
+    * The other entry of each mutation, or null
+    */
+   private final Object[] others;
+   /**
+    * The change in the number of occurrences of the entry of each mutation
+    */
+   private final int[] deltas;
+   /**
+    * The index in the arrays of the first mutation of the batch
+    */
+   private int offset;
+   /**
+    * The number of mutations in the batch
+    */
+   private int size;
+
+   /**
+    * Constructs an empty batch holding up to the specified number of
+    * mutations
+    *
+    * @param capacity the number of mutations the batch holds
+    */
+   MutationBatch(int capacity) {
+      this(new MutationType[capacity], new Object[capacity], new Object[capacity], new int[capacity]);
+   }
+
+   /**
+    * Constructs an empty batch over the specified arrays
+    *
+    * @param types   the kind of each mutation
+    * @param entries the entry of each mutation
+    * @param others  the other entry of each mutation
+    * @param deltas  the change in occurrences of each mutation
+    */
+   MutationBatch(MutationType[] types, Object[] entries, Object[] others, int[] deltas) {
+      this.types = types;
+      this.entries = entries;
+      this.others = others;
+      this.deltas = deltas;
+   }
+
+   /**
+    * Gives the number of mutations in this batch
+    *
+    * @return the size of this batch
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Gives the kind of a mutation
+    *
+    * @param i the index of the mutation in this batch
+    * @return the kind of the mutation
+    */
+   public MutationType type(int i) {
+      return types[offset + i];
+   }
+
+   /**
+    * Gives the entry of a mutation
+    *
+    * @param i the index of the mutation in this batch
+    * @return the entry of the mutation
+    */
+   @SuppressWarnings("unchecked")
+   public E entry(int i) {
+      return (E) entries[offset + i];
+   }
+
+   /**
+    * Gives the other entry of a mutation: the replaced entry of a replace,
+    * the entry moved down by a rotation
+    *
+    * @param i the index of the mutation in this batch
+    * @return the other entry of the mutation, or null
+    */
+   @SuppressWarnings("unchecked")
+   public E other(int i) {
+      return (E) others[offset + i];
+   }
+
+   /**
+    * Gives the change in the number of occurrences of the entry of a
+    * mutation
+    *
+    * @param i the index of the mutation in this batch
+    * @return the change in occurrences
+    */
+   public int delta(int i) {
+      return deltas[offset + i];
+   }
+
+   /**
+    * Determines whether this batch holds as many mutations as it can
+    *
+    * @return true if this batch is full; otherwise, false
+    */
+   boolean isFull() {
+      return offset + size == types.length;
+   }
+
+   /**
+    * Records a mutation at the end of this batch, which must not be full
+    *
+    * @param type  the kind of the mutation
+    * @param entry the entry of the mutation
+    * @param other the other entry of the mutation, or null
+    * @param delta the change in occurrences
+    */
+   void add(MutationType type, Object entry, Object other, int delta) {
+      int i = offset + size++;
+      types[i] = type;
+      entries[i] = entry;
+      others[i] = other;
+      deltas[i] = delta;
+   }
+
+   /**
+    * Makes this batch the specified window of its arrays
+    *
+    * @param from  the index of the first mutation
+    * @param count the number of mutations
+    */
+   void window(int from, int count) {
+      offset = from;
+      size = count;
+   }
+
+   /**
+    * Empties this batch, releasing its entries
+    */
+   void clear() {
+      for (int i = offset; i < offset + size; i++) {
+         entries[i] = null;
+         others[i] = null;
+      }
+      offset = 0;
+      size = 0;
+   }
+
+   /**
+    * Gives the heap used by this batch
+    *
+    * @return the size of this batch and its arrays in bytes
+    */
+   long footprint() {
+      return Footprint.shallowBytes(MutationBatch.class) + 3 * Footprint.arrayBytes(types.length, Footprint.REFERENCE)
+            + Footprint.arrayBytes(types.length, 4);
+   }
+}
@@ -0,0 +1,23 @@
+package dendrologist;
+
+/**
+ * Receives the mutations of an AVL tree in batches, in the order they were
+ * made, so that views derived from the tree can be updated incrementally
+ * instead of being rebuilt by a traversal. A tree delivers its pending
+ * mutations when the batch is full and when it is flushed.
+ *
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see MutationBatch, AsyncMutationListener, AVLTree
+ */
+@FunctionalInterface
+public interface MutationListener<E> {
+   /**
+    * Receives a batch of mutations. The batch is reused once this method
+    * returns, so it must not be retained, and the tree must not be modified
+    * from this method.
+    *
+    * @param batch the mutations, oldest first
+    */
+   void mutated(MutationBatch<? extends E> batch);
+}
@@ -0,0 +1,36 @@
+package dendrologist;
+
+/**
+ * The kinds of mutation of an AVL tree reported to a mutation listener. Each
+ * mutation has an entry, another entry for some kinds, and a change in the
+ * number of occurrences of the entry.
+ *
+ * @author Matthew Benfield
+ * @see MutationBatch, MutationListener
+ */
+public enum MutationType {
+   /**
+    * A node was added for the entry; the change is 1
+    */
+   INSERT,
+   /**
+    * The node of the entry was removed; the change is minus the number of
+    * occurrences it held, -1 outside multiset mode
+    */
+   REMOVE,
+   /**
+    * The entry replaced the other entry, which compared equal to it, in its
+    * node; the change is 0
+    */
+   REPLACE,
+   /**
+    * An occurrence was added to or removed from the node of the entry in
+    * multiset mode; the change is 1 or -1
+    */
+   COUNT,
+   /**
+    * A rotation moved the node of the entry up and the node of the other
+    * entry down to become its child; the change is 0
+    */
+   ROTATE
+}
@@ -0,0 +1,47 @@
+package dendrologist;
+
+import java.util.Comparator;
+
+/**
+ * A comparator of sequences that can skip a prefix the compared sequences are
+ * known to share, and that reports how long a prefix they share. An AVL tree
+ * built with a prefix comparator tracks, along each search path, the prefix
+ * the searched key shares with the nearest ancestors it is greater and less
+ * than; every key between these two ancestors shares the shorter of the two
+ * prefixes, so each comparison starts after it.
+ *
+ * The result of compareFrom encodes both the order and the shared prefix: 0
+ * when the sequences are equal, and otherwise a negative or positive integer
+ * whose magnitude is one more than the length of the prefix they share. A
+ * comparator may report a shorter prefix than the sequences actually share,
+ * down to 0 (a result of -1 or 1), and must do so for sequences that are not
+ * ordered by their prefixes, such as sequences of different lengths under a
+ * length-first order.
+ *
+ * @param <E> the type of the compared sequences
+ * @author Matthew Benfield
+ * @see StringOrder, AVLTree
+ */
+public interface PrefixComparator<E> extends Comparator<E> {
+   /**
+    * Compares two sequences that share at least the specified prefix
+    *
+    * @param x    a sequence
+    * @param y    another sequence
+    * @param from the length of a prefix x and y are known to share
+    * @return 0 when x equals y, and otherwise a negative or positive integer
+    *         when x is less or greater than y whose magnitude is one more
+    *         than the length of a prefix x and y share
+    */
+   int compareFrom(E x, E y, int from);
+
+   /**
+    * Gives the length of the shared prefix encoded in a result of compareFrom
+    *
+    * @param result a nonzero result of compareFrom
+    * @return the length of the prefix the compared sequences share
+    */
+   static int prefix(int result) {
+      return Math.abs(result) - 1;
+   }
+}
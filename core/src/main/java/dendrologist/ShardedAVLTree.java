@@ -0,0 +1,445 @@
+package dendrologist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A thread-safe facade over several independently locked AVL trees, called
+ * shards, that split the key space between them either by a hash of the key
+ * or by ranges of keys. Operations on a key lock only the shard that owns the
+ * key, so requests on different shards proceed in parallel.
+ * 
+ * Aggregated queries visit the shards one at a time and are weakly
+ * consistent: size is the total size of the shards, height is the largest
+ * height of a shard, and traverse visits every entry in order, merging the
+ * shards when they are split by hash.
+ * 
+ * Lookups and queries share the lock of a shard, so they run in parallel even
+ * on the same shard, while inserts and removals lock it exclusively. A tree
+ * whose lookups write to it, because it keeps metrics, caches lookups or
+ * searches from a finger, is locked exclusively for lookups too, and then
+ * every request on a shard waits for the previous one: configure the trees
+ * of the shards before they are shared.
+ * 
+ * @param <E> data type of elements of the tree
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+public class ShardedAVLTree<E extends Comparable<E>> {
+   /**
+    * A query run against the tree of a shard while the shard is locked. A
+    * query must not modify the tree, as other queries may run on the same
+    * shard at the same time.
+    * 
+    * @param <E> data type of elements of the tree
+    * @param <R> the type of the result of the query
+    */
+   @FunctionalInterface
+   public interface ShardQuery<E extends Comparable<E>, R> {
+      /**
+       * Runs the query
+       * 
+       * @param tree the tree of a shard
+       * @return the result of the query
+       * @throws AVLTreeException when a tree query fails
+       */
+      R apply(AVLTree<E> tree) throws AVLTreeException;
+   }
+
+   /**
+    * The tree of each shard
+    */
+   private final List<AVLTree<E>> trees;
+   /**
+    * The lock of each shard
+    */
+   private final ReentrantReadWriteLock[] locks;
+   /**
+    * The order of the keys
+    */
+   private final Comparator<? super E> cmp;
+   /**
+    * The hash of a key, or null when the shards own ranges of keys
+    */
+   private final ToIntFunction<? super E> hash;
+   /**
+    * The smallest key of every shard but the first, when the shards own
+    * ranges of keys
+    */
+   private final E[] splitters;
+
+   /**
+    * Constructs a facade over empty shards
+    * 
+    * @param shards    the number of shards
+    * @param cmp       the order of the keys
+    * @param hash      the hash of a key, or null for ranges of keys
+    * @param splitters the smallest key of every shard but the first
+    */
+   private ShardedAVLTree(int shards, Comparator<? super E> cmp, ToIntFunction<? super E> hash, E[] splitters) {
+      this(ShardedAVLTree.<E>emptyTrees(shards, cmp), cmp, hash, splitters);
+   }
+
+   /**
+    * Creates the empty trees of new shards
+    * 
+    * @param <E>    data type of elements of the tree
+    * @param shards the number of shards
+    * @param cmp    the order of the keys
+    * @return a list of empty trees
+    */
+   private static <E extends Comparable<E>> List<AVLTree<E>> emptyTrees(int shards, Comparator<? super E> cmp) {
+      List<AVLTree<E>> trees = new ArrayList<>(shards);
+      for (int i = 0; i < shards; i++)
+         trees.add(new AVLTree<E>(cmp));
+      return trees;
+   }
+
+   /**
+    * Constructs a facade over the specified shards
+    * 
+    * @param trees     the tree of each shard
+    * @param cmp       the order of the keys, needed only with several shards
+    * @param hash      the hash of a key, or null for ranges of keys
+    * @param splitters the smallest key of every shard but the first
+    */
+   private ShardedAVLTree(List<AVLTree<E>> trees, Comparator<? super E> cmp, ToIntFunction<? super E> hash,
+         E[] splitters) {
+      this.cmp = cmp;
+      this.hash = hash;
+      this.splitters = splitters;
+      this.trees = trees;
+      locks = new ReentrantReadWriteLock[trees.size()];
+      for (int i = 0; i < locks.length; i++)
+         locks[i] = new ReentrantReadWriteLock();
+   }
+
+   /**
+    * Wraps an existing tree as the only shard of a sharded tree, so that it
+    * can be shared between threads
+    * 
+    * @param <E>  data type of elements of the tree
+    * @param tree a tree that is no longer accessed directly
+    * @return a sharded tree with a single shard
+    */
+   public static <E extends Comparable<E>> ShardedAVLTree<E> wrap(AVLTree<E> tree) {
+      List<AVLTree<E>> trees = new ArrayList<>();
+      trees.add(tree);
+      return new ShardedAVLTree<>(trees, null, x -> 0, null);
+   }
+
+   /**
+    * Creates a tree whose shards are chosen by a hash of the key
+    * 
+    * @param <E>    data type of elements of the tree
+    * @param shards the number of shards
+    * @param cmp    the order of the keys
+    * @param hash   a hash of the keys such that keys that compare equal have
+    *               the same hash
+    * @return an empty sharded tree
+    */
+   public static <E extends Comparable<E>> ShardedAVLTree<E> hashed(int shards, Comparator<? super E> cmp,
+         ToIntFunction<? super E> hash) {
+      if (shards < 1)
+         throw new IllegalArgumentException("There should be at least 1 shard.");
+      return new ShardedAVLTree<>(shards, cmp, hash, null);
+   }
+
+   /**
+    * Creates a tree whose shards own ranges of keys
+    * 
+    * @param <E>       data type of elements of the tree
+    * @param cmp       the order of the keys
+    * @param splitters the smallest key of every shard but the first, in
+    *                  increasing order; there is one more shard than splitters
+    * @return an empty sharded tree
+    */
+   public static <E extends Comparable<E>> ShardedAVLTree<E> ranged(Comparator<? super E> cmp, List<E> splitters) {
+      @SuppressWarnings("unchecked")
+      E[] sorted = (E[]) splitters.toArray(new Comparable<?>[0]);
+      for (int i = 1; i < sorted.length; i++) {
+         if (cmp.compare(sorted[i - 1], sorted[i]) >= 0)
+            throw new IllegalArgumentException("The splitters should be in increasing order.");
+      }
+      return new ShardedAVLTree<>(sorted.length + 1, cmp, null, sorted);
+   }
+
+   /**
+    * Creates an executor that runs requests on a fixed pool of daemon
+    * threads, one per shard, so that a burst of requests waits in the queue
+    * of the pool instead of starting a thread each
+    * 
+    * @return an executor for client requests
+    */
+   public ExecutorService newRequestExecutor() {
+      return Executors.newFixedThreadPool(locks.length, r -> {
+         Thread t = new Thread(r, "dendrologist-request");
+         t.setDaemon(true);
+         return t;
+      });
+   }
+
+   /**
+    * Gives the number of shards
+    * 
+    * @return the number of shards
+    */
+   public int shards() {
+      return locks.length;
+   }
+
+   /**
+    * Gives the shard that owns a key
+    * 
+    * @param key a key
+    * @return the index of the shard
+    */
+   public int shardOf(E key) {
+      if (hash != null) {
+         int h = hash.applyAsInt(key);
+         h ^= h >>> 16;
+         return (h & Integer.MAX_VALUE) % locks.length;
+      }
+      int i = Arrays.binarySearch(splitters, key, cmp);
+      return i >= 0 ? i + 1 : -(i + 1);
+   }
+
+   /**
+    * Runs a query against the shard that owns a key while the shard is locked
+    * 
+    * @param <R>   the type of the result
+    * @param key   a key
+    * @param query the query
+    * @return the result of the query
+    * @throws AVLTreeException when the query fails
+    */
+   public <R> R query(E key, ShardQuery<E, R> query) throws AVLTreeException {
+      return query(shardOf(key), query);
+   }
+
+   /**
+    * Runs a query against every shard in turn, each while it is locked
+    * 
+    * @param <R>   the type of the results
+    * @param query the query
+    * @return the result of the query on each shard, in shard order
+    * @throws AVLTreeException when the query fails
+    */
+   public <R> List<R> queryAll(ShardQuery<E, R> query) throws AVLTreeException {
+      List<R> results = new ArrayList<>(locks.length);
+      for (int i = 0; i < locks.length; i++)
+         results.add(query(i, query));
+      return results;
+   }
+
+   /**
+    * Runs a query against a shard while the shard is locked
+    * 
+    * @param <R>   the type of the result
+    * @param shard the index of the shard
+    * @param query the query
+    * @return the result of the query
+    * @throws AVLTreeException when the query fails
+    */
+   private <R> R query(int shard, ShardQuery<E, R> query) throws AVLTreeException {
+      Lock lock = readLock(shard);
+      lock.lock();
+      try {
+         return query.apply(trees.get(shard));
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Gives the lock a lookup on a shard takes: the shared lock, unless the
+    * lookups of the tree of the shard write to it
+    * 
+    * @param shard the index of the shard
+    * @return the lock to take
+    */
+   private Lock readLock(int shard) {
+      return trees.get(shard).hasReadOnlyLookups() ? locks[shard].readLock() : locks[shard].writeLock();
+   }
+
+   /**
+    * Inserts an item into the tree.
+    * 
+    * @param obj the value to be inserted.
+    */
+   public void insert(E obj) {
+      int shard = shardOf(obj);
+      locks[shard].writeLock().lock();
+      try {
+         trees.get(shard).insert(obj);
+      } finally {
+         locks[shard].writeLock().unlock();
+      }
+   }
+
+   /**
+    * Delete an item from the tree.
+    * 
+    * @param item item with a specified search key.
+    */
+   public void remove(E item) {
+      int shard = shardOf(item);
+      locks[shard].writeLock().lock();
+      try {
+         trees.get(shard).remove(item);
+      } finally {
+         locks[shard].writeLock().unlock();
+      }
+   }
+
+   /**
+    * Determine whether an item is in the tree.
+    * 
+    * @param item item with a specified search key.
+    * @return true on success; false on failure.
+    */
+   public boolean inTree(E item) {
+      int shard = shardOf(item);
+      Lock lock = readLock(shard);
+      lock.lock();
+      try {
+         return trees.get(shard).inTree(item);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * returns the item with the given search key.
+    * 
+    * @param key the key of the item to be retrieved
+    * @return the item with the specified key
+    * @throws AVLTreeException when no such element exists
+    */
+   public E retrieve(E key) throws AVLTreeException {
+      return query(key, tree -> tree.retrieve(key));
+   }
+
+   /**
+    * returns the item with the given search key, without throwing when
+    * there is none.
+    * 
+    * @param key the key of the item to be found
+    * @return the item with the specified key, or empty
+    */
+   public Optional<E> find(E key) {
+      int shard = shardOf(key);
+      Lock lock = readLock(shard);
+      lock.lock();
+      try {
+         return trees.get(shard).find(key);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Determines whether the tree is empty.
+    * 
+    * @return true if every shard is empty; otherwise, false
+    */
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+   /**
+    * Returns the number of items stored in the tree.
+    * 
+    * @return the total size of the shards
+    */
+   public int size() {
+      int size = 0;
+      for (int i = 0; i < locks.length; i++) {
+         Lock lock = readLock(i);
+         lock.lock();
+         try {
+            size += trees.get(i).size();
+         } finally {
+            lock.unlock();
+         }
+      }
+      return size;
+   }
+
+   /**
+    * Gives the height of this tree.
+    * 
+    * @return the largest height of a shard, or -1 when every shard is empty
+    */
+   public int height() {
+      int height = -1;
+      for (int i = 0; i < locks.length; i++) {
+         Lock lock = readLock(i);
+         lock.lock();
+         try {
+            height = Math.max(height, trees.get(i).height());
+         } finally {
+            lock.unlock();
+         }
+      }
+      return height;
+   }
+
+   /**
+    * This function traverses the tree in in-order
+    * and calls the function apply, once for each entry.
+    * Shards that own ranges of keys are traversed one after another while
+    * locked; shards split by hash are copied one at a time and merged.
+    * 
+    * @param func the function to apply to the data in each node
+    */
+   @SuppressWarnings("unchecked")
+   public void traverse(Function<? super E, ?> func) {
+      if (hash == null || locks.length == 1) {
+         for (int i = 0; i < locks.length; i++) {
+            Lock lock = readLock(i);
+            lock.lock();
+            try {
+               trees.get(i).traverse(x -> func.apply((E) x));
+            } finally {
+               lock.unlock();
+            }
+         }
+         return;
+      }
+      List<List<E>> entries = new ArrayList<>();
+      for (int i = 0; i < locks.length; i++) {
+         List<E> list = new ArrayList<>();
+         Lock lock = readLock(i);
+         lock.lock();
+         try {
+            trees.get(i).traverse(x -> list.add((E) x));
+         } finally {
+            lock.unlock();
+         }
+         if (!list.isEmpty())
+            entries.add(list);
+      }
+      int[] next = new int[entries.size()];
+      PriorityQueue<Integer> heads = new PriorityQueue<>(
+            (x, y) -> cmp.compare(entries.get(x).get(next[x]), entries.get(y).get(next[y])));
+      for (int i = 0; i < entries.size(); i++)
+         heads.add(i);
+      while (!heads.isEmpty()) {
+         int i = heads.poll();
+         func.apply(entries.get(i).get(next[i]));
+         if (++next[i] < entries.get(i).size())
+            heads.add(i);
+      }
+   }
+}
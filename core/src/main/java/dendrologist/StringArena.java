@@ -0,0 +1,257 @@
+package dendrologist;
+
+import java.util.Arrays;
+
+/**
+ * An append-only store of strings packed into one shared byte array. Each
+ * string is stored once, as a four-byte header followed by its characters:
+ * one byte per character when every character is Latin-1 and two big-endian
+ * bytes per character otherwise, so that comparing the bytes of two strings
+ * stored the same way orders them exactly as String.compareTo does.
+ *
+ * A string interned in the arena is represented by a CompactKey, which holds
+ * only the arena and the offset of the string, in place of a String and its
+ * own array of characters. Strings are never removed, so keys stay valid as
+ * long as the arena does. The arena is not thread-safe.
+ *
+ * @author Matthew Benfield
+ * @see CompactKey
+ */
+public class StringArena {
+   /**
+    * The flag of the header of a string stored two bytes per character
+    */
+   static final int UTF16 = 1;
+   /**
+    * The bytes of the stored strings
+    */
+   byte[] bytes;
+   /**
+    * The number of bytes in use
+    */
+   private int used;
+   /**
+    * The number of stored strings
+    */
+   private int count;
+   /**
+    * An open-addressing table of the offsets of the stored strings plus one,
+    * zero marking an empty slot
+    */
+   private int[] slots;
+   /**
+    * The hash of the string in each slot
+    */
+   private int[] hashes;
+
+   /**
+    * Constructs an empty arena
+    */
+   public StringArena() {
+      this(1 << 12);
+   }
+
+   /**
+    * Constructs an empty arena
+    *
+    * @param capacity the initial number of bytes of the arena
+    */
+   public StringArena(int capacity) {
+      bytes = new byte[Math.max(capacity, 16)];
+      slots = new int[16];
+      hashes = new int[16];
+   }
+
+   /**
+    * Gives the key of the specified string, storing the string when it is
+    * not stored yet
+    *
+    * @param s a string
+    * @return the key of the string in this arena
+    */
+   public CompactKey intern(String s) {
+      int hash = s.hashCode();
+      int slot = slot(s, hash);
+      if (slots[slot] != 0)
+         return new CompactKey(this, slots[slot] - 1);
+      int offset = append(s);
+      slots[slot] = offset + 1;
+      hashes[slot] = hash;
+      count++;
+      if (count * 2 > slots.length)
+         rehash();
+      return new CompactKey(this, offset);
+   }
+
+   /**
+    * Gives the key of the specified string when it is stored
+    *
+    * @param s a string
+    * @return the key of the string in this arena, or null when it is not
+    *         stored
+    */
+   public CompactKey find(String s) {
+      int slot = slot(s, s.hashCode());
+      return slots[slot] == 0 ? null : new CompactKey(this, slots[slot] - 1);
+   }
+
+   /**
+    * Gives a key for the specified string without storing it: the key of the
+    * string in this arena when it is stored, and otherwise a key in an arena
+    * of its own. A probe can be compared with the keys of this arena, which
+    * makes it suitable for lookups that must not grow the arena.
+    *
+    * @param s a string
+    * @return a key equal to the string
+    */
+   public CompactKey probe(String s) {
+      CompactKey key = find(s);
+      if (key != null)
+         return key;
+      StringArena single = new StringArena(4 + 2 * s.length());
+      return new CompactKey(single, single.append(s));
+   }
+
+   /**
+    * Gives the number of strings stored in this arena
+    *
+    * @return the number of stored strings
+    */
+   public int size() {
+      return count;
+   }
+
+   /**
+    * Gives the number of bytes used by the stored strings
+    *
+    * @return the number of bytes in use
+    */
+   public long bytes() {
+      return used;
+   }
+
+   /**
+    * Gives the number of bytes held by this arena, including its unused
+    * capacity and its table of strings
+    *
+    * @return the footprint of this arena in bytes
+    */
+   public long footprint() {
+      return bytes.length + 8L * slots.length;
+   }
+
+   /**
+    * Gives the slot of the specified string: the slot holding it when it is
+    * stored, and otherwise the empty slot where it belongs
+    */
+   private int slot(String s, int hash) {
+      int mask = slots.length - 1;
+      int i = mix(hash) & mask;
+      while (slots[i] != 0 && (hashes[i] != hash || !matches(slots[i] - 1, s)))
+         i = (i + 1) & mask;
+      return i;
+   }
+
+   /**
+    * Doubles the table of strings
+    */
+   private void rehash() {
+      int[] oldSlots = slots;
+      int[] oldHashes = hashes;
+      slots = new int[oldSlots.length * 2];
+      hashes = new int[oldSlots.length * 2];
+      int mask = slots.length - 1;
+      for (int j = 0; j < oldSlots.length; j++) {
+         if (oldSlots[j] == 0)
+            continue;
+         int i = mix(oldHashes[j]) & mask;
+         while (slots[i] != 0)
+            i = (i + 1) & mask;
+         slots[i] = oldSlots[j];
+         hashes[i] = oldHashes[j];
+      }
+   }
+
+   /**
+    * Spreads the bits of a hash so that strings differing only in their last
+    * characters do not cluster
+    */
+   private static int mix(int hash) {
+      hash *= 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
+
+   /**
+    * Stores a string at the end of the arena
+    *
+    * @param s a string
+    * @return the offset of the stored string
+    */
+   private int append(String s) {
+      int length = s.length();
+      boolean latin1 = true;
+      for (int i = 0; i < length && latin1; i++)
+         latin1 = s.charAt(i) < 256;
+      int size = latin1 ? length : 2 * length;
+      if ((long) used + 4 + size > Integer.MAX_VALUE - 8)
+         throw new IllegalStateException("The string arena is full.");
+      if (used + 4 + size > bytes.length)
+         bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8,
+               Math.max((long) bytes.length * 2, (long) used + 4 + size)));
+      int offset = used;
+      int header = length << 1 | (latin1 ? 0 : UTF16);
+      bytes[offset] = (byte) (header >>> 24);
+      bytes[offset + 1] = (byte) (header >>> 16);
+      bytes[offset + 2] = (byte) (header >>> 8);
+      bytes[offset + 3] = (byte) header;
+      int at = offset + 4;
+      for (int i = 0; i < length; i++) {
+         char c = s.charAt(i);
+         if (latin1) {
+            bytes[at++] = (byte) c;
+         } else {
+            bytes[at++] = (byte) (c >>> 8);
+            bytes[at++] = (byte) c;
+         }
+      }
+      used = at;
+      return offset;
+   }
+
+   /**
+    * Gives the header of the string at the specified offset
+    */
+   int header(int offset) {
+      return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+            | bytes[offset + 3] & 0xFF;
+   }
+
+   /**
+    * Gives a character of the string at the specified offset
+    *
+    * @param offset the offset of the string
+    * @param header the header of the string
+    * @param index  the index of the character
+    * @return the character
+    */
+   char charAt(int offset, int header, int index) {
+      if ((header & UTF16) == 0)
+         return (char) (bytes[offset + 4 + index] & 0xFF);
+      int at = offset + 4 + 2 * index;
+      return (char) ((bytes[at] & 0xFF) << 8 | bytes[at + 1] & 0xFF);
+   }
+
+   /**
+    * Determines whether the string at the specified offset equals a string
+    */
+   private boolean matches(int offset, String s) {
+      int header = header(offset);
+      int length = header >>> 1;
+      if (length != s.length())
+         return false;
+      for (int i = 0; i < length; i++)
+         if (charAt(offset, header, i) != s.charAt(i))
+            return false;
+      return true;
+   }
+}
@@ -0,0 +1,92 @@
+package dendrologist;
+
+/**
+ * An order of strings by length, by content, or by length first and content
+ * second, each of them increasing or decreasing. Content is compared
+ * character by character as by String.compareTo; strings stored in a string
+ * arena are compared byte by byte. When lengths come first, strings of
+ * different lengths are ordered without looking at their characters.
+ *
+ * As a prefix comparator, a string order skips the characters of a shared
+ * prefix. Under a length-first order, strings of different lengths are
+ * reported to share no prefix, since the strings between them in the order
+ * need not share theirs.
+ *
+ * @param <K> the type of the strings: String, or CompactKey for strings
+ *            stored in a string arena
+ * @author Matthew Benfield
+ * @see PrefixComparator, CompactKey
+ */
+public final class StringOrder<K extends CharSequence & Comparable<K>> implements PrefixComparator<K> {
+   /**
+    * 1 when shorter strings come first, -1 when longer strings come first, 0
+    * when lengths are not compared
+    */
+   private final int byLength;
+   /**
+    * 1 for lexicographical order, -1 for reverse lexicographical order, 0
+    * when characters are not compared
+    */
+   private final int byContent;
+
+   /**
+    * Constructs a string order
+    *
+    * @param byLength  1 to order by increasing length, -1 by decreasing
+    *                  length, 0 to ignore lengths
+    * @param byContent 1 to order strings of equal length lexicographically, -1
+    *                  in reverse, 0 to ignore their characters
+    */
+   public StringOrder(int byLength, int byContent) {
+      this.byLength = Integer.signum(byLength);
+      this.byContent = Integer.signum(byContent);
+   }
+
+   @Override
+   public int compare(K x, K y) {
+      if (byLength != 0) {
+         int d = x.length() - y.length();
+         if (d != 0 || byContent == 0)
+            return byLength * d;
+      }
+      return byContent * x.compareTo(y);
+   }
+
+   @Override
+   public int compareFrom(K x, K y, int from) {
+      if (byLength != 0) {
+         int d = x.length() - y.length();
+         if (d != 0)
+            return byLength * d > 0 ? 1 : -1;
+         if (byContent == 0)
+            return 0;
+      }
+      if (x instanceof CompactKey)
+         return byContent * ((CompactKey) x).compareFrom((CompactKey) y, from);
+      return byContent * compareChars(x, y, from);
+   }
+
+   /**
+    * Compares the characters of two sequences lexicographically after a
+    * shared prefix
+    *
+    * @param x    a sequence
+    * @param y    another sequence
+    * @param from the length of a prefix x and y are known to share
+    * @return the comparison as encoded by PrefixComparator.compareFrom
+    */
+   static int compareChars(CharSequence x, CharSequence y, int from) {
+      int lx = x.length();
+      int ly = y.length();
+      int common = Math.min(lx, ly);
+      for (int i = from; i < common; i++) {
+         char a = x.charAt(i);
+         char b = y.charAt(i);
+         if (a != b)
+            return a < b ? -(i + 1) : i + 1;
+      }
+      if (lx == ly)
+         return 0;
+      return lx < ly ? -(common + 1) : common + 1;
+   }
+}
@@ -0,0 +1,96 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that AVLTreeMap keeps the value of every key through rotations and
+ * removals, with and without finger search and a lookup cache, and that its
+ * updates in place follow java.util.Map
+ *
+ * @author Matthew Benfield
+ * @see AVLTreeMap
+ */
+class AVLTreeMapTest {
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 2, 3 })
+    void valuesFollowTheirKeys(int mode) throws AVLTreeException {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        map.setFingerSearch((mode & 1) != 0);
+        if ((mode & 2) != 0) {
+            map.enableLookupCache(32);
+        }
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(38 + mode);
+        for (int i = 0; i < 30000; i++) {
+            int key = random.nextInt(2000);
+            switch (random.nextInt(5)) {
+                case 0 -> assertEquals(expected.put(key, i), map.put(key, i));
+                case 1 -> assertEquals(expected.merge(key, 1, Integer::sum), map.merge(key, 1, Integer::sum));
+                case 2 -> assertEquals(expected.remove(key), map.removeKey(key));
+                default -> {
+                    assertEquals(expected.get(key), map.get(key));
+                    assertEquals(expected.getOrDefault(key, -1), map.getOrDefault(key, -1));
+                }
+            }
+        }
+        List<Integer> keys = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        map.forEach((k, v) -> {
+            keys.add(k);
+            values.add(v);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        assertEquals(new ArrayList<>(expected.values()), values);
+        assertEquals(keys, TreeAssertions.assertValid(map, Comparator.naturalOrder()));
+        for (int key : expected.keySet()) {
+            assertEquals(key, map.retrieve(key));
+        }
+    }
+
+    @Test
+    void aNullValueLeavesTheKeyUnmapped() {
+        AVLTreeMap<String, Integer> map = new AVLTreeMap<>();
+        assertNull(map.computeIfAbsent("ash", k -> null));
+        assertFalse(map.inTree("ash"));
+        assertEquals(3, map.computeIfAbsent("ash", String::length));
+        assertEquals(3, map.computeIfAbsent("ash", k -> 99));
+        assertEquals(6, map.compute("ash", (k, v) -> v * 2));
+        assertNull(map.compute("ash", (k, v) -> null));
+        assertFalse(map.inTree("ash"));
+        assertNull(map.compute("elm", (k, v) -> v));
+        assertEquals(0, map.size());
+
+        assertEquals(5, map.merge("fir", 5, Integer::sum));
+        assertEquals(7, map.merge("fir", 2, Integer::sum));
+        assertNull(map.merge("fir", 0, (a, b) -> null));
+        assertFalse(map.inTree("fir"));
+        assertNull(map.removeKey("fir"));
+    }
+
+    @Test
+    void aKeyIsKeptWhenItsValueIsReplaced() throws AVLTreeException {
+        AVLTreeMap<String, Integer> map = new AVLTreeMap<>(Comparator.comparingInt(String::length));
+        map.put("oak", 1);
+        assertEquals(1, map.put("yew", 2));
+        assertEquals("oak", map.retrieve("abc"));
+        assertEquals(2, map.get("xyz"));
+    }
+
+    @Test
+    void aMapIsNoMultiset() {
+        assertThrows(UnsupportedOperationException.class, () -> new AVLTreeMap<String, Integer>().setMultiset(true));
+    }
+}
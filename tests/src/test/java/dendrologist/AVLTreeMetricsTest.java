@@ -0,0 +1,155 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Random;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the counters and latencies that AVLTreeMetrics keeps for a tree, and
+ * their MXBean. The metrics are switched on for the whole JVM, so these tests
+ * run in an execution of their own with -Ddendrologist.metrics=true.
+ *
+ * @author Matthew Benfield
+ * @see AVLTreeMetrics, AVLTreeMetricsMXBean
+ */
+class AVLTreeMetricsTest {
+    @BeforeAll
+    static void metricsAreEnabled() {
+        assumeTrue(AVLTreeMetrics.ENABLED, "run with -Ddendrologist.metrics=true");
+    }
+
+    @Test
+    void operationsAreCountedAndTimed() throws AVLTreeException {
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        for (int i = 0; i < 30; i++) {
+            tree.remove(i * 7);
+        }
+        tree.inTree(50);
+        tree.find(51);
+        tree.retrieve(52);
+        tree.inTree(1000);
+
+        AVLTreeMetrics.Snapshot snapshot = tree.metrics().snapshot();
+        assertEquals(100, snapshot.inserts());
+        assertEquals(30, snapshot.removes());
+        assertEquals(4, snapshot.lookups());
+        assertEquals(100, snapshot.insertLatency().count());
+        assertEquals(30, snapshot.removeLatency().count());
+        assertEquals(4, snapshot.lookupLatency().count());
+        assertTrue(snapshot.insertLatency().max() > 0);
+    }
+
+    @Test
+    void everyComparisonIsCounted() {
+        long[] comparisons = new long[1];
+        Comparator<Integer> counted = (x, y) -> {
+            comparisons[0]++;
+            return Integer.compare(x, y);
+        };
+        AVLTree<Integer> tree = new AVLTree<>(counted);
+        Random random = new Random(28);
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                tree.insert(key);
+            } else if (random.nextBoolean()) {
+                tree.remove(key);
+            } else {
+                tree.inTree(key);
+            }
+        }
+        assertTrue(comparisons[0] > 0);
+        assertEquals(comparisons[0], tree.metrics().getComparisons());
+    }
+
+    @Test
+    void rotationsAreCountedByKind() {
+        AVLTree<Integer> single = new AVLTree<>();
+        single.insert(1);
+        single.insert(2);
+        single.insert(3);
+        assertEquals(1, single.metrics().getSingleRotations());
+        assertEquals(0, single.metrics().getDoubleRotations());
+
+        AVLTree<Integer> twice = new AVLTree<>();
+        twice.insert(3);
+        twice.insert(1);
+        twice.insert(2);
+        assertEquals(0, twice.metrics().getSingleRotations());
+        assertEquals(1, twice.metrics().getDoubleRotations());
+
+        // ascending inserts only ever rotate once at a time
+        AVLTree<Integer> ascending = new AVLTree<>();
+        for (int i = 0; i < 1023; i++) {
+            ascending.insert(i);
+        }
+        assertEquals(1023 - 10, ascending.metrics().getSingleRotations());
+        assertEquals(0, ascending.metrics().getDoubleRotations());
+    }
+
+    @Test
+    void aSnapshotDoesNotChangeAndResetStartsOver() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.insert(1);
+        AVLTreeMetrics.Snapshot before = tree.metrics().snapshot();
+        tree.insert(2);
+        assertEquals(1, before.inserts());
+        assertEquals(1, before.insertLatency().count());
+        assertEquals(2, tree.metrics().getInserts());
+
+        tree.metrics().reset();
+        AVLTreeMetrics.Snapshot after = tree.metrics().snapshot();
+        assertEquals(0, after.inserts());
+        assertEquals(0, after.comparisons());
+        assertEquals(0, after.insertLatency().count());
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    void theMXBeanReportsTheMetrics() throws JMException {
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 10; i++) {
+            tree.insert(i);
+        }
+        tree.inTree(3);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = tree.metrics().register("metrics-test");
+        try {
+            assertEquals(ObjectName.getInstance("dendrologist:type=AVLTree,name=\"metrics-test\""), name);
+            assertEquals(10L, server.getAttribute(name, "Inserts"));
+            assertEquals(1L, server.getAttribute(name, "Lookups"));
+            assertEquals(tree.metrics().getSingleRotations(), server.getAttribute(name, "SingleRotations"));
+            CompositeData latency = (CompositeData) server.getAttribute(name, "InsertLatency");
+            assertEquals(10L, latency.get("count"));
+
+            AVLTree<Integer> other = new AVLTree<>();
+            JMException taken = assertThrows(JMException.class, () -> other.metrics().register("metrics-test"));
+            assertTrue(taken instanceof InstanceAlreadyExistsException);
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Inserts"));
+            assertEquals(10, tree.size());
+        } finally {
+            tree.metrics().unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,138 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the bottom-up rebalancing of AVLTree along the parent links, and
+ * that finger search finds the entries a search from the root finds
+ *
+ * @author Matthew Benfield
+ * @see AVLTree, TreeAssertions
+ */
+class AVLTreeTest {
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+    /**
+     * Gives the greatest height of an AVL tree of n nodes
+     */
+    private static int maxHeight(int n) {
+        return (int) Math.floor(1.4405 * (Math.log(n + 2) / Math.log(2)) - 1.3277);
+    }
+
+    private static AVLTree<Integer> tree(boolean finger) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setFingerSearch(finger);
+        return tree;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void ascendingAndDescendingInsertsStayBalanced(boolean finger) {
+        AVLTree<Integer> up = tree(finger);
+        AVLTree<Integer> down = tree(finger);
+        for (int i = 0; i < 2000; i++) {
+            up.insert(i);
+            down.insert(-i);
+            if (i % 97 == 0) {
+                TreeAssertions.assertValid(up, ORDER);
+                TreeAssertions.assertValid(down, ORDER);
+            }
+        }
+        assertEquals(2000, up.size());
+        assertTrue(up.height() <= maxHeight(up.size()));
+        assertTrue(down.height() <= maxHeight(down.size()));
+        TreeAssertions.assertValid(up, ORDER);
+        TreeAssertions.assertValid(down, ORDER);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void removalsRebalanceUpToTheRoot(boolean finger) {
+        AVLTree<Integer> tree = tree(finger);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(3));
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        Collections.shuffle(keys, new Random(4));
+        for (int i = 0; i < keys.size(); i++) {
+            tree.remove(keys.get(i));
+            assertFalse(tree.inTree(keys.get(i)));
+            if (i % 53 == 0) {
+                List<Integer> entries = TreeAssertions.assertValid(tree, ORDER);
+                assertEquals(keys.size() - i - 1, entries.size());
+                assertTrue(tree.height() <= maxHeight(tree.size()));
+            }
+        }
+        assertTrue(tree.isEmpty());
+        TreeAssertions.assertValid(tree, ORDER);
+    }
+
+    @Test
+    void insertingAnEqualEntryReplacesItInPlace() throws AVLTreeException {
+        AVLTree<String> tree = new AVLTree<>(Comparator.comparingInt(String::length));
+        tree.insert("one");
+        tree.insert("three");
+        tree.insert("two");
+        assertEquals(2, tree.size());
+        assertEquals("two", tree.retrieve("abc"));
+        tree.setFingerSearch(true);
+        tree.insert("six");
+        assertEquals(2, tree.size());
+        assertEquals("six", tree.retrieve("abc"));
+    }
+
+    @Test
+    void fingerSearchFindsWhatTheRootFinds() throws AVLTreeException {
+        AVLTree<Integer> tree = tree(true);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(36);
+        int key = 0;
+        for (int i = 0; i < 50000; i++) {
+            // mostly short hops, the accesses a finger is for, and some far jumps
+            key = random.nextInt(10) == 0 ? random.nextInt(5000) : Math.floorMod(key + random.nextInt(9) - 4, 5000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    tree.insert(key);
+                    expected.add(key);
+                }
+                case 1 -> {
+                    tree.remove(key);
+                    expected.remove(key);
+                }
+                default -> {
+                    assertEquals(expected.contains(key), tree.inTree(key));
+                    if (expected.contains(key)) {
+                        assertEquals(key, tree.retrieve(key));
+                    }
+                }
+            }
+        }
+        assertEquals(new ArrayList<>(expected), TreeAssertions.assertValid(tree, ORDER));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void fingerSearchGivesTheOriginalTrace(int code) throws IOException {
+        AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(code));
+        tree.setFingerSearch(true);
+        assertEquals(DendrologistTest.expectedTrace(code), DendrologistTest.trace(tree));
+    }
+}
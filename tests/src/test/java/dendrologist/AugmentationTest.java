@@ -0,0 +1,148 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the summaries of an augmented AVLTree stay up to date through
+ * inserts, removals and the rotations they cause, including for a summary
+ * whose combine is not commutative
+ *
+ * @author Matthew Benfield
+ * @see Augmentation, AVLTree
+ */
+class AugmentationTest {
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+    /**
+     * Concatenates the entries in order, so that a rotation that combines
+     * the summaries of its nodes in the wrong order changes the summary
+     */
+    private static final Augmentation<Integer, String> CONCATENATION = new Augmentation<>() {
+        @Override
+        public String identity() {
+            return "";
+        }
+
+        @Override
+        public String summarize(Integer entry) {
+            return entry + ",";
+        }
+
+        @Override
+        public String combine(String left, String right) {
+            return left + right;
+        }
+    };
+
+    private static String concatenate(List<Integer> entries) {
+        StringBuilder summary = new StringBuilder();
+        for (int entry : entries) {
+            summary.append(entry).append(',');
+        }
+        return summary.toString();
+    }
+
+    @Test
+    void summariesFollowEveryRotation() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<String> order = tree.augment(CONCATENATION);
+        // ascending inserts rotate at almost every other insert
+        for (int i = 0; i < 300; i++) {
+            tree.insert(i);
+            assertEquals(concatenate(TreeAssertions.assertValid(tree, ORDER)), order.total());
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(11));
+        for (int key : keys) {
+            tree.remove(key);
+            assertEquals(concatenate(TreeAssertions.assertValid(tree, ORDER)), order.total());
+        }
+        assertEquals("", order.total());
+    }
+
+    @Test
+    void rangesCombineTheirEntriesInOrder() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<String> order = tree.augment(CONCATENATION);
+        Random random = new Random(12);
+        for (int i = 0; i < 400; i++) {
+            tree.insert(2 * random.nextInt(500));
+        }
+        List<Integer> entries = TreeAssertions.assertValid(tree, ORDER);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(1000) - 1;
+            int to = from + random.nextInt(300);
+            List<Integer> range = new ArrayList<>();
+            for (int entry : entries) {
+                if (entry >= from && entry <= to) {
+                    range.add(entry);
+                }
+            }
+            assertEquals(concatenate(range), order.range(from, to));
+        }
+        assertEquals("", order.range(5, 3));
+    }
+
+    @Test
+    void theBuiltInSummaries() {
+        AVLTree<Integer> sums = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<Long> sum = sums.augment(Augmentation.sum(x -> x));
+        AVLTree<Integer> evens = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<Long> even = evens.augment(Augmentation.count(x -> x % 2 == 0));
+        AVLTree<Integer> mins = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<Integer> min = mins.augment(Augmentation.min(ORDER));
+        AVLTree<Integer> maxes = new AVLTree<>();
+        AVLTree<Integer>.Aggregates<Integer> max = maxes.augment(Augmentation.max(ORDER));
+        for (int i = 1; i <= 100; i++) {
+            sums.insert(i);
+            evens.insert(i);
+            mins.insert(i);
+            maxes.insert(i);
+        }
+        assertEquals(5050L, sum.total());
+        assertEquals(55L, sum.range(1, 10));
+        assertEquals(50L, even.total());
+        assertEquals(5L, even.range(1, 10));
+        assertEquals(1, min.total());
+        assertEquals(20, min.range(20, 30));
+        assertEquals(100, max.total());
+        assertEquals(30, max.range(20, 30));
+    }
+
+    @Test
+    void aMultisetCountsEveryOccurrence() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setMultiset(true);
+        AVLTree<Integer>.Aggregates<Long> sum = tree.augment(Augmentation.sum(x -> x));
+        for (int i = 1; i <= 10; i++) {
+            for (int copy = 0; copy < i; copy++) {
+                tree.insert(i);
+            }
+        }
+        assertEquals(385L, sum.total());
+        assertEquals(4L + 9L, sum.range(2, 3));
+        tree.removeOne(10);
+        assertEquals(375L, sum.total());
+        tree.remove(9);
+        assertEquals(294L, sum.total());
+    }
+
+    @Test
+    void onlyAnEmptyTreeCanBeAugmented() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.insert(1);
+        assertThrows(IllegalStateException.class, () -> tree.augment(Augmentation.sum(x -> x)));
+    }
+}
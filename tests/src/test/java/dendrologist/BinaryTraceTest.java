@@ -0,0 +1,178 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the round trip of commands through a binary trace written by
+ * TraceWriter and read by BinaryCommandReader, with and without the
+ * dictionary of keys, and the replay of a compiled trace
+ *
+ * @author Matthew Benfield
+ * @see TraceWriter, BinaryCommandReader
+ */
+class BinaryTraceTest {
+    @TempDir
+    File directory;
+
+    /**
+     * Generates commands of every type whose keys repeat, are long enough
+     * for their lengths to take several bytes, and are not all ASCII
+     */
+    private static List<Command> commands() {
+        Random random = new Random(51);
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            CommandType type = CommandType.values()[random.nextInt(CommandType.values().length)];
+            if (!type.hasKey()) {
+                commands.add(new Command(type, null));
+                continue;
+            }
+            String key = "k" + random.nextInt(1000);
+            if (random.nextInt(50) == 0) {
+                key += "é€😀";
+            } else if (random.nextInt(50) == 0) {
+                key += "x".repeat(200 + random.nextInt(20000));
+            }
+            commands.add(new Command(type, key));
+        }
+        return commands;
+    }
+
+    private static void assertSameCommands(List<Command> expected, CommandReader reader) {
+        for (Command command : expected) {
+            Command read = reader.next();
+            assertEquals(command.type(), read.type());
+            assertEquals(command.key(), read.key());
+        }
+        assertNull(reader.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void commandsRoundTrip(boolean dictionary) throws IOException {
+        List<Command> commands = commands();
+        File trace = new File(directory, "trace.bin");
+        try (TraceWriter writer = new TraceWriter(new FileOutputStream(trace), dictionary)) {
+            for (Command command : commands) {
+                writer.write(command);
+            }
+        }
+        assertTrue(BinaryCommandReader.isBinary(trace));
+        BinaryCommandReader reader = new BinaryCommandReader(trace);
+        try {
+            assertSameCommands(commands, reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void theDictionaryGivesEachKeyOnce() throws IOException {
+        ByteArrayOutputStream inline = new ByteArrayOutputStream();
+        ByteArrayOutputStream once = new ByteArrayOutputStream();
+        try (TraceWriter a = new TraceWriter(inline, false); TraceWriter b = new TraceWriter(once, true)) {
+            for (int i = 0; i < 100; i++) {
+                a.write(new Command(CommandType.GEN, "a-long-repeated-key"));
+                b.write(new Command(CommandType.GEN, "a-long-repeated-key"));
+            }
+        }
+        assertEquals(6 + 100 * (2 + 19), inline.size());
+        assertEquals(6 + 2 + 19 + 99 * 2, once.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void aCompiledTraceReplaysLikeItsCommandFile(boolean dictionary) throws IOException, AVLTreeException {
+        StringBuilder text = new StringBuilder();
+        for (Command command : commands()) {
+            if (command.key() == null || command.key().length() < 100) {
+                text.append(command).append('\n');
+            }
+        }
+        File source = new File(directory, "commands.avl");
+        Files.writeString(source.toPath(), text, StandardCharsets.UTF_8);
+        File trace = new File(directory, "commands.bin");
+        CommandReader reader = new CommandReader(new Scanner(source, StandardCharsets.UTF_8), source.getPath());
+        long compiled = TraceWriter.compile(reader, trace, dictionary);
+        assertEquals(text.toString().lines().count(), compiled);
+        assertFalse(BinaryCommandReader.isBinary(source));
+
+        ByteArrayOutputStream fromText = new ByteArrayOutputStream();
+        Dendrologist.replay(new CommandReader(new Scanner(source, StandardCharsets.UTF_8), source.getPath()),
+                new AVLTree<>(Dendrologist.<String>comparator(3)),
+                new PrintStream(fromText, true, StandardCharsets.UTF_8), null);
+        ByteArrayOutputStream fromTrace = new ByteArrayOutputStream();
+        BinaryCommandReader binary = new BinaryCommandReader(trace);
+        try {
+            Dendrologist.replay(binary, new AVLTree<>(Dendrologist.<String>comparator(3)),
+                    new PrintStream(fromTrace, true, StandardCharsets.UTF_8), null);
+        } finally {
+            binary.close();
+        }
+        assertEquals(fromText.toString(StandardCharsets.UTF_8), fromTrace.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aTraceOfAnotherVersionIsRejected() throws IOException {
+        File trace = new File(directory, "future.bin");
+        Files.write(trace.toPath(), new byte[] { 'D', 'N', 'D', 'T', TraceWriter.VERSION + 1, 0 });
+        assertTrue(BinaryCommandReader.isBinary(trace));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryCommandReader(trace));
+    }
+
+    @Test
+    void aRejectedTraceIsClosed() throws IOException {
+        assumeTrue(ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean);
+        UnixOperatingSystemMXBean os = (UnixOperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        File trace = new File(directory, "short.bin");
+        Files.write(trace.toPath(), new byte[] { 'D', 'N' });
+        long open = os.getOpenFileDescriptorCount();
+        for (int i = 0; i < 500; i++) {
+            assertThrows(IllegalArgumentException.class, () -> new BinaryCommandReader(trace));
+        }
+        assertTrue(os.getOpenFileDescriptorCount() < open + 100);
+    }
+
+    @Test
+    void aTruncatedTraceIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(bytes, true)) {
+            writer.write(new Command(CommandType.INSERT, "truncated"));
+        }
+        File trace = new File(directory, "truncated.bin");
+        byte[] whole = bytes.toByteArray();
+        Files.write(trace.toPath(), Arrays.copyOf(whole, whole.length - 3));
+        BinaryCommandReader reader = new BinaryCommandReader(trace);
+        try {
+            assertThrows(IllegalArgumentException.class, reader::next);
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests that CommandStream hands over each command as soon as it arrives,
+ * stops reading a producer that runs ahead of the executed commands, and
+ * rethrows a parsing error only after the commands that came before it
+ *
+ * @author Matthew Benfield
+ * @see CommandStream
+ */
+@Timeout(60)
+class CommandStreamTest {
+    @Test
+    void aFastProducerBlocksUntilItsCommandsAreTaken() throws Exception {
+        int commands = 20000;
+        PipedOutputStream pipe = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(pipe, 64);
+        AtomicInteger written = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            try (Writer out = new OutputStreamWriter(pipe, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < commands; i++) {
+                    out.write("insert k" + i + "\n");
+                    out.flush();
+                    written.incrementAndGet();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+        CommandStream stream = new CommandStream(new Scanner(in, StandardCharsets.UTF_8), "pipe", 4);
+
+        // nothing is taken, so the producer stops once the queue, the
+        // buffer of the scanner and the pipe are full
+        int stalled;
+        do {
+            stalled = written.get();
+            Thread.sleep(200);
+        } while (stalled == 0 || written.get() != stalled);
+        assertTrue(stalled < 1000, stalled + " commands were read ahead");
+
+        for (int i = 0; i < commands; i++) {
+            Command command = stream.next();
+            assertEquals(CommandType.INSERT, command.type());
+            assertEquals("k" + i, command.key());
+        }
+        assertNull(stream.next());
+        producer.join();
+        assertEquals(commands, written.get());
+    }
+
+    @Test
+    void aCommandArrivesBeforeTheStreamEnds() throws Exception {
+        PipedOutputStream pipe = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(pipe);
+        CommandStream stream = new CommandStream(new Scanner(in, StandardCharsets.UTF_8), "pipe", 16);
+        // the trailing space ends the key without ending the stream
+        pipe.write("gen oak ".getBytes(StandardCharsets.UTF_8));
+        pipe.flush();
+        Command command = stream.next();
+        assertEquals(CommandType.GEN, command.type());
+        assertEquals("oak", command.key());
+        pipe.close();
+        assertNull(stream.next());
+    }
+
+    @Test
+    void aParsingErrorFollowsTheCommandsBeforeIt() {
+        CommandStream stream = new CommandStream(new Scanner("insert a\ndelete b\ntraverse\nbogus c\ninsert d\n"),
+                "test", 1);
+        assertEquals("insert a", stream.next().toString());
+        assertEquals("delete b", stream.next().toString());
+        assertEquals(CommandType.TRAVERSE, stream.next().type());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, stream::next);
+        assertEquals("test <- Parsing Error", error.getMessage());
+        assertNull(stream.next());
+    }
+
+    @Test
+    void aStreamedReplayGivesTheOriginalTrace() throws IOException {
+        AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(1));
+        assertEquals(DendrologistTest.expectedTrace(1), DendrologistTest.trace((input, out) -> Dendrologist
+                .replay(new CommandStream(input, "strings.avl", 2), tree, out, null)));
+    }
+}
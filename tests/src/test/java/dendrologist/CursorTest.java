@@ -0,0 +1,116 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the queries that follow the parent links of AVLTree: successors,
+ * predecessors and cursors, which stay on their node as the tree changes
+ * around it
+ *
+ * @author Matthew Benfield
+ * @see AVLTree, TreeAssertions
+ */
+class CursorTest {
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+    private static AVLTree<Integer> tree(boolean finger) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setFingerSearch(finger);
+        return tree;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void parentLinksAgreeWithTheQueries(boolean finger) throws AVLTreeException {
+        AVLTree<Integer> tree = tree(finger);
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(random.nextInt(1000));
+        }
+        for (int i = 0; i < 200; i++) {
+            tree.remove(random.nextInt(1000));
+        }
+        List<Integer> entries = TreeAssertions.assertValid(tree, ORDER);
+        for (int i = 0; i < entries.size(); i++) {
+            int entry = entries.get(i);
+            assertEquals(i + 1 < entries.size() ? entries.get(i + 1) : null, tree.successor(entry));
+            assertEquals(i > 0 ? entries.get(i - 1) : null, tree.predecessor(entry));
+
+            AVLTree<Integer>.Cursor cursor = tree.cursor(entry);
+            int depth = 0;
+            Integer parent = null;
+            if (cursor.parent()) {
+                parent = cursor.entry();
+                depth++;
+                while (cursor.parent()) {
+                    depth++;
+                }
+            }
+            assertEquals(parent, tree.getParent(entry));
+            assertEquals(depth, tree.ancestors(entry));
+            for (int child : tree.getChildren(entry)) {
+                assertEquals(entry, tree.getParent(child));
+            }
+        }
+        assertNull(tree.successor(2000));
+        assertEquals(entries.get(entries.size() - 1), tree.predecessor(2000));
+    }
+
+    @Test
+    void cursorsStayOnTheirNodeThroughRotations() throws AVLTreeException {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.insert(0);
+        AVLTree<Integer>.Cursor cursor = tree.cursor(0);
+        for (int i = 1; i < 300; i++) {
+            tree.insert(i);
+        }
+        assertTrue(cursor.isValid());
+        assertEquals(0, cursor.entry());
+        AVLTree<Integer>.Cursor next = tree.cursor(0);
+        assertTrue(next.next());
+        assertEquals(1, next.entry());
+        assertFalse(cursor.previous());
+        assertFalse(cursor.isValid());
+        cursor = tree.cursor(0);
+        tree.remove(0);
+        assertFalse(cursor.isValid());
+    }
+
+    @Test
+    void cursorsWalkEveryEntryInOrder() throws AVLTreeException {
+        AVLTree<Integer> tree = new AVLTree<>();
+        assertFalse(tree.first().isValid());
+        assertFalse(tree.last().isValid());
+        Random random = new Random(37);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(random.nextInt(5000));
+        }
+        List<Integer> entries = TreeAssertions.assertValid(tree, ORDER);
+        List<Integer> forward = new ArrayList<>();
+        AVLTree<Integer>.Cursor cursor = tree.first();
+        do {
+            forward.add(cursor.entry());
+        } while (cursor.next());
+        assertEquals(entries, forward);
+        List<Integer> backward = new ArrayList<>();
+        cursor = tree.last();
+        do {
+            backward.add(0, cursor.entry());
+        } while (cursor.previous());
+        assertEquals(entries, backward);
+        assertThrows(AVLTreeException.class, () -> tree.cursor(5000));
+    }
+}
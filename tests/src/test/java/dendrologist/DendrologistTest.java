@@ -0,0 +1,94 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that Dendrologist replays the sample command file of the project
+ * with the trace the original single-file Dendrologist printed for it, under
+ * every order code, however its keys are stored. The expected traces are
+ * kept as resources.
+ *
+ * @author Matthew Benfield
+ * @see Dendrologist
+ */
+class DendrologistTest {
+    /**
+     * The sample command file of the project, which ends with a command that
+     * does not parse
+     */
+    private static final File STRINGS = new File(System.getProperty("dendrologist.strings", "../strings.avl"));
+
+    /**
+     * Gives the trace the original Dendrologist printed for the sample
+     * command file, with its line separators made \n
+     */
+    static String expectedTrace(int code) throws IOException {
+        try (InputStream in = DendrologistTest.class.getResourceAsStream("strings" + code + ".txt")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("\\R", "\n");
+        }
+    }
+
+    /**
+     * A replay of a command file into a trace
+     */
+    interface Replay {
+        void replay(Scanner input, PrintStream out) throws AVLTreeException;
+    }
+
+    /**
+     * Replays the sample command file, checking that it stops at the command
+     * that does not parse
+     *
+     * @return the trace, with its line separators made \n
+     */
+    static String trace(Replay replay) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        try (Scanner input = new Scanner(STRINGS)) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> replay.replay(input, out));
+            assertEquals("strings.avl <- Parsing Error", error.getMessage());
+        }
+        return bytes.toString(StandardCharsets.UTF_8).replaceAll("\\R", "\n");
+    }
+
+    /**
+     * Replays the sample command file against a tree
+     */
+    static String trace(AVLTree<String> tree) throws IOException {
+        return trace((input, out) -> Dendrologist.replay(input, tree, out, "strings.avl"));
+    }
+
+    /**
+     * Replays the sample command file against a tree of keys stored in a
+     * string arena
+     */
+    static String compactTrace(AVLTree<CompactKey> tree) throws IOException {
+        StringArena arena = new StringArena();
+        return trace((input, out) -> Dendrologist.replay(input, tree, arena, out, "strings.avl", null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void theTraceOfTheSampleIsTheOriginalTrace(int code) throws IOException {
+        assertEquals(expectedTrace(code), trace(new AVLTree<>(Dendrologist.<String>comparator(code))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void compactKeysGiveTheOriginalTrace(int code) throws IOException {
+        assertEquals(expectedTrace(code), compactTrace(new AVLTree<>(Dendrologist.<CompactKey>comparator(code))));
+    }
+}
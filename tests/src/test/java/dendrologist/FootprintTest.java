@@ -0,0 +1,144 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a Footprint adds up its components, that every entry is measured
+ * when there are as many samples as entries, and that a sampled estimate
+ * stays close to the measured one for live and frozen trees
+ *
+ * @author Matthew Benfield
+ * @see Footprint, AVLTree, FrozenAVLTree
+ */
+class FootprintTest {
+    /**
+     * Gives strings of random lengths, so that sampling has sizes to average
+     */
+    private static List<String> words(int count) {
+        List<String> words = new ArrayList<>();
+        Random random = new Random(47);
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder("w" + i);
+            for (int length = random.nextInt(60); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static AVLTree<String> tree(List<String> words) {
+        AVLTree<String> tree = new AVLTree<>();
+        for (String word : words) {
+            tree.insert(word);
+        }
+        return tree;
+    }
+
+    private static long total(Footprint footprint) {
+        return footprint.nodes() + footprint.balanceFactors() + footprint.entries() + footprint.values()
+                + footprint.summaries() + footprint.auxiliary();
+    }
+
+    @Test
+    void enoughSamplesMeasureEveryEntry() {
+        List<String> words = words(5000);
+        AVLTree<String> tree = tree(words);
+        long entries = 0;
+        for (String word : words) {
+            entries += Footprint.sizeOf(word);
+        }
+        Footprint exact = tree.footprint();
+        assertTrue(exact.isExact());
+        assertEquals(5000, exact.sampled());
+        assertEquals(entries, exact.entries());
+        assertEquals(5000L * Footprint.REFERENCE, exact.balanceFactors());
+        assertEquals(0, exact.values());
+        assertEquals(0, exact.summaries());
+        assertEquals(0, exact.auxiliary());
+        assertEquals(total(exact), exact.total());
+        assertEquals(exact.toString(), tree.footprint(5000).toString());
+        assertEquals(exact.toString(), tree.footprint(Integer.MAX_VALUE).toString());
+    }
+
+    @Test
+    void aSampledEstimateIsCloseToTheMeasure() {
+        AVLTree<String> tree = tree(words(20000));
+        Footprint exact = tree.footprint();
+        Footprint sampled = tree.footprint(300);
+        assertFalse(sampled.isExact());
+        assertEquals(300, sampled.sampled());
+        assertEquals(total(sampled), sampled.total());
+        // only the entries are estimated; the nodes follow from their count
+        assertEquals(exact.nodes(), sampled.nodes());
+        assertEquals(exact.balanceFactors(), sampled.balanceFactors());
+        assertEquals(exact.entries(), sampled.entries(), 0.05 * exact.entries());
+        assertEquals(exact.toString(), tree.footprint().toString());
+    }
+
+    @Test
+    void aFrozenTreeHasNoBalanceFactors() {
+        AVLTree<String> tree = tree(words(20000));
+        Footprint live = tree.footprint();
+        FrozenAVLTree<String> frozen = tree.freeze();
+        Footprint exact = frozen.footprint();
+        assertTrue(exact.isExact());
+        assertEquals(0, exact.balanceFactors());
+        assertEquals(live.entries(), exact.entries());
+        assertEquals(total(exact), exact.total());
+        assertTrue(exact.total() < live.total(), exact + " against " + live);
+
+        Footprint sampled = frozen.footprint(300);
+        assertFalse(sampled.isExact());
+        assertEquals(exact.nodes(), sampled.nodes());
+        assertEquals(exact.entries(), sampled.entries(), 0.05 * exact.entries());
+    }
+
+    @Test
+    void theValuesAndTheAuxiliaryStructuresAreCounted() {
+        AVLTreeMap<Integer, Long> map = new AVLTreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, (long) i);
+        }
+        Footprint footprint = map.footprint();
+        assertEquals(1000 * Footprint.sizeOf(0L), footprint.values());
+        assertEquals(0, footprint.auxiliary());
+        map.enableLookupCache(64);
+        assertTrue(map.footprint().auxiliary() > 0);
+        assertEquals(footprint.total() + map.footprint().auxiliary(), map.footprint().total());
+
+        StringArena arena = new StringArena();
+        AVLTree<CompactKey> compact = new AVLTree<>();
+        for (String word : words(1000)) {
+            compact.insert(arena.intern(word));
+        }
+        assertEquals(arena.footprint(), compact.footprint().auxiliary());
+        assertEquals(arena.footprint(), compact.freeze().footprint().auxiliary());
+    }
+
+    @Test
+    void anEmptyTreeTakesNoEntries() {
+        Footprint empty = new AVLTree<String>().footprint();
+        assertTrue(empty.isExact());
+        assertEquals(0, empty.nodes());
+        assertEquals(0, empty.entries());
+        assertEquals(0, empty.total());
+        assertTrue(new AVLTree<String>().freeze().footprint().isExact());
+    }
+
+    @Test
+    void aSampleMustNotBeEmpty() {
+        AVLTree<String> tree = tree(words(10));
+        assertThrows(IllegalArgumentException.class, () -> tree.footprint(0));
+        assertThrows(IllegalArgumentException.class, () -> tree.freeze().footprint(-1));
+    }
+}
@@ -0,0 +1,143 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a FrozenAVLTree compiled by freeze answers every query as the
+ * tree it was compiled from, with the same shape, and that its ranges and
+ * subtree sizes are those of the entries
+ *
+ * @author Matthew Benfield
+ * @see FrozenAVLTree, AVLTree
+ */
+class FrozenAVLTreeTest {
+    /**
+     * Counts the entries of the subtree of an entry through its children
+     */
+    private static int subtreeSize(AVLTree<Integer> tree, int entry) throws AVLTreeException {
+        int size = 1;
+        for (int child : tree.getChildren(entry)) {
+            size += subtreeSize(tree, child);
+        }
+        return size;
+    }
+
+    /**
+     * Gives the root of a frozen tree: the one entry without a parent
+     */
+    private static int rootOf(FrozenAVLTree<Integer> frozen, TreeSet<Integer> entries) throws AVLTreeException {
+        for (int entry : entries) {
+            if (frozen.getParent(entry) == null) {
+                return entry;
+            }
+        }
+        throw new AssertionError("no root");
+    }
+
+    private static AVLTree<Integer> randomTree(TreeSet<Integer> entries) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        Random random = new Random(41);
+        for (int i = 0; i < 4000; i++) {
+            int key = random.nextInt(6000);
+            if (random.nextInt(4) == 0) {
+                tree.remove(key);
+                entries.remove(key);
+            } else {
+                tree.insert(key);
+                entries.add(key);
+            }
+        }
+        return tree;
+    }
+
+    @Test
+    void aFrozenTreeHasTheShapeOfItsSource() throws AVLTreeException {
+        TreeSet<Integer> entries = new TreeSet<>();
+        AVLTree<Integer> tree = randomTree(entries);
+        FrozenAVLTree<Integer> frozen = tree.freeze();
+        assertEquals(tree.size(), frozen.size());
+        assertEquals(tree.height(), frozen.height());
+        List<Integer> traversed = new ArrayList<>();
+        frozen.traverse(x -> traversed.add((Integer) x));
+        assertEquals(new ArrayList<>(entries), traversed);
+
+        for (int entry : entries) {
+            assertTrue(frozen.inTree(entry));
+            assertEquals(entry, frozen.retrieve(entry));
+            assertEquals(Optional.of(entry), frozen.find(entry));
+            assertEquals(tree.getParent(entry), frozen.getParent(entry));
+            assertEquals(tree.getChildren(entry), frozen.getChildren(entry));
+            assertEquals(tree.ancestors(entry), frozen.ancestors(entry));
+            assertEquals(subtreeSize(tree, entry) - 1, frozen.descendants(entry));
+
+            Genealogy<Integer> expected = tree.genealogy(entry).get();
+            Genealogy<Integer> actual = frozen.genealogy(entry).get();
+            assertEquals(expected.parent(), actual.parent());
+            assertEquals(expected.left(), actual.left());
+            assertEquals(expected.right(), actual.right());
+            assertEquals(expected.ancestors(), actual.ancestors());
+            assertEquals(frozen.descendants(entry), actual.descendants());
+        }
+        assertEquals(entries.size() - 1, frozen.descendants(rootOf(frozen, entries)));
+    }
+
+    @Test
+    void aMissingEntryIsNotFound() {
+        TreeSet<Integer> entries = new TreeSet<>();
+        FrozenAVLTree<Integer> frozen = randomTree(entries).freeze();
+        int missing = -1;
+        assertFalse(frozen.inTree(missing));
+        assertEquals(Optional.empty(), frozen.find(missing));
+        assertEquals(Optional.empty(), frozen.genealogy(missing));
+        assertThrows(AVLTreeException.class, () -> frozen.retrieve(missing));
+        assertThrows(AVLTreeException.class, () -> frozen.getParent(missing));
+        assertThrows(AVLTreeException.class, () -> frozen.descendants(missing));
+    }
+
+    @Test
+    void rangesCountTheEntriesBetweenTheirEnds() {
+        TreeSet<Integer> entries = new TreeSet<>();
+        FrozenAVLTree<Integer> frozen = randomTree(entries).freeze();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int from = random.nextInt(6200) - 100;
+            int to = from + random.nextInt(1000) - 100;
+            List<Integer> expected = from > to ? List.of() : new ArrayList<>(entries.subSet(from, true, to, true));
+            assertEquals(expected, frozen.range(from, to), from + " to " + to);
+            assertEquals(expected.size(), frozen.rangeSize(from, to), from + " to " + to);
+        }
+        assertEquals(entries.size(), frozen.rangeSize(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void aFrozenTreeIsASnapshot() throws AVLTreeException {
+        AVLTree<String> tree = new AVLTree<>(Comparator.comparingInt(String::length));
+        tree.insert("oak");
+        tree.insert("pine");
+        FrozenAVLTree<String> frozen = tree.freeze();
+        tree.remove("oak");
+        tree.insert("maple");
+        assertEquals(2, frozen.size());
+        // the frozen tree keeps the order of its source
+        assertEquals("oak", frozen.retrieve("abc"));
+        assertFalse(frozen.inTree("maple"));
+
+        FrozenAVLTree<String> empty = new AVLTree<String>().freeze();
+        assertTrue(empty.isEmpty());
+        assertEquals(-1, empty.height());
+        assertEquals(List.of(), empty.range("a", "z"));
+        assertEquals(0, empty.rangeSize("a", "z"));
+    }
+}
@@ -0,0 +1,85 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the lookups that do not throw for a missing entry: find and
+ * genealogy, which answer as retrieve, getParent, getChildren and ancestors
+ * do, and the trace of a gen command, which keeps the descendant count of the
+ * original Dendrologist
+ *
+ * @author Matthew Benfield
+ * @see Genealogy, AVLTree, EntryNotFoundException
+ */
+class GenealogyTest {
+    @Test
+    void aGenealogyAnswersAsTheQueries() throws AVLTreeException {
+        AVLTree<Integer> tree = new AVLTree<>();
+        TreeSet<Integer> entries = new TreeSet<>();
+        Random random = new Random(44);
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(4000);
+            if (random.nextInt(3) == 0) {
+                tree.remove(key);
+                entries.remove(key);
+            } else {
+                tree.insert(key);
+                entries.add(key);
+            }
+        }
+        for (int entry : entries) {
+            Genealogy<Integer> gen = tree.genealogy(entry).get();
+            assertEquals(tree.getParent(entry), gen.parent());
+            List<Integer> children = tree.getChildren(entry);
+            int left = gen.left() == null ? 0 : 1;
+            assertEquals(children.size(), left + (gen.right() == null ? 0 : 1));
+            if (gen.left() != null) {
+                assertEquals(children.get(0), gen.left());
+            }
+            if (gen.right() != null) {
+                assertEquals(children.get(left), gen.right());
+            }
+            assertEquals(tree.ancestors(entry), gen.ancestors());
+            assertEquals(tree.descendants(entry), gen.descendants());
+            assertEquals(Optional.of(entry), tree.find(entry));
+        }
+    }
+
+    @Test
+    void aMissingEntryHasNoGenealogy() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        assertEquals(Optional.empty(), tree.genealogy(1));
+        assertThrows(EntryNotFoundException.class, () -> tree.retrieve(1));
+        tree.insert(2);
+        assertEquals(Optional.empty(), tree.genealogy(1));
+        assertEquals(Optional.empty(), tree.find(1));
+        EntryNotFoundException miss = assertThrows(EntryNotFoundException.class, () -> tree.retrieve(1));
+        // a miss is an expected outcome, not worth a stack trace
+        assertEquals(0, miss.getStackTrace().length);
+        assertThrows(EntryNotFoundException.class, () -> tree.getParent(1));
+    }
+
+    @Test
+    void theTraceOfGenKeepsTheOriginalDescendantCount() {
+        AVLTree<String> tree = new AVLTree<>();
+        tree.insert("b");
+        tree.insert("a");
+        tree.insert("c");
+        // the original Dendrologist counted no descendants, and traced an
+        // entry with two children twice
+        assertEquals("Geneology: b\nparent = null, left-child = a, right-child = c\n#ancestors = 0, #descendants = 0\n"
+                + "\nparent = null, left-child = NONE, right-child = NONE\n#ancestors = 0, #descendants = 0\n",
+                Dendrologist.genealogy(tree, "b").replaceAll("\\R", "\n"));
+        assertEquals("Geneology: a\nparent = b, left-child = NONE, right-child = NONE\n"
+                + "#ancestors = 1, #descendants = 0\n", Dendrologist.genealogy(tree, "a").replaceAll("\\R", "\n"));
+        assertEquals("Geneology: z UNDEFINED\n", Dendrologist.genealogy(tree, "z").replaceAll("\\R", "\n"));
+    }
+}
@@ -0,0 +1,121 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the percentiles of LatencyHistogram against the exact percentiles of
+ * the recorded values, which they must match within the 12.5% width of a
+ * bucket
+ *
+ * @author Matthew Benfield
+ * @see LatencyHistogram
+ */
+class LatencyHistogramTest {
+    /**
+     * Gives the exact percentile of sorted values, by the same nearest rank
+     * the histogram uses
+     */
+    private static long exact(long[] sorted, double percent) {
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * sorted.length));
+        return sorted[(int) rank - 1];
+    }
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 8, actual + " should be within 12.5% of " + expected);
+    }
+
+    @Test
+    void percentilesAreWithinABucketOfTheRecordedValues() {
+        Random random = new Random(29);
+        long[] values = new long[100000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            // latencies spread over several orders of magnitude, with a long tail
+            values[i] = (long) Math.exp(4 + 12 * Math.pow(random.nextDouble(), 3));
+            histogram.record(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+        for (double percent : new double[] { 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99 }) {
+            assertClose(exact(values, percent), histogram.percentile(percent));
+        }
+        assertEquals(values.length, histogram.count());
+        assertEquals(sum, histogram.total());
+        assertEquals(values[0], histogram.min());
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+        assertEquals((double) sum / values.length, histogram.mean(), 1e-6);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 8; i++) {
+            histogram.record(i);
+        }
+        assertEquals(0, histogram.percentile(10));
+        assertEquals(3, histogram.percentile(50));
+        assertEquals(7, histogram.percentile(100));
+    }
+
+    @Test
+    void aPercentileStaysWithinTheRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.record(1001);
+        // both fall in one bucket, whose upper bound is past the largest value
+        assertEquals(1001, histogram.percentile(1));
+        assertEquals(1001, histogram.percentile(100));
+        histogram.record(9);
+        assertEquals(9, histogram.percentile(1));
+    }
+
+    @Test
+    void anEmptyHistogramReportsZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.min());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+        histogram.record(-5);
+        assertEquals(1, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    @Test
+    void histogramsAddUpAndReset() {
+        LatencyHistogram low = new LatencyHistogram();
+        LatencyHistogram high = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            low.record(i);
+            high.record(1000 * i);
+        }
+        LatencyHistogram both = low.copy();
+        both.add(high);
+        assertEquals(100, low.count());
+        assertEquals(200, both.count());
+        assertEquals(1, both.min());
+        assertEquals(100000, both.max());
+        assertClose(100, both.percentile(50));
+        assertClose(50000, both.percentile(75));
+
+        LatencyHistogram.Summary summary = both.summary();
+        assertEquals(200, summary.getCount());
+        assertEquals(both.percentile(50), summary.getP50());
+        assertEquals(both.percentile(99.9), summary.getP999());
+        assertEquals(100000, summary.getMax());
+
+        both.reset();
+        assertEquals(0, both.count());
+        assertEquals(0, both.percentile(99));
+        assertEquals(100, low.count());
+    }
+}
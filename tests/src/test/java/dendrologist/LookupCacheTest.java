@@ -0,0 +1,140 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that the lookup cache of an AVL tree counts its hits and misses, that
+ * a slot left stale by a removal misses instead of answering, and that a
+ * cached tree answers and traces as an uncached one
+ *
+ * @author Matthew Benfield
+ * @see LookupCache, AVLTree
+ */
+class LookupCacheTest {
+    private static AVLTree<Integer> cached(int size, int capacity) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < size; i++) {
+            tree.insert(i);
+        }
+        tree.enableLookupCache(capacity);
+        return tree;
+    }
+
+    @Test
+    void repeatedLookupsHit() throws AVLTreeException {
+        AVLTree<Integer> tree = cached(100, 64);
+        LookupCache<Integer> cache = tree.lookupCache();
+        assertTrue(tree.inTree(5));
+        assertEquals(0, cache.hits());
+        assertEquals(1, cache.misses());
+        assertTrue(tree.inTree(5));
+        assertEquals(5, tree.retrieve(5));
+        assertEquals(2, cache.hits());
+        // a missing key descends the tree every time
+        assertFalse(tree.inTree(500));
+        assertFalse(tree.inTree(500));
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+        assertEquals(0.4, cache.hitRate(), 1e-9);
+
+        cache.resetStatistics();
+        assertEquals(0, cache.hits());
+        assertEquals(0.0, cache.hitRate());
+        cache.clear();
+        assertTrue(tree.inTree(5));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void aRemovedEntryIsNotAnsweredFromItsSlot() throws AVLTreeException {
+        AVLTree<Integer> tree = cached(100, 256);
+        LookupCache<Integer> cache = tree.lookupCache();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(tree.inTree(i));
+        }
+        // the root has two children, so its successor takes its place
+        List<Integer> preorder = new ArrayList<>();
+        tree.preorderTraverse(x -> preorder.add((Integer) x));
+        int root = preorder.get(0);
+        int successor = root + 1;
+        tree.remove(root);
+        tree.remove(7);
+        cache.resetStatistics();
+        assertFalse(tree.inTree(root));
+        assertFalse(tree.inTree(7));
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+        assertTrue(tree.inTree(successor));
+        assertEquals(successor, tree.retrieve(successor));
+        assertThrows(AVLTreeException.class, () -> tree.retrieve(7));
+        TreeAssertions.assertValid(tree, Integer::compare);
+    }
+
+    @Test
+    void collidingKeysEvictEachOther() {
+        AVLTree<Integer> tree = cached(10, 1);
+        assertEquals(1, tree.lookupCache().capacity());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(tree.inTree(i % 2));
+        }
+        assertEquals(0, tree.lookupCache().hits());
+        assertEquals(10, tree.lookupCache().misses());
+    }
+
+    @Test
+    void theCapacityIsAPowerOfTwo() {
+        assertEquals(16, cached(0, 10).lookupCache().capacity());
+        assertEquals(16, cached(0, 16).lookupCache().capacity());
+        assertThrows(IllegalArgumentException.class, () -> cached(0, 0));
+    }
+
+    @Test
+    void aCachedTreeAnswersAsTheEntries() throws AVLTreeException {
+        Random random = new Random(35);
+        AVLTree<Integer> tree = cached(0, 8);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(40);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    tree.insert(key);
+                    expected.add(key);
+                }
+                case 1 -> {
+                    tree.remove(key);
+                    expected.remove(key);
+                }
+                default -> {
+                    assertEquals(expected.contains(key), tree.inTree(key));
+                    if (expected.contains(key)) {
+                        assertEquals(key, tree.retrieve(key));
+                    }
+                }
+            }
+        }
+        assertTrue(tree.lookupCache().hits() > 0);
+        TreeAssertions.assertValid(tree, Integer::compare);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void cachedLookupsGiveTheOriginalTrace(int code) throws IOException {
+        AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(code));
+        tree.enableLookupCache(8, Dendrologist.keyHash(code));
+        assertEquals(DendrologistTest.expectedTrace(code), DendrologistTest.trace(tree));
+        assertTrue(tree.lookupCache().hits() + tree.lookupCache().misses() > 0);
+    }
+}
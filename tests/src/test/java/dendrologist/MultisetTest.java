@@ -0,0 +1,129 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the accounting of occurrences of an AVLTree in multiset mode: size
+ * counts distinct entries, occurrences counts them all, removeOne removes a
+ * single occurrence and remove removes them all
+ *
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+class MultisetTest {
+    @Test
+    void occurrencesAreCountedPerEntry() throws AVLTreeException {
+        AVLTree<String> tree = new AVLTree<>();
+        tree.setMultiset(true);
+        assertTrue(tree.isMultiset());
+        tree.insert("b");
+        tree.insert("a");
+        tree.insert("b");
+        tree.insert("b");
+        assertEquals(2, tree.size());
+        assertEquals(4, tree.occurrences());
+        assertEquals(3, tree.count("b"));
+        assertEquals(1, tree.count("a"));
+        assertEquals(0, tree.count("c"));
+
+        assertTrue(tree.removeOne("b"));
+        assertEquals(2, tree.count("b"));
+        assertEquals(3, tree.occurrences());
+        assertTrue(tree.removeOne("a"));
+        assertFalse(tree.inTree("a"));
+        assertEquals(1, tree.size());
+        assertFalse(tree.removeOne("a"));
+        assertEquals(2, tree.occurrences());
+
+        tree.remove("b");
+        assertTrue(tree.isEmpty());
+        assertEquals(0, tree.occurrences());
+        assertThrows(AVLTreeException.class, () -> tree.retrieve("b"));
+    }
+
+    @Test
+    void theEntryFirstInsertedIsKept() throws AVLTreeException {
+        AVLTree<String> tree = new AVLTree<>(Comparator.comparingInt(String::length));
+        tree.setMultiset(true);
+        tree.insert("one");
+        tree.insert("two");
+        tree.insert("six");
+        assertEquals(1, tree.size());
+        assertEquals(3, tree.count("abc"));
+        assertEquals("one", tree.retrieve("abc"));
+    }
+
+    @Test
+    void outsideMultisetModeAnEntryCountsOnce() {
+        AVLTree<String> tree = new AVLTree<>();
+        tree.insert("a");
+        tree.insert("a");
+        assertEquals(1, tree.count("a"));
+        assertEquals(1, tree.occurrences());
+        assertTrue(tree.removeOne("a"));
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    void theModeChangesOnlyWhileEmpty() {
+        AVLTree<String> tree = new AVLTree<>();
+        tree.insert("a");
+        assertThrows(IllegalStateException.class, () -> tree.setMultiset(true));
+        tree.remove("a");
+        tree.setMultiset(true);
+        assertTrue(tree.isMultiset());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "plain", "finger", "cache" })
+    void randomOccurrencesMatchACountingMap(String mode) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setMultiset(true);
+        tree.setFingerSearch(mode.equals("finger"));
+        if (mode.equals("cache")) {
+            tree.enableLookupCache(32);
+        }
+        Map<Integer, Integer> counts = new HashMap<>();
+        int occurrences = 0;
+        Random random = new Random(21);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(200);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                tree.insert(key);
+                counts.merge(key, 1, Integer::sum);
+                occurrences++;
+            } else if (op < 9) {
+                boolean present = counts.containsKey(key);
+                assertEquals(present, tree.removeOne(key));
+                if (present) {
+                    counts.computeIfPresent(key, (k, c) -> c > 1 ? c - 1 : null);
+                    occurrences--;
+                }
+            } else {
+                Integer removed = counts.remove(key);
+                tree.remove(key);
+                occurrences -= removed == null ? 0 : removed;
+            }
+            assertEquals(counts.getOrDefault(key, 0), tree.count(key));
+        }
+        assertEquals(counts.size(), tree.size());
+        assertEquals(occurrences, tree.occurrences());
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            assertEquals(entry.getValue(), tree.count(entry.getKey()));
+        }
+        TreeAssertions.assertValid(tree, Comparator.naturalOrder());
+    }
+}
@@ -0,0 +1,180 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests the mutations an AVLTree reports to its listener, and their delivery
+ * through the ring buffer of AsyncMutationListener: in order, whole, across
+ * the wrap-around of a ring smaller than a batch, and with the failures of
+ * the downstream listener surfacing on the mutating thread
+ *
+ * @author Matthew Benfield
+ * @see MutationListener, AsyncMutationListener
+ */
+@Timeout(60)
+class MutationListenerTest {
+    /**
+     * Records every mutation it receives as a line of text
+     */
+    private static final class Recorder implements MutationListener<Integer> {
+        final List<String> mutations = new ArrayList<>();
+
+        @Override
+        public void mutated(MutationBatch<? extends Integer> batch) {
+            for (int i = 0; i < batch.size(); i++) {
+                mutations.add(batch.type(i) + " " + batch.entry(i) + " " + batch.other(i) + " " + batch.delta(i));
+            }
+        }
+    }
+
+    /**
+     * Runs the same random inserts and removals against a tree
+     */
+    private static void mutate(AVLTree<Integer> tree) {
+        Random random = new Random(41);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(500);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                tree.insert(key);
+            } else if (op < 8 && tree.isMultiset()) {
+                tree.removeOne(key);
+            } else {
+                tree.remove(key);
+            }
+        }
+        tree.flushMutations();
+    }
+
+    /**
+     * Rebuilds the occurrences of the entries of a tree from its mutations
+     */
+    private static TreeMap<Integer, Integer> replay(List<String> mutations) {
+        TreeMap<Integer, Integer> view = new TreeMap<>();
+        for (String mutation : mutations) {
+            String[] fields = mutation.split(" ");
+            if (!fields[0].equals(MutationType.ROTATE.name())) {
+                int entry = Integer.parseInt(fields[1]);
+                view.merge(entry, Integer.parseInt(fields[3]), Integer::sum);
+                view.remove(entry, 0);
+            }
+        }
+        return view;
+    }
+
+    private static TreeMap<Integer, Integer> occurrences(AVLTree<Integer> tree) {
+        TreeMap<Integer, Integer> occurrences = new TreeMap<>();
+        for (int entry : TreeAssertions.assertValid(tree, Comparator.naturalOrder())) {
+            occurrences.put(entry, tree.count(entry));
+        }
+        return occurrences;
+    }
+
+    @Test
+    void theMutationsRebuildTheTree() {
+        for (boolean multiset : new boolean[] { false, true }) {
+            AVLTree<Integer> tree = new AVLTree<>();
+            tree.setMultiset(multiset);
+            Recorder recorder = new Recorder();
+            tree.setMutationListener(recorder, 37);
+            mutate(tree);
+            assertEquals(occurrences(tree), replay(recorder.mutations));
+            assertTrue(recorder.mutations.stream().anyMatch(m -> m.startsWith("ROTATE")));
+            assertEquals(multiset, recorder.mutations.stream().anyMatch(m -> m.startsWith("COUNT")));
+            assertEquals(!multiset, recorder.mutations.stream().anyMatch(m -> m.startsWith("REPLACE")));
+        }
+    }
+
+    @Test
+    void theRingDeliversEveryMutationInOrder() {
+        AVLTree<Integer> direct = new AVLTree<>();
+        direct.setMultiset(true);
+        Recorder expected = new Recorder();
+        direct.setMutationListener(expected, 37);
+        mutate(direct);
+
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setMultiset(true);
+        Recorder recorder = new Recorder();
+        // a ring smaller than a batch wraps around within every batch, and
+        // the mutating thread waits for room
+        try (AsyncMutationListener<Integer> ring = new AsyncMutationListener<>(recorder, 5)) {
+            tree.setMutationListener(ring, 37);
+            mutate(tree);
+            ring.awaitDelivery();
+            assertEquals(expected.mutations, recorder.mutations);
+        }
+        assertEquals(occurrences(tree), replay(recorder.mutations));
+    }
+
+    @Test
+    void closeDeliversThePublishedMutations() {
+        Recorder recorder = new Recorder();
+        AsyncMutationListener<Integer> ring = new AsyncMutationListener<>(recorder, 1024);
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.setMutationListener(ring, 8);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i);
+        }
+        tree.flushMutations();
+        ring.close();
+        assertEquals(1000, recorder.mutations.stream().filter(m -> m.startsWith("INSERT")).count());
+        assertThrows(IllegalStateException.class, () -> {
+            tree.insert(1000);
+            tree.flushMutations();
+        });
+    }
+
+    @Test
+    void aFailingListenerFailsTheMutatingThread() {
+        for (Throwable thrown : new Throwable[] { new IllegalArgumentException("bad"), new StackOverflowError() }) {
+            MutationListener<Integer> failing = batch -> {
+                if (thrown instanceof Error) {
+                    throw (Error) thrown;
+                }
+                throw (RuntimeException) thrown;
+            };
+            AsyncMutationListener<Integer> ring = new AsyncMutationListener<>(failing, 4);
+            AVLTree<Integer> tree = new AVLTree<>();
+            tree.setMutationListener(ring, 1);
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () -> {
+                for (int i = 0; i < 100; i++) {
+                    tree.insert(i);
+                }
+            });
+            assertSame(thrown, failure.getCause());
+            IllegalStateException onClose = assertThrows(IllegalStateException.class, ring::close);
+            assertSame(thrown, onClose.getCause());
+        }
+    }
+
+    @Test
+    void closeKeepsTheInterruptOfTheCallingThread() {
+        AsyncMutationListener<Integer> ring = new AsyncMutationListener<>(batch -> {
+        }, 4);
+        Thread.currentThread().interrupt();
+        ring.close();
+        assertTrue(Thread.interrupted());
+        ring.close();
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void aRingNeedsRoom() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncMutationListener<Integer>(batch -> {
+        }, 0));
+    }
+}
@@ -0,0 +1,179 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests ParallelReplay against the sequential replay of Dendrologist: with a
+ * single partition the traces are identical, and with several partitions,
+ * split by hash or by ranges of keys, the commands, the in-order traversals,
+ * the sizes and whether each gen finds its key are the same
+ *
+ * @author Matthew Benfield
+ * @see ParallelReplay, Dendrologist
+ */
+@Timeout(120)
+class ParallelReplayTest {
+    /**
+     * The sample command file of the project, which ends with a command that
+     * does not parse
+     */
+    private static final File STRINGS = new File(System.getProperty("dendrologist.strings", "../strings.avl"));
+    private static final int ORDER_CODE = 1;
+
+    /**
+     * Replays a command file against a single tree
+     */
+    private static String sequential(Scanner input) throws AVLTreeException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        try {
+            Dendrologist.replay(input, new AVLTree<>(Dendrologist.<String>comparator(ORDER_CODE)), out, "test");
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replays a command file across partitions
+     */
+    private static String parallel(Scanner input, int partitions, boolean byRange, int queueCapacity)
+            throws AVLTreeException, InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        ParallelReplay replay = new ParallelReplay(partitions, Dendrologist.comparator(ORDER_CODE),
+                byRange ? null : Dendrologist.keyHash(ORDER_CODE), queueCapacity);
+        try {
+            replay.replay(new CommandReader(input, "test"), out);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+        }
+        for (AVLTree<String> partition : replay.partitions()) {
+            TreeAssertions.assertValid(partition, Dendrologist.comparator(ORDER_CODE));
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Keeps the lines of a trace that do not depend on how the keys are
+     * partitioned: the inserts and deletes, the in-order traversals, the
+     * sizes, and the first line of each genealogy
+     */
+    private static List<String> independentOfPartitions(String trace) {
+        List<String> kept = new ArrayList<>();
+        boolean inorder = false;
+        for (String line : trace.split("\\R")) {
+            if (line.startsWith("Pre-Order") || line.startsWith("Post-Order")) {
+                inorder = false;
+            } else if (line.startsWith("In-Order")) {
+                inorder = true;
+            }
+            if (inorder || line.startsWith("Inserted") || line.startsWith("Deleted")
+                    || line.startsWith("Geneology") || line.endsWith("Parsing Error")) {
+                kept.add(line);
+            } else if (line.startsWith("size = ")) {
+                kept.add(line.substring(0, line.indexOf(',')));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Generates a command file of random commands
+     */
+    private static String commands(long seed, int count) {
+        Random random = new Random(seed);
+        StringBuilder commands = new StringBuilder();
+        String[] words = { "insert", "insert", "insert", "delete", "gen" };
+        for (int i = 0; i < count; i++) {
+            int op = random.nextInt(100);
+            if (op == 0) {
+                commands.append("traverse\n");
+            } else if (op < 3) {
+                commands.append("props\n");
+            } else {
+                commands.append(words[random.nextInt(words.length)]).append(' ').append("k")
+                        .append(random.nextInt(2000)).append('\n');
+            }
+        }
+        return commands.toString();
+    }
+
+    @Test
+    void aSinglePartitionTracesLikeTheSequentialReplay() throws Exception {
+        assertEquals(sequential(new Scanner(STRINGS)), parallel(new Scanner(STRINGS), 1, false, 16));
+        String commands = commands(1, 20000);
+        assertEquals(sequential(new Scanner(commands)), parallel(new Scanner(commands), 1, true, 16));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void partitionsAgreeWithTheSequentialReplayOfStrings(boolean byRange) throws Exception {
+        List<String> expected = independentOfPartitions(sequential(new Scanner(STRINGS)));
+        assertEquals("test <- Parsing Error", expected.get(expected.size() - 1));
+        for (int partitions = 2; partitions <= 4; partitions++) {
+            assertEquals(expected, independentOfPartitions(parallel(new Scanner(STRINGS), partitions, byRange, 4)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void partitionsAgreeWithTheSequentialReplayOfRandomCommands(boolean byRange) throws Exception {
+        String commands = commands(2, 20000);
+        List<String> expected = independentOfPartitions(sequential(new Scanner(commands)));
+        // a short queue makes the reading thread wait for the workers
+        assertEquals(expected, independentOfPartitions(parallel(new Scanner(commands), 4, byRange, 2)));
+        assertEquals(expected, independentOfPartitions(parallel(new Scanner(commands), 3, byRange, 1024)));
+    }
+
+    @Test
+    void anErrorInAWorkerFailsTheReplay() {
+        Error error = new OutOfMemoryError("test");
+        Comparator<String> cmp = Dendrologist.comparator(ORDER_CODE);
+        Comparator<String> failing = (x, y) -> {
+            if (x.equals("k13") || y.equals("k13")) {
+                throw error;
+            }
+            return cmp.compare(x, y);
+        };
+        ParallelReplay replay = new ParallelReplay(2, failing, String::hashCode, 2);
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        String commands = commands(3, 50000) + "insert k13\ninsert k14\ngen k13\n" + commands(4, 50000);
+        Error thrown = assertThrows(Error.class, () -> replay.replay(new CommandReader(new Scanner(commands),
+                "test"), out));
+        assertSame(error, thrown);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "--compact", "--prefix-compare", "--lookup-cache=8", "--finger", "--multiset",
+            "--footprint" })
+    void aParallelReplayRejectsOptionsItWouldIgnore(String option) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> Dendrologist.main(new String[] { "--parallel=2", option, "1", STRINGS.getPath() }));
+        assertTrue(error.getMessage().startsWith("A parallel replay cannot use"), error.getMessage());
+    }
+
+    @Test
+    void aReplayNeedsAPartition() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParallelReplay(0, Dendrologist.comparator(ORDER_CODE), null, 16));
+    }
+}
@@ -0,0 +1,188 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Replays random inserts, removals and lookups against an AVLTree in every
+ * mode and under every order code, and against a java.util.TreeMap with the
+ * same comparator, checking that both agree and that the tree stays a valid
+ * AVL tree
+ *
+ * @author Matthew Benfield
+ * @see AVLTree, AVLTreeMap, TreeAssertions
+ */
+class RandomizedTreeTest {
+    /**
+     * The number of random operations of a run
+     */
+    private static final int OPERATIONS = 4000;
+
+    /**
+     * The modes of a tree
+     */
+    enum Mode {
+        PLAIN, FINGER, CACHE, FINGER_CACHE, PREFIX, MULTISET, AUGMENTED, AUGMENTED_MULTISET, MAP
+    }
+
+    static Stream<Arguments> modesAndOrderCodes() {
+        List<Arguments> arguments = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            for (int code = -3; code <= 3; code++) {
+                arguments.add(Arguments.of(mode, code));
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest(name = "{0} under order code {1}")
+    @MethodSource("modesAndOrderCodes")
+    void agreesWithTreeMap(Mode mode, int code) throws AVLTreeException {
+        Comparator<String> cmp = Dendrologist.comparator(code);
+        AVLTree<String> tree = mode == Mode.MAP ? new AVLTreeMap<String, Integer>(cmp)
+                : new AVLTree<>(mode == Mode.PREFIX ? Dendrologist.<String>prefixComparator(code) : cmp);
+        boolean multiset = mode == Mode.MULTISET || mode == Mode.AUGMENTED_MULTISET;
+        if (multiset) {
+            tree.setMultiset(true);
+        }
+        tree.setFingerSearch(mode == Mode.FINGER || mode == Mode.FINGER_CACHE);
+        if (mode == Mode.CACHE || mode == Mode.FINGER_CACHE) {
+            tree.enableLookupCache(64, Dendrologist.keyHash(code));
+        }
+        AVLTree<String>.Aggregates<Long> lengths = null;
+        if (mode == Mode.AUGMENTED || mode == Mode.AUGMENTED_MULTISET) {
+            lengths = tree.augment(Augmentation.totalLength());
+        }
+
+        // the entry last inserted for each key, and the occurrences of the
+        // key, or the value mapped to it by a map
+        TreeMap<String, String> latest = new TreeMap<>(cmp);
+        TreeMap<String, Integer> counts = new TreeMap<>(cmp);
+        Random random = new Random(31 * code + mode.ordinal());
+        for (int i = 0; i < OPERATIONS; i++) {
+            String key = key(random);
+            int op = random.nextInt(20);
+            if (op < 9) {
+                if (mode == Mode.MAP) {
+                    Integer old = ((AVLTreeMap<String, Integer>) tree).put(key, i);
+                    assertEquals(counts.put(key, i), old);
+                    latest.putIfAbsent(key, key);
+                } else {
+                    tree.insert(key);
+                    counts.merge(key, 1, Integer::sum);
+                    if (multiset) {
+                        latest.putIfAbsent(key, key);
+                    } else {
+                        latest.put(key, key);
+                    }
+                }
+            } else if (op < 13) {
+                tree.remove(key);
+                latest.remove(key);
+                counts.remove(key);
+            } else if (op < 15 && multiset) {
+                assertEquals(counts.containsKey(key), tree.removeOne(key));
+                if (counts.computeIfPresent(key, (k, c) -> c > 1 ? c - 1 : null) == null) {
+                    latest.remove(key);
+                }
+            } else {
+                lookUp(tree, key, latest, counts, mode);
+            }
+            if (i % 500 == 0 || i == OPERATIONS - 1) {
+                compare(tree, latest, counts, mode, cmp);
+                if (lengths != null) {
+                    String from = key(random);
+                    String to = key(random);
+                    if (cmp.compare(from, to) > 0) {
+                        String swap = from;
+                        from = to;
+                        to = swap;
+                    }
+                    assertEquals(sumOfLengths(latest, counts, multiset, from, to), lengths.range(from, to));
+                    assertEquals(sumOfLengths(latest, counts, multiset, null, null), lengths.total());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives a random key: short strings over a small alphabet, so that keys
+     * repeat and the order codes that only compare lengths see many keys that
+     * compare equal
+     */
+    private static String key(Random random) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static void lookUp(AVLTree<String> tree, String key, TreeMap<String, String> latest,
+            TreeMap<String, Integer> counts, Mode mode) throws AVLTreeException {
+        String expected = latest.get(key);
+        assertEquals(expected != null, tree.inTree(key));
+        Optional<String> found = tree.find(key);
+        assertEquals(Optional.ofNullable(expected), found);
+        if (expected == null) {
+            assertThrows(EntryNotFoundException.class, () -> tree.retrieve(key));
+            assertEquals(0, tree.count(key));
+        } else {
+            assertEquals(expected, tree.retrieve(key));
+            assertEquals(tree.isMultiset() ? counts.get(key) : 1, tree.count(key));
+        }
+        if (mode == Mode.MAP) {
+            assertEquals(counts.get(key), ((AVLTreeMap<String, Integer>) tree).get(key));
+        }
+        assertEquals(latest.higherEntry(key) == null ? null : latest.higherEntry(key).getValue(),
+                tree.successor(key));
+        assertEquals(latest.lowerEntry(key) == null ? null : latest.lowerEntry(key).getValue(),
+                tree.predecessor(key));
+    }
+
+    private static void compare(AVLTree<String> tree, TreeMap<String, String> latest,
+            TreeMap<String, Integer> counts, Mode mode, Comparator<String> cmp) {
+        List<String> entries = TreeAssertions.assertValid(tree, cmp);
+        assertEquals(new ArrayList<>(latest.values()), entries);
+        assertEquals(latest.size(), tree.size());
+        if (tree.isMultiset()) {
+            assertEquals(counts.values().stream().mapToInt(Integer::intValue).sum(), tree.occurrences());
+        }
+        if (mode == Mode.MAP) {
+            List<String> keys = new ArrayList<>();
+            List<Integer> values = new ArrayList<>();
+            ((AVLTreeMap<String, Integer>) tree).forEach((k, v) -> {
+                keys.add(k);
+                values.add(v);
+            });
+            assertEquals(entries, keys);
+            assertEquals(new ArrayList<>(counts.values()), values);
+        }
+    }
+
+    /**
+     * Sums the lengths of the entries of a range, each counted once per
+     * occurrence in a multiset
+     */
+    private static long sumOfLengths(TreeMap<String, String> latest, TreeMap<String, Integer> counts,
+            boolean multiset, String from, String to) {
+        long sum = 0;
+        for (String key : from == null ? latest.keySet() : latest.subMap(from, true, to, true).keySet()) {
+            sum += (long) latest.get(key).length() * (multiset ? counts.get(key) : 1);
+        }
+        return sum;
+    }
+}
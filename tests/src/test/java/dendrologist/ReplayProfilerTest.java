@@ -0,0 +1,118 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that ReplayProfiler records every replayed command by type and
+ * samples the tree at every interval, and that profiling leaves the trace of
+ * a replay unchanged
+ *
+ * @author Matthew Benfield
+ * @see ReplayProfiler, LatencyHistogram
+ */
+class ReplayProfilerTest {
+    /**
+     * Gives the rows of the samples table of a report, split into columns
+     */
+    private static List<String[]> samples(ReplayProfiler profiler) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        profiler.report(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\\R");
+        List<String[]> rows = new ArrayList<>();
+        boolean table = false;
+        for (String line : lines) {
+            if (table && !line.trim().startsWith("commands")) {
+                rows.add(line.trim().split("\\s+"));
+            }
+            table |= line.startsWith("Samples every");
+        }
+        return rows;
+    }
+
+    @Test
+    void everyIntervalIsSampled() {
+        ReplayProfiler profiler = new ReplayProfiler(10);
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 25; i++) {
+            tree.insert(i);
+            profiler.record(CommandType.INSERT, 1000 + i, tree);
+        }
+        tree.remove(0);
+        profiler.record(CommandType.DELETE, 5000, tree);
+        profiler.finish(tree);
+
+        assertEquals(25, profiler.latency(CommandType.INSERT).count());
+        assertEquals(1, profiler.latency(CommandType.DELETE).count());
+        assertEquals(0, profiler.latency(CommandType.GEN).count());
+        assertEquals(1024, profiler.latency(CommandType.INSERT).max());
+        assertEquals(5000, profiler.latency(CommandType.DELETE).max());
+
+        List<String[]> rows = samples(profiler);
+        assertEquals(3, rows.size());
+        assertEquals("10", rows.get(0)[0]);
+        assertEquals("20", rows.get(1)[0]);
+        assertEquals("26", rows.get(2)[0]);
+        // the size and height of the tree when each sample was taken
+        assertEquals("10", rows.get(0)[3]);
+        assertEquals("3", rows.get(0)[4]);
+        assertEquals("20", rows.get(1)[3]);
+        assertEquals("24", rows.get(2)[3]);
+    }
+
+    @Test
+    void aFinishedIntervalIsNotSampledTwice() {
+        ReplayProfiler profiler = new ReplayProfiler(5);
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 10; i++) {
+            profiler.record(CommandType.GEN, 1, tree);
+        }
+        profiler.finish(tree);
+        assertEquals(2, samples(profiler).size());
+    }
+
+    @Test
+    void profilingLeavesTheTraceUnchanged() throws AVLTreeException {
+        StringBuilder commands = new StringBuilder();
+        EnumMap<CommandType, Integer> counts = new EnumMap<>(CommandType.class);
+        for (int i = 0; i < 3000; i++) {
+            CommandType type = i % 100 == 99 ? CommandType.PROPS
+                    : i % 3 == 2 ? CommandType.GEN : i % 4 == 3 ? CommandType.DELETE : CommandType.INSERT;
+            counts.merge(type, 1, Integer::sum);
+            commands.append(type.hasKey() ? new Command(type, "k" + (i * 7919 % 500)) : new Command(type, null))
+                    .append('\n');
+        }
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        Dendrologist.replay(new Scanner(commands.toString()), new AVLTree<>(Dendrologist.<String>comparator(1)),
+                new PrintStream(plain, true, StandardCharsets.UTF_8), "test");
+        ByteArrayOutputStream profiled = new ByteArrayOutputStream();
+        ReplayProfiler profiler = new ReplayProfiler(1000);
+        AVLTree<String> tree = new AVLTree<>(Dendrologist.<String>comparator(1));
+        Dendrologist.replay(new Scanner(commands.toString()), tree,
+                new PrintStream(profiled, true, StandardCharsets.UTF_8), "test", profiler);
+        profiler.finish(tree);
+
+        assertEquals(plain.toString(StandardCharsets.UTF_8), profiled.toString(StandardCharsets.UTF_8));
+        for (CommandType type : CommandType.values()) {
+            assertEquals(counts.getOrDefault(type, 0), (int) profiler.latency(type).count(), type.word());
+        }
+        assertEquals(3, samples(profiler).size());
+        assertTrue(profiler.latency(CommandType.INSERT).percentile(50) > 0);
+    }
+
+    @Test
+    void theIntervalMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplayProfiler(0));
+    }
+}
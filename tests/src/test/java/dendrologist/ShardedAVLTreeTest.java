@@ -0,0 +1,163 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests ShardedAVLTree under concurrent requests: the shards split by hash
+ * or by ranges of keys end up holding the same entries as a sequential set,
+ * each key in the shard that owns it, and traversals merge the shards in
+ * order. Lookups share a shard unless they change it through a finger or a
+ * lookup cache.
+ *
+ * @author Matthew Benfield
+ * @see ShardedAVLTree
+ */
+@Timeout(60)
+class ShardedAVLTreeTest {
+    private static final Comparator<String> ORDER = Dendrologist.comparator(1);
+
+    /**
+     * Runs random inserts and removals from several threads, each on keys of
+     * its own, and gives the entries the tree should end up with
+     */
+    private static TreeSet<String> mutateConcurrently(ShardedAVLTree<String> tree) throws Exception {
+        int threads = 8;
+        List<TreeSet<String>> expected = new ArrayList<>();
+        List<Future<?>> requests = new ArrayList<>();
+        // a pool of its own, so that the threads outnumber the shards
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                TreeSet<String> mine = new TreeSet<>(ORDER);
+                expected.add(mine);
+                requests.add(executor.submit(() -> {
+                    Random random = new Random(thread);
+                    for (int i = 0; i < 5000; i++) {
+                        String key = (char) ('a' + random.nextInt(26)) + Integer.toString(random.nextInt(300))
+                                + "#" + thread;
+                        if (random.nextInt(3) < 2) {
+                            tree.insert(key);
+                            mine.add(key);
+                        } else {
+                            tree.remove(key);
+                            mine.remove(key);
+                        }
+                        assertEquals(mine.contains(key), tree.inTree(key));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        TreeSet<String> all = new TreeSet<>(ORDER);
+        for (TreeSet<String> mine : expected) {
+            all.addAll(mine);
+        }
+        return all;
+    }
+
+    /**
+     * Checks that every shard is a valid tree holding only the keys it owns
+     * and that the sharded tree holds the expected entries in order
+     */
+    private static void assertHolds(ShardedAVLTree<String> tree, TreeSet<String> expected) throws AVLTreeException {
+        List<List<String>> shards = tree.queryAll(shard -> TreeAssertions.assertValid(shard, ORDER));
+        for (int i = 0; i < shards.size(); i++) {
+            for (String key : shards.get(i)) {
+                assertEquals(i, tree.shardOf(key));
+            }
+        }
+        List<String> traversed = new ArrayList<>();
+        tree.traverse(traversed::add);
+        assertEquals(new ArrayList<>(expected), traversed);
+        assertEquals(expected.size(), tree.size());
+        for (String key : expected) {
+            assertEquals(key, tree.retrieve(key));
+        }
+        assertFalse(tree.find("missing").isPresent());
+    }
+
+    @Test
+    void hashedShardsUnderConcurrentRequests() throws Exception {
+        ShardedAVLTree<String> tree = ShardedAVLTree.hashed(4, ORDER, Dendrologist.keyHash(1));
+        assertEquals(4, tree.shards());
+        TreeSet<String> expected = mutateConcurrently(tree);
+        assertHolds(tree, expected);
+        List<Integer> sizes = tree.queryAll(AVLTree::size);
+        assertTrue(sizes.stream().allMatch(size -> size > 0));
+    }
+
+    @Test
+    void rangedShardsUnderConcurrentRequests() throws Exception {
+        ShardedAVLTree<String> tree = ShardedAVLTree.ranged(ORDER, List.of("g", "n", "t"));
+        assertEquals(4, tree.shards());
+        assertEquals(0, tree.shardOf("a1"));
+        assertEquals(1, tree.shardOf("g"));
+        assertEquals(1, tree.shardOf("m9"));
+        assertEquals(3, tree.shardOf("z"));
+        TreeSet<String> expected = mutateConcurrently(tree);
+        assertHolds(tree, expected);
+    }
+
+    @Test
+    void aWrappedTreeIsASingleShard() throws Exception {
+        AVLTree<String> inner = new AVLTree<>(ORDER);
+        inner.insert("kept");
+        ShardedAVLTree<String> tree = ShardedAVLTree.wrap(inner);
+        assertEquals(1, tree.shards());
+        TreeSet<String> expected = mutateConcurrently(tree);
+        expected.add("kept");
+        assertHolds(tree, expected);
+        assertEquals(inner.height(), tree.height());
+    }
+
+    @Test
+    void lookupsThatMoveTheFingerOrFillTheCacheAreExclusive() throws Exception {
+        AVLTree<String> inner = new AVLTree<>(ORDER);
+        inner.setFingerSearch(true);
+        inner.enableLookupCache(64);
+        ShardedAVLTree<String> tree = ShardedAVLTree.wrap(inner);
+        TreeSet<String> expected = mutateConcurrently(tree);
+        assertHolds(tree, expected);
+    }
+
+    @Test
+    void theRequestExecutorHasAThreadPerShard() {
+        ExecutorService executor = ShardedAVLTree.<String>hashed(3, ORDER, String::hashCode).newRequestExecutor();
+        try {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertEquals(3, pool.getCorePoolSize());
+            assertEquals(3, pool.getMaximumPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void theShardsMustBeWellDefined() {
+        assertThrows(IllegalArgumentException.class, () -> ShardedAVLTree.hashed(0, ORDER, String::hashCode));
+        assertThrows(IllegalArgumentException.class, () -> ShardedAVLTree.ranged(ORDER, List.of("n", "g")));
+        assertTrue(ShardedAVLTree.<String>hashed(2, ORDER, String::hashCode).isEmpty());
+    }
+}
@@ -0,0 +1,137 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that the keys of a StringArena behave as the strings they stand for,
+ * compared with String.compareTo and the comparators of every order code,
+ * whether their characters are stored one or two bytes each
+ *
+ * @author Matthew Benfield
+ * @see StringArena, CompactKey
+ */
+class StringArenaTest {
+    /**
+     * Characters stored one byte each, two bytes each, and on both sides of
+     * the boundary between them
+     */
+    private static final char[] ALPHABET = { 'a', 'b', 'c', 'z', '0', '\u007f', '\u00e9', '\u00ff', '\u0100',
+            '\u03a9', '\u4e2d', '\ud83d', '\ude00', '\uffff' };
+
+    /**
+     * Generates short strings sharing many prefixes
+     */
+    static List<String> strings(long seed, int count) {
+        Random random = new Random(seed);
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        for (int i = 0; i < count; i++) {
+            StringBuilder s = new StringBuilder();
+            int length = random.nextInt(6);
+            boolean wide = random.nextInt(4) == 0;
+            for (int j = 0; j < length; j++) {
+                s.append(ALPHABET[random.nextInt(wide ? ALPHABET.length : 4)]);
+            }
+            strings.add(s.toString());
+        }
+        return strings;
+    }
+
+    @Test
+    void aStringIsStoredOnce() {
+        StringArena arena = new StringArena(16);
+        CompactKey first = arena.intern("oak");
+        long bytes = arena.bytes();
+        CompactKey second = arena.intern("oak");
+        assertEquals(1, arena.size());
+        assertEquals(bytes, arena.bytes());
+        assertEquals(first, second);
+        assertEquals(first, arena.find("oak"));
+        assertNull(arena.find("elm"));
+
+        CompactKey probe = arena.probe("elm");
+        assertEquals("elm", probe.toString());
+        assertEquals(1, arena.size());
+        assertNull(arena.find("elm"));
+        assertEquals(arena.intern("elm"), probe);
+    }
+
+    @Test
+    void everyInternedStringIsFound() {
+        StringArena arena = new StringArena(16);
+        List<CompactKey> keys = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            keys.add(arena.intern("k" + i + (i % 7 == 0 ? "\u03a9" : "")));
+        }
+        assertEquals(10000, arena.size());
+        for (int i = 0; i < 10000; i++) {
+            String s = "k" + i + (i % 7 == 0 ? "\u03a9" : "");
+            assertEquals(keys.get(i), arena.find(s));
+            assertEquals(s, keys.get(i).toString());
+        }
+    }
+
+    @Test
+    void aKeyBehavesAsItsString() {
+        StringArena arena = new StringArena();
+        for (String s : strings(33, 2000)) {
+            CompactKey key = arena.intern(s);
+            assertEquals(s, key.toString());
+            assertEquals(s.length(), key.length());
+            assertEquals(s.hashCode(), key.hashCode());
+            for (int i = 0; i < s.length(); i++) {
+                assertEquals(s.charAt(i), key.charAt(i));
+            }
+            if (s.length() > 1) {
+                assertEquals(s.substring(1), key.subSequence(1, s.length()).toString());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> key.charAt(s.length()));
+        }
+    }
+
+    @Test
+    void keysCompareAsTheirStrings() {
+        StringArena arena = new StringArena();
+        StringArena other = new StringArena();
+        List<String> strings = strings(34, 300);
+        for (String x : strings) {
+            for (String y : strings) {
+                assertEquals(x.compareTo(y), arena.intern(x).compareTo(arena.intern(y)), x + " <> " + y);
+                // keys of different arenas, or probes, compare alike
+                assertEquals(x.compareTo(y), arena.intern(x).compareTo(other.probe(y)), x + " <> " + y);
+                if (x.equals(y)) {
+                    assertEquals(arena.intern(x), other.probe(y));
+                } else {
+                    assertNotEquals(arena.intern(x), other.probe(y));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void keysFollowEveryOrderCode(int code) {
+        StringArena arena = new StringArena();
+        Comparator<String> strings = Dendrologist.comparator(code);
+        Comparator<CompactKey> keys = Dendrologist.comparator(code);
+        List<String> sample = strings(code, 200);
+        for (String x : sample) {
+            for (String y : sample) {
+                assertEquals(Integer.signum(strings.compare(x, y)),
+                        Integer.signum(keys.compare(arena.intern(x), arena.intern(y))), x + " <> " + y);
+            }
+        }
+    }
+}
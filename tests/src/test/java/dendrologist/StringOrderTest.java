@@ -0,0 +1,108 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that the prefix comparators of every order code order strings and
+ * compact keys as the comparators built on String.compareTo do, whatever
+ * shared prefix they are told to skip, and that trees built with them replay
+ * the sample command file with the original trace
+ *
+ * @author Matthew Benfield
+ * @see StringOrder, PrefixComparator
+ */
+class StringOrderTest {
+    private static int shared(String x, String y) {
+        int common = Math.min(x.length(), y.length());
+        int i = 0;
+        while (i < common && x.charAt(i) == y.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Checks a prefix comparison of two strings against their comparison by
+     * the order code, skipping every prefix they share
+     */
+    private static <K extends CharSequence & Comparable<K>> void assertComparesFrom(PrefixComparator<K> order,
+            Comparator<String> expected, String x, String y, K kx, K ky) {
+        int sign = Integer.signum(expected.compare(x, y));
+        assertEquals(sign, Integer.signum(order.compare(kx, ky)), x + " <> " + y);
+        int shared = shared(x, y);
+        for (int from = 0; from <= shared; from++) {
+            int result = order.compareFrom(kx, ky, from);
+            assertEquals(sign, Integer.signum(result), x + " <> " + y + " from " + from);
+            if (result != 0) {
+                // the reported prefix is shared, and it is the whole shared
+                // prefix unless the order settles on the lengths alone
+                int prefix = PrefixComparator.prefix(result);
+                assertTrue(prefix <= shared, x + " <> " + y);
+                if (x.length() == y.length()) {
+                    assertEquals(shared, prefix, x + " <> " + y);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void prefixComparisonsFollowTheOrderCode(int code) {
+        Comparator<String> expected = Dendrologist.comparator(code);
+        PrefixComparator<String> strings = (PrefixComparator<String>) Dendrologist.<String>prefixComparator(code);
+        PrefixComparator<CompactKey> keys = (PrefixComparator<CompactKey>) Dendrologist
+                .<CompactKey>prefixComparator(code);
+        StringArena arena = new StringArena();
+        List<String> sample = StringArenaTest.strings(code + 100, 150);
+        for (String x : sample) {
+            for (String y : sample) {
+                assertComparesFrom(strings, expected, x, y, x, y);
+                assertComparesFrom(keys, expected, x, y, arena.intern(x), arena.intern(y));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void treesSkippingPrefixesHaveTheSameShape(int code) {
+        AVLTree<String> plain = new AVLTree<>(Dendrologist.<String>comparator(code));
+        AVLTree<String> skipping = new AVLTree<>(Dendrologist.<String>prefixComparator(code));
+        Random random = new Random(code);
+        for (int i = 0; i < 20000; i++) {
+            // keys sharing long prefixes, the case prefix skipping is for
+            String key = "https://example.org/" + random.nextInt(50) + "/" + random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                plain.remove(key);
+                skipping.remove(key);
+            } else {
+                plain.insert(key);
+                skipping.insert(key);
+            }
+            assertEquals(plain.inTree(key + "x"), skipping.inTree(key + "x"));
+        }
+        List<String> expected = new ArrayList<>();
+        plain.preorderTraverse(x -> expected.add((String) x));
+        List<String> actual = new ArrayList<>();
+        skipping.preorderTraverse(x -> actual.add((String) x));
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void prefixComparisonsGiveTheOriginalTrace(int code) throws IOException {
+        assertEquals(DendrologistTest.expectedTrace(code),
+                DendrologistTest.trace(new AVLTree<>(Dendrologist.<String>prefixComparator(code))));
+        assertEquals(DendrologistTest.expectedTrace(code),
+                DendrologistTest.compactTrace(new AVLTree<>(Dendrologist.<CompactKey>prefixComparator(code))));
+    }
+}
@@ -0,0 +1,105 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Checks the shape of an AVL tree through its public queries: the order of
+ * the entries, the balance of every node, and the parent links, which are
+ * followed up from every child back to its parent
+ *
+ * @author Matthew Benfield
+ * @see AVLTree
+ */
+final class TreeAssertions {
+    private TreeAssertions() {
+    }
+
+    /**
+     * Asserts that a tree is a valid AVL tree whose parent links agree with
+     * its child links
+     *
+     * @param <E>  data type of elements of the tree
+     * @param tree the tree
+     * @param cmp  the order of the entries of the tree
+     * @return the entries of the tree in order
+     */
+    static <E extends Comparable<E>> List<E> assertValid(AVLTree<E> tree, Comparator<? super E> cmp) {
+        List<E> entries = new ArrayList<>();
+        AVLTree<E>.Cursor cursor = tree.first();
+        if (tree.isEmpty()) {
+            assertFalse(cursor.isValid());
+            assertEquals(-1, tree.height());
+            assertEquals(0, tree.size());
+            return entries;
+        }
+        while (cursor.parent()) {
+            // climb to the root
+        }
+        try {
+            assertNull(tree.getParent(cursor.entry()));
+        } catch (AVLTreeException e) {
+            throw new AssertionError(e);
+        }
+        int[] nodes = new int[1];
+        assertEquals(tree.height(), check(cursor, cmp, nodes));
+        assertEquals(tree.size(), nodes[0]);
+
+        AVLTree<E>.Cursor scan = tree.first();
+        E previous = null;
+        do {
+            E entry = scan.entry();
+            if (previous != null) {
+                assertTrue(cmp.compare(previous, entry) < 0, previous + " should precede " + entry);
+            }
+            entries.add(entry);
+            previous = entry;
+        } while (scan.next());
+        assertEquals(tree.size(), entries.size());
+
+        AVLTree<E>.Cursor back = tree.last();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            assertSame(entries.get(i), back.entry());
+            assertEquals(i > 0, back.previous());
+        }
+        return entries;
+    }
+
+    /**
+     * Checks the subtree at a cursor, leaving the cursor where it started
+     *
+     * @param <E>    data type of elements of the tree
+     * @param cursor a cursor on the root of the subtree
+     * @param cmp    the order of the entries of the tree
+     * @param nodes  counts the nodes visited
+     * @return the height of the subtree
+     */
+    private static <E extends Comparable<E>> int check(AVLTree<E>.Cursor cursor, Comparator<? super E> cmp,
+            int[] nodes) {
+        E entry = cursor.entry();
+        nodes[0]++;
+        int left = -1;
+        if (cursor.left()) {
+            assertTrue(cmp.compare(cursor.entry(), entry) < 0);
+            left = check(cursor, cmp, nodes);
+            assertTrue(cursor.parent(), "the left child of " + entry + " should link to its parent");
+            assertSame(entry, cursor.entry());
+        }
+        int right = -1;
+        if (cursor.right()) {
+            assertTrue(cmp.compare(cursor.entry(), entry) > 0);
+            right = check(cursor, cmp, nodes);
+            assertTrue(cursor.parent(), "the right child of " + entry + " should link to its parent");
+            assertSame(entry, cursor.entry());
+        }
+        assertTrue(Math.abs(left - right) <= 1, "the node of " + entry + " is out of balance");
+        return 1 + Math.max(left, right);
+    }
+}
@@ -0,0 +1,167 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests round trips between TreeClient and TreeServer, over a single tree and
+ * over a sharded tree served by an executor, one request at a time and in
+ * pipelined batches
+ *
+ * @author Matthew Benfield
+ * @see TreeServer, TreeClient
+ */
+@Timeout(120)
+class TreeServerTest {
+    private static final int ORDER_CODE = 1;
+
+    private TreeServer server;
+    private ExecutorService executor;
+
+    /**
+     * Starts a server on a free port of the loopback address and connects a
+     * client to it
+     */
+    private TreeClient connect(boolean sharded) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        if (sharded) {
+            ShardedAVLTree<String> tree = ShardedAVLTree.hashed(4, Dendrologist.<String>comparator(ORDER_CODE),
+                    Dendrologist.<String>keyHash(ORDER_CODE));
+            executor = tree.newRequestExecutor();
+            server = new TreeServer(tree, executor, address);
+        } else {
+            server = new TreeServer(new AVLTree<>(Dendrologist.<String>comparator(ORDER_CODE)), address);
+        }
+        server.start();
+        return new TreeClient(InetAddress.getLoopbackAddress().getHostAddress(), server.port());
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void everyRequestIsAnswered(boolean sharded) throws IOException {
+        try (TreeClient client = connect(sharded)) {
+            assertEquals("Inserted: b", client.send("insert b"));
+            assertEquals("Inserted: a", client.send("insert a"));
+            assertEquals("Inserted: c", client.send("insert c"));
+            assertEquals("Found: a", client.send("lookup a"));
+            assertEquals("Missing: z", client.send("lookup z"));
+            assertEquals("Retrieved: c", client.send("retrieve c"));
+            assertEquals("Missing: z", client.send("retrieve z"));
+            assertEquals("Size: 3", client.send("size"));
+            assertEquals("Deleted: b", client.send("delete b"));
+            assertEquals("Size: 2", client.send("size"));
+            assertEquals("ERROR unknown command: bogus", client.send("bogus b"));
+            assertEquals("ERROR malformed request: insert", client.send("insert"));
+            assertEquals("ERROR malformed request: size 3", client.send("size 3"));
+            assertTrue(client.send("traverse").contains("In-Order Traversal: \na\nc\nPost-Order"));
+        }
+    }
+
+    @Test
+    void genealogiesAndPropertiesAreThoseOfTheTree() throws IOException {
+        AVLTree<String> expected = new AVLTree<>(Dendrologist.<String>comparator(ORDER_CODE));
+        try (TreeClient client = connect(false)) {
+            for (int i = 0; i < 100; i++) {
+                expected.insert("k" + i);
+                client.send("insert k" + i);
+            }
+            for (String key : new String[] { "k0", "k42", "k99", "k100" }) {
+                // a reply ends at its first empty line, so the genealogy comes without its own
+                assertEquals(Dendrologist.genealogy(expected, key).replaceAll("\\R+", "\n").strip(),
+                        client.send("gen " + key));
+            }
+            // the replies stay in step with the requests
+            assertEquals("Size: 100", client.send("size"));
+            assertEquals(Dendrologist.properties(expected.size(), expected.height(), expected.diameter(),
+                    expected.isFibonacci(), expected.isComplete()).strip(), client.send("props"));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void aPipelinedBatchIsAnsweredInOrder(boolean sharded) throws IOException {
+        Random random = new Random(31);
+        TreeSet<String> keys = new TreeSet<>(Dendrologist.<String>comparator(ORDER_CODE));
+        List<String> requests = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + random.nextInt(1000);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    keys.add(key);
+                    requests.add("insert " + key);
+                    expected.add("Inserted: " + key);
+                }
+                case 1 -> {
+                    keys.remove(key);
+                    requests.add("delete " + key);
+                    expected.add("Deleted: " + key);
+                }
+                case 2 -> {
+                    requests.add("lookup " + key);
+                    expected.add((keys.contains(key) ? "Found: " : "Missing: ") + key);
+                }
+                default -> {
+                    requests.add("size");
+                    expected.add("Size: " + keys.size());
+                }
+            }
+        }
+        try (TreeClient client = connect(sharded)) {
+            assertEquals(expected, client.send(requests));
+        }
+    }
+
+    @Test
+    void aBatchWithLongRepliesDoesNotStall() throws IOException {
+        // the traversals reply with far more than the socket buffers hold, so
+        // the client must read replies while it is still sending requests
+        List<String> requests = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            requests.add("insert k" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            requests.add("traverse");
+        }
+        for (int i = 0; i < 300000; i++) {
+            requests.add("lookup k" + i % 3000);
+        }
+        try (TreeClient client = connect(true)) {
+            List<String> replies = client.send(requests);
+            assertEquals(requests.size(), replies.size());
+            String traversal = replies.get(3000);
+            assertTrue(traversal.length() > 3 * 3000 * 5);
+            for (int i = 3000; i < 3500; i++) {
+                assertEquals(traversal, replies.get(i));
+            }
+            for (int i = 3500; i < requests.size(); i++) {
+                assertEquals("Found: k" + (i - 3500) % 3000, replies.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dendrologist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that a Workload generates the same commands for the same seed, keys
+ * that are distinct under its order code and loaded in the chosen order, and
+ * a run that follows its mix and skew
+ *
+ * @author Matthew Benfield
+ * @see Workload, WorkloadGenerator
+ */
+class WorkloadTest {
+    private static final int[] MIX = { 20, 10, 70, 0, 0 };
+
+    @TempDir
+    File directory;
+
+    private static List<String> commands(Workload workload) {
+        List<String> commands = new ArrayList<>();
+        workload.generate(command -> commands.add(command.toString()));
+        return commands;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Workload.InsertOrder.class)
+    void aSeedGivesTheSameCommands(Workload.InsertOrder order) {
+        List<String> first = commands(new Workload(2000, 5000, MIX, 1, 0.99, order, 46));
+        assertEquals(7000, first.size());
+        assertEquals(first, commands(new Workload(2000, 5000, MIX, 1, 0.99, order, 46)));
+        assertNotEquals(first, commands(new Workload(2000, 5000, MIX, 1, 0.99, order, 47)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -3, -2, -1, 0, 1, 2, 3 })
+    void theKeysAreDistinctUnderTheOrderCode(int code) {
+        Comparator<String> cmp = Dendrologist.comparator(code);
+        Workload workload = new Workload(5000, 0, MIX, code, 0.99, Workload.InsertOrder.SORTED, 46);
+        String[] keys = workload.keys();
+        assertEquals(Math.abs(code) == 2 ? 4096 : 5000, workload.size());
+        assertEquals(workload.size(), keys.length);
+        TreeSet<String> distinct = new TreeSet<>(cmp);
+        distinct.addAll(Arrays.asList(keys));
+        assertEquals(keys.length, distinct.size());
+        assertEquals(new ArrayList<>(distinct), Arrays.asList(keys));
+    }
+
+    @Test
+    void everyInsertOrderLoadsTheSameKeys() {
+        Comparator<String> cmp = Dendrologist.comparator(1);
+        String[] sorted = new Workload(3000, 0, MIX, 1, 0.5, Workload.InsertOrder.SORTED, 46).keys();
+        for (Workload.InsertOrder order : Workload.InsertOrder.values()) {
+            String[] keys = new Workload(3000, 0, MIX, 1, 0.5, order, 46).keys();
+            if (order == Workload.InsertOrder.REVERSE) {
+                for (int i = 1; i < keys.length; i++) {
+                    assertTrue(cmp.compare(keys[i - 1], keys[i]) > 0);
+                }
+            }
+            Arrays.sort(keys, cmp);
+            assertEquals(Arrays.asList(sorted), Arrays.asList(keys), order.name());
+        }
+    }
+
+    @Test
+    void theRunFollowsTheMixAndTheSkew() {
+        int operations = 200000;
+        Workload skewed = new Workload(1000, operations, new int[] { 25, 0, 75, 0, 0 }, 1, 0.99,
+                Workload.InsertOrder.RANDOM, 46);
+        Command[] commands = skewed.commands();
+        int gens = 0;
+        Map<String, Integer> hits = new HashMap<>();
+        for (int i = 1000; i < commands.length; i++) {
+            assertTrue(commands[i].type() == CommandType.INSERT || commands[i].type() == CommandType.GEN);
+            if (commands[i].type() == CommandType.GEN) {
+                gens++;
+            }
+            hits.merge(commands[i].key(), 1, Integer::sum);
+        }
+        assertEquals(0.75, (double) gens / operations, 0.01);
+        // under a Zipfian skew the hottest key takes far more than its share
+        int hottest = hits.values().stream().max(Integer::compare).get();
+        assertTrue(hottest > 20 * operations / 1000, hottest + " hits");
+
+        Workload uniform = new Workload(1000, operations, MIX, 1, 0, Workload.InsertOrder.RANDOM, 46);
+        hits.clear();
+        Command[] run = uniform.commands();
+        for (int i = 1000; i < run.length; i++) {
+            hits.merge(run[i].key(), 1, Integer::sum);
+        }
+        hottest = hits.values().stream().max(Integer::compare).get();
+        assertTrue(hottest < 2 * operations / 1000, hottest + " hits");
+    }
+
+    @Test
+    void aWrittenWorkloadReadsBackAsItsCommands() throws IOException {
+        Workload workload = new Workload(500, 2000, new int[] { 20, 10, 60, 5, 5 }, 3, 0.9,
+                Workload.InsertOrder.ZIGZAG, 46);
+        File text = new File(directory, "workload.avl");
+        assertEquals(2500, workload.writeText(text));
+        List<String> read = new ArrayList<>();
+        CommandReader reader = new CommandReader(new Scanner(text), text.getPath());
+        try {
+            Command command;
+            while ((command = reader.next()) != null) {
+                read.add(command.toString());
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(commands(workload), read);
+    }
+
+    @Test
+    void aWorkloadMustBeWellDefined() {
+        Workload.InsertOrder random = Workload.InsertOrder.RANDOM;
+        assertThrows(IllegalArgumentException.class, () -> new Workload(0, 10, MIX, 1, 0.5, random, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Workload(10, 10, new int[5], 1, 0.5, random, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Workload(10, 10, MIX, 1, 1.0, random, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Workload(10, 10, MIX, 4, 0.5, random, 1));
+        assertEquals(0, new Workload(10, 0, new int[5], 1, 0.5, random, 1).operations());
+    }
+}